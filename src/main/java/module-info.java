@@ -2,22 +2,20 @@ module org.com.battleship {
     requires javafx.controls;
     requires javafx.fxml;
 
-    requires org.controlsfx.controls;
-    requires net.synedra.validatorfx;
-    requires org.kordamp.ikonli.javafx;
-    requires com.almasb.fxgl.all;
-
-
     requires javafx.base;
     requires org.apache.logging.log4j;
-    requires annotations;
-    requires java.logging;
-
-    requires datafx;
-
+    requires java.management;
+    requires static jdk.management;
+    requires com.lmax.disruptor;
+    requires static jol.core;
 
     opens org.com.battleship to javafx.fxml;
     exports org.com.battleship;
     exports org.com.battleship.controller;
+    exports org.com.battleship.events;
     exports org.com.battleship.model;
+    exports org.com.battleship.net;
+    exports org.com.battleship.persist;
+    exports org.com.battleship.state;
+    exports org.com.battleship.wall;
 }
\ No newline at end of file
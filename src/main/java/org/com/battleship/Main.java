@@ -10,6 +10,8 @@ import java.util.Objects;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.com.battleship.startup.GameScenePreloader;
+import org.com.battleship.startup.StartupTimeline;
 
 /**
  * The main class of the Battleship game application.
@@ -23,13 +25,15 @@ public class Main extends Application {
 
     /**
      * Loads the main menu when the application starts.
-     * It loads the FXML file for the main menu, sets the scene, and displays it in a non-resizable window.
+     * It loads the FXML file for the main menu, sets the scene, and displays it in a non-resizable window,
+     * then starts preparing the game scene in the background.
      * If there is an issue loading the FXML, an error is logged.
      *
      * @param stage the primary stage for the application
      */
     @Override
     public void start(Stage stage) {
+        StartupTimeline.mark(StartupTimeline.FX_START);
         try {
             // Load the main menu screen when the application starts using FXMLLoader
             Parent root = FXMLLoader.load(Objects.requireNonNull(getClass().getClassLoader().getResource("main_menu.fxml")));
@@ -48,6 +52,10 @@ public class Main extends Application {
 
             // Request focus on the root element of the scene to ensure proper user interaction
             scene.getRoot().requestFocus();
+            StartupTimeline.mark(StartupTimeline.MENU_SHOWN);
+
+            // Build the game scene in the background while the player looks at the menu
+            GameScenePreloader.start(stage);
         } catch(Exception e) {
             // Log error if unable to load the main menu due to an issue with the FXML file
             logger.error("Unable to load main menu", e);
@@ -61,6 +69,7 @@ public class Main extends Application {
      * @param args the command-line arguments passed to the application
      */
     public static void main(String[] args) {
+        StartupTimeline.mark(StartupTimeline.MAIN);
         // Launch the JavaFX application with the provided command-line arguments
         launch(args);
     }
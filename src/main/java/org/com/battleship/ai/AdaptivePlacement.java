@@ -0,0 +1,111 @@
+package org.com.battleship.ai;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+
+/**
+ * Places the fleet where a particular opponent tends to shoot last.
+ * A number of random layouts are drawn and the one whose cells have the highest average lateness
+ * in the opponent's shot history wins. Drawing a fixed number of candidates rather than searching
+ * for the single best layout keeps the placement biased but still varied, so the opponent cannot
+ * learn to shoot one spot first. Falls back to random placement until enough history exists.
+ */
+public final class AdaptivePlacement implements PlacementStrategy {
+
+    private final Supplier<double[]> lateness; // Average lateness per cell, or null without history
+    private final int candidates;              // Number of random layouts to choose from
+
+    /**
+     * Private constructor to create an AdaptivePlacement using the Builder pattern.
+     *
+     * @param builder the Builder instance used for setting the strategy's properties
+     */
+    private AdaptivePlacement(Builder builder) {
+        this.lateness = builder.lateness;
+        this.candidates = builder.candidates;
+    }
+
+    /**
+     * Chooses the most out-of-the-way of several random layouts.
+     *
+     * @param random the random number generator to draw from
+     * @return a legal layout of the standard fleet
+     */
+    @Override
+    public FleetLayout place(Random random) {
+        double[] heat = lateness.get();
+        FleetLayout best = FleetLayout.random(random);
+        if (heat == null) return best;  // Nothing learned yet
+        double bestScore = score(best, heat);
+        for (int i = 1; i < candidates; i++) {
+            FleetLayout layout = FleetLayout.random(random);
+            double score = score(layout, heat);
+            if (score > bestScore) {
+                best = layout;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Sums the lateness of the cells a layout occupies.
+     *
+     * @param layout the layout to score
+     * @param heat   the average lateness per cell
+     * @return the layout's score; higher means the opponent reaches it later
+     */
+    private static double score(FleetLayout layout, double[] heat) {
+        double score = 0;
+        for (long bits = layout.occupiedLo(); bits != 0; bits &= bits - 1) {
+            score += heat[Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = layout.occupiedHi(); bits != 0; bits &= bits - 1) {
+            score += heat[64 + Long.numberOfTrailingZeros(bits)];
+        }
+        return score;
+    }
+
+    /**
+     * Builder class for constructing AdaptivePlacement instances.
+     */
+    public static class Builder {
+        private Supplier<double[]> lateness = () -> null;
+        private int candidates = 24;
+
+        /**
+         * Sets where the opponent's average lateness per cell comes from; the supplier may return
+         * {@code null} while no history is available. Must not block.
+         *
+         * @param lateness the supplier of the average lateness per cell, indexed like {@link Grid#index(int, int)}
+         * @return the Builder instance for chaining
+         */
+        public Builder setLateness(Supplier<double[]> lateness) {
+            this.lateness = lateness;
+            return this;
+        }
+
+        /**
+         * Sets how many random layouts to choose from. More candidates give a stronger bias
+         * and a more predictable fleet. Defaults to 24.
+         *
+         * @param candidates the number of candidate layouts
+         * @return the Builder instance for chaining
+         */
+        public Builder setCandidates(int candidates) {
+            this.candidates = Math.max(1, candidates);
+            return this;
+        }
+
+        /**
+         * Builds the strategy.
+         *
+         * @return a new AdaptivePlacement
+         */
+        public AdaptivePlacement build() {
+            return new AdaptivePlacement(this);
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package org.com.battleship.ai;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.Grid;
+
+/**
+ * Chooses single shots within a time budget per move.
+ * The answer is refined in stages, each of which only starts if the time left is expected to cover it:
+ * <ol>
+ *     <li>a heuristic that costs well under a microsecond: extend lines of hits, otherwise a random
+ *     cell on the checkerboard the smallest remaining ship cannot avoid;</li>
+ *     <li>the {@link DensityMap}, which weighs every placement of every remaining ship on its own;</li>
+ *     <li>the {@link EndgameSolver} once few enough ships remain, which plays exactly;</li>
+ *     <li>otherwise Monte Carlo sampling of whole fleets consistent with everything known, which
+ *     unlike the density map accounts for ships not touching each other, until the deadline.</li>
+ * </ol>
+ * A tiny budget therefore gives a weak but nearly free opponent, and a larger one a stronger opponent
+ * whose extra strength costs exactly the time it was given. The budget is measured in wall-clock time
+ * on the calling thread, which matches CPU time as long as that thread is not preempted.
+ */
+public final class AnytimeTargeting {
+
+    /** Number of samples below which the sampled estimate is too noisy to replace the density map. */
+    static final int MIN_SAMPLES = 256;
+
+    /** Attempts at a random placement for a ship before the sample is abandoned. */
+    private static final int ATTEMPTS = 16;
+
+    /** Time the endgame solver needs at least to be worth starting. */
+    private static final long SOLVER_MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Random random;          // Source of the heuristic's and the sampler's choices
+    private final EndgameSolver solver;   // Exact play once few ships remain
+    private long budgetNanos;             // Time budget per move
+    private long densityNanos;            // Running estimate of the density map's cost
+    private final int[] tally = new int[Grid.CELLS]; // How often each cell held a ship in the samples
+
+    private long lastThinkNanos; // Time spent on the last move
+    private int lastDepth;       // Stage that produced the last move, see getLastDepth()
+    private int lastSamples;     // Number of consistent fleets sampled for the last move
+
+    /**
+     * Private constructor to create an AnytimeTargeting instance using the Builder pattern.
+     *
+     * @param builder the Builder instance used for setting the budget, random source and solver
+     */
+    private AnytimeTargeting(Builder builder) {
+        this.random = builder.random;
+        this.budgetNanos = builder.budgetNanos;
+        this.densityNanos = TimeUnit.MICROSECONDS.toNanos(50); // Pessimistic until measured
+        this.solver = builder.solver != null ? builder.solver : new EndgameSolver.Builder().build();
+    }
+
+    /**
+     * Chooses the next shot against a board.
+     *
+     * @param target the board being attacked
+     * @return the index of the cell to shoot, or {@code -1} if every cell has been shot
+     */
+    public int choose(BoardState target) {
+        return choose(Knowledge.of(target));
+    }
+
+    /**
+     * Chooses the next shot for the given knowledge, refining it until the time budget runs out.
+     *
+     * @param knowledge what the shooter knows about the board being attacked
+     * @return the index of the cell to shoot, or {@code -1} if every cell has been shot
+     */
+    public int choose(Knowledge knowledge) {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        lastSamples = 0;
+        lastDepth = 1;
+        int answer = heuristic(knowledge);
+        if (answer < 0 || knowledge.remainingShips() == 0) return finish(start, answer);
+
+        if (deadline - System.nanoTime() > densityNanos) {
+            long began = System.nanoTime();
+            int cell = DensityMap.best(DensityMap.compute(knowledge));
+            densityNanos = (3 * densityNanos + System.nanoTime() - began) / 4;
+            if (cell >= 0) {
+                answer = cell;
+                lastDepth = 2;
+            }
+        } else {
+            densityNanos -= densityNanos / 8; // Forget a slow outlier eventually, e.g. one from before JIT compilation
+        }
+
+        if (deadline - System.nanoTime() > SOLVER_MIN_NANOS) {
+            int cell = solver.solve(knowledge, deadline);
+            if (cell >= 0) {
+                lastDepth = 3 + solver.getLastDepth();
+                return finish(start, cell);
+            }
+        }
+
+        if (deadline - System.nanoTime() > densityNanos) { // Setting up the sampler costs about as much
+            int cell = sample(knowledge, deadline);
+            if (cell >= 0) {
+                answer = cell;
+                lastDepth = 3;
+            }
+        }
+        return finish(start, answer);
+    }
+
+    /**
+     * Records the time spent on a move.
+     */
+    private int finish(long start, int answer) {
+        lastThinkNanos = System.nanoTime() - start;
+        return answer;
+    }
+
+    /**
+     * Picks a shot without any search: next to the most promising hit while a damaged ship is afloat,
+     * otherwise a random unshot cell on the checkerboard that every remaining ship must cover.
+     *
+     * @return the index of the cell to shoot, or {@code -1} if every cell has been shot
+     */
+    private int heuristic(Knowledge knowledge) {
+        long openLo = knowledge.openLo();
+        long openHi = knowledge.openHi();
+        boolean targeting = (openLo | openHi) != 0;
+        int smallest = Grid.CELLS;
+        for (int type : knowledge.remainingTypes()) smallest = Math.min(smallest, type);
+
+        int best = -1;
+        int bestScore = -1;
+        int ties = 0;
+        for (int index = 0; index < Grid.CELLS; index++) {
+            if (knowledge.isShot(index) || Grid.test(knowledge.blockedLo(), knowledge.blockedHi(), index)) continue;
+            int x = Grid.x(index);
+            int y = Grid.y(index);
+            int score;
+            if (targeting) {
+                score = lineScore(openLo, openHi, x, y, 1, 0) + lineScore(openLo, openHi, x, y, -1, 0)
+                        + lineScore(openLo, openHi, x, y, 0, 1) + lineScore(openLo, openHi, x, y, 0, -1);
+            } else {
+                score = smallest > 1 && (x + y) % smallest != 0 ? 0 : 1;
+            }
+            if (score > bestScore) {
+                best = index;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = index; // Uniform choice among equally good cells
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores a cell by the hits next to it in one direction: one for a single hit, three for a line of two or more.
+     */
+    private static int lineScore(long openLo, long openHi, int x, int y, int dx, int dy) {
+        if (!Grid.isValid(x + dx, y + dy) || !Grid.test(openLo, openHi, Grid.index(x + dx, y + dy))) return 0;
+        if (!Grid.isValid(x + 2 * dx, y + 2 * dy)) return 1;
+        return Grid.test(openLo, openHi, Grid.index(x + 2 * dx, y + 2 * dy)) ? 3 : 1;
+    }
+
+    /**
+     * Samples whole fleets consistent with the knowledge until the deadline and picks the unshot cell
+     * that held a ship most often. Ships are placed through uncovered hits first, so samples are rarely
+     * wasted while a damaged ship is afloat; the remaining ships are then placed at random.
+     *
+     * @return the index of the cell to shoot, or {@code -1} if too few samples were drawn in time
+     */
+    private int sample(Knowledge knowledge, long deadline) {
+        int[] types = knowledge.remainingTypes();
+        Arrays.sort(types); // Smallest first; placed from the end, so large ships go first
+        int slots = types.length;
+        Placements[] placements = new Placements[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            placements[slot] = new Placements(types[slots - 1 - slot], knowledge.blockedLo(), knowledge.blockedHi());
+        }
+        long openLo = knowledge.openLo();
+        long openHi = knowledge.openHi();
+        Arrays.fill(tally, 0);
+
+        int samples = 0;
+        while (System.nanoTime() - deadline < 0) {
+            long cellsLo = 0;
+            long cellsHi = 0;
+            long nearLo = 0;
+            long nearHi = 0;
+            int placed = 0; // Bit set of the slots already placed
+            boolean consistent = true;
+
+            // Explain every hit on a ship that is still afloat
+            while (consistent && ((openLo & ~cellsLo) | (openHi & ~cellsHi)) != 0) {
+                int hit = (openLo & ~cellsLo) != 0
+                        ? Long.numberOfTrailingZeros(openLo & ~cellsLo)
+                        : 64 + Long.numberOfTrailingZeros(openHi & ~cellsHi);
+                int slot = randomSlot(placed, slots);
+                int pick = slot < 0 ? -1 : covering(placements[slot], hit, nearLo, nearHi, openLo, openHi);
+                if (pick < 0) {
+                    consistent = false;
+                    continue;
+                }
+                Placements p = placements[slot];
+                cellsLo |= p.lo[pick];
+                cellsHi |= p.hi[pick];
+                nearLo |= p.haloLo[pick];
+                nearHi |= p.haloHi[pick];
+                placed |= 1 << slot;
+            }
+
+            // Place the rest anywhere they fit
+            for (int slot = 0; slot < slots && consistent; slot++) {
+                if ((placed & 1 << slot) != 0) continue;
+                Placements p = placements[slot];
+                int pick = -1;
+                for (int attempt = 0; attempt < ATTEMPTS && pick < 0 && p.count > 0; attempt++) {
+                    int i = random.nextInt(p.count);
+                    if ((p.lo[i] & nearLo) == 0 && (p.hi[i] & nearHi) == 0) pick = i;
+                }
+                if (pick < 0) {
+                    consistent = false;
+                    continue;
+                }
+                cellsLo |= p.lo[pick];
+                cellsHi |= p.hi[pick];
+                nearLo |= p.haloLo[pick];
+                nearHi |= p.haloHi[pick];
+            }
+            if (!consistent) continue;
+
+            samples++;
+            for (long bits = cellsLo & ~knowledge.shotLo(); bits != 0; bits &= bits - 1) {
+                tally[Long.numberOfTrailingZeros(bits)]++;
+            }
+            for (long bits = cellsHi & ~knowledge.shotHi(); bits != 0; bits &= bits - 1) {
+                tally[64 + Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+        lastSamples = samples;
+        if (samples < MIN_SAMPLES) return -1;
+
+        int best = -1;
+        for (int index = 0; index < Grid.CELLS; index++) {
+            if (tally[index] > 0 && (best < 0 || tally[index] > tally[best])) best = index;
+        }
+        return best;
+    }
+
+    /**
+     * Picks one of the slots not yet placed uniformly at random.
+     *
+     * @return the slot, or {@code -1} if every slot has been placed
+     */
+    private int randomSlot(int placed, int slots) {
+        int free = slots - Integer.bitCount(placed);
+        if (free == 0) return -1;
+        int skip = random.nextInt(free);
+        for (int slot = 0; slot < slots; slot++) {
+            if ((placed & 1 << slot) == 0 && skip-- == 0) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Picks uniformly at random one of the placements that covers a hit, keeps clear of the ships
+     * already placed and does not lie entirely on hits (such a ship would have been announced as sunk).
+     *
+     * @return the index of the placement, or {@code -1} if there is none
+     */
+    private int covering(Placements p, int hit, long nearLo, long nearHi, long openLo, long openHi) {
+        long hitLo = Grid.lo(hit);
+        long hitHi = Grid.hi(hit);
+        int pick = -1;
+        int seen = 0;
+        for (int i = 0; i < p.count; i++) {
+            if ((p.lo[i] & hitLo) == 0 && (p.hi[i] & hitHi) == 0) continue;
+            if ((p.lo[i] & nearLo) != 0 || (p.hi[i] & nearHi) != 0) continue;
+            if ((p.lo[i] & ~openLo) == 0 && (p.hi[i] & ~openHi) == 0) continue;
+            if (random.nextInt(++seen) == 0) pick = i;
+        }
+        return pick;
+    }
+
+    /**
+     * Forgets everything carried over between moves. Must be called when a new game starts.
+     */
+    public void reset() {
+        solver.reset();
+    }
+
+    /**
+     * Sets the time budget per move.
+     *
+     * @param budget the time budget
+     * @param unit   the unit of the time budget
+     */
+    public void setBudget(long budget, TimeUnit unit) {
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Sets the time budget per move to that of a difficulty level.
+     *
+     * @param difficulty the difficulty level
+     */
+    public void setDifficulty(Difficulty difficulty) {
+        this.budgetNanos = difficulty.getBudgetNanos();
+    }
+
+    /**
+     * Returns the time spent choosing the last shot.
+     *
+     * @return the think time in nanoseconds
+     */
+    public long getLastThinkNanos() {
+        return lastThinkNanos;
+    }
+
+    /**
+     * Returns how far the last shot was refined: 1 for the heuristic, 2 for the density map,
+     * 3 for sampled fleets, and 3 plus the search depth in shots when the endgame solver decided.
+     *
+     * @return the refinement depth of the last shot
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Returns the number of consistent fleets sampled for the last shot.
+     *
+     * @return the number of samples
+     */
+    public int getLastSamples() {
+        return lastSamples;
+    }
+
+    /**
+     * Builder class for constructing AnytimeTargeting instances.
+     */
+    public static class Builder {
+        private long budgetNanos = Difficulty.MEDIUM.getBudgetNanos();
+        private Random random = new Random();
+        private EndgameSolver solver;
+
+        /**
+         * Sets the time budget per move. Defaults to that of {@link Difficulty#MEDIUM}.
+         *
+         * @param budget the time budget
+         * @param unit   the unit of the time budget
+         * @return the Builder instance for chaining
+         */
+        public Builder setBudget(long budget, TimeUnit unit) {
+            this.budgetNanos = unit.toNanos(budget);
+            return this;
+        }
+
+        /**
+         * Sets the time budget per move to that of a difficulty level.
+         *
+         * @param difficulty the difficulty level
+         * @return the Builder instance for chaining
+         */
+        public Builder setDifficulty(Difficulty difficulty) {
+            this.budgetNanos = difficulty.getBudgetNanos();
+            return this;
+        }
+
+        /**
+         * Sets the random number generator the heuristic and the sampler draw from.
+         *
+         * @param random the random number generator
+         * @return the Builder instance for chaining
+         */
+        public Builder setRandom(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * Sets the solver that plays the endgame exactly, e.g. to change when it takes over.
+         * A solver keeps state between moves, so it must not be shared with another targeting.
+         * Defaults to a solver with the defaults of {@link EndgameSolver.Builder}.
+         *
+         * @param solver the endgame solver
+         * @return the Builder instance for chaining
+         */
+        public Builder setSolver(EndgameSolver solver) {
+            this.solver = solver;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new {@link AnytimeTargeting} instance.
+         *
+         * @return a new {@link AnytimeTargeting} instance
+         */
+        public AnytimeTargeting build() {
+            return new AnytimeTargeting(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.com.battleship.ai;
+
+import org.com.battleship.state.Grid;
+
+/**
+ * Probability density of ship cells over the board.
+ * Every legal placement of every remaining ship adds weight to the unshot cells it covers.
+ * While there are hits on ships that are still afloat, only placements through those hits
+ * count (weighted by how many of them they explain), which focuses fire on damaged ships.
+ */
+public final class DensityMap {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private DensityMap() {
+    }
+
+    /**
+     * Computes the density for the given knowledge.
+     *
+     * @param knowledge what the shooter knows about the board being attacked
+     * @return the weight of every cell, indexed by cell index; shot cells have weight zero
+     */
+    public static double[] compute(Knowledge knowledge) {
+        return compute(knowledge, 0L, 0L, 0L, 0L);
+    }
+
+    /**
+     * Computes the density for the given knowledge with some extra cells taken out of consideration.
+     *
+     * @param knowledge the shooter's knowledge of the board being attacked
+     * @param emptyLo   the low mask word of extra cells assumed to be empty
+     * @param emptyHi   the high mask word of extra cells assumed to be empty
+     * @param skipLo    the low mask word of extra cells that may hold a ship but get no weight
+     * @param skipHi    the high mask word of extra cells that may hold a ship but get no weight
+     * @return the weight of every cell, indexed by cell index; shot and extra cells have weight zero
+     */
+    public static double[] compute(Knowledge knowledge, long emptyLo, long emptyHi, long skipLo, long skipHi) {
+        long blockedLo = knowledge.blockedLo() | emptyLo;
+        long blockedHi = knowledge.blockedHi() | emptyHi;
+        long openLo = knowledge.openLo();
+        long openHi = knowledge.openHi();
+        boolean targeting = (openLo | openHi) != 0;
+        skipLo |= knowledge.shotLo() | emptyLo;
+        skipHi |= knowledge.shotHi() | emptyHi;
+
+        double[] density = new double[Grid.CELLS];
+        for (int type : knowledge.remainingTypes()) {
+            Placements placements = new Placements(type, blockedLo, blockedHi);
+            for (int i = 0; i < placements.count; i++) {
+                long lo = placements.lo[i];
+                long hi = placements.hi[i];
+                int explained = Grid.count(lo & openLo, hi & openHi);
+                if (targeting && explained == 0) continue;
+                double weight = targeting ? explained : 1;
+                long freeLo = lo & ~skipLo;
+                long freeHi = hi & ~skipHi;
+                while (freeLo != 0) {
+                    density[Long.numberOfTrailingZeros(freeLo)] += weight;
+                    freeLo &= freeLo - 1;
+                }
+                while (freeHi != 0) {
+                    density[64 + Long.numberOfTrailingZeros(freeHi)] += weight;
+                    freeHi &= freeHi - 1;
+                }
+            }
+        }
+        return density;
+    }
+
+    /**
+     * Finds the heaviest cell of a density.
+     *
+     * @param density the density, indexed by cell index
+     * @return the index of the heaviest cell, or {@code -1} if every cell has weight zero
+     */
+    public static int best(double[] density) {
+        int best = -1;
+        double weight = 0;
+        for (int index = 0; index < density.length; index++) {
+            if (density[index] > weight) {
+                weight = density[index];
+                best = index;
+            }
+        }
+        return best;
+    }
+}
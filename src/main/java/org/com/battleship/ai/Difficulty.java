@@ -0,0 +1,57 @@
+package org.com.battleship.ai;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How hard the computer plays, expressed as the CPU time it may spend choosing each shot.
+ * The targeting is anytime: it always has an answer ready and improves it until the budget runs out,
+ * so a smaller budget gives a weaker but proportionally cheaper opponent.
+ */
+public enum Difficulty {
+
+    /**
+     * A tenth of a millisecond per shot: a quick heuristic, refined by the probability map when there is
+     * time for it. Too short to sample enough fleets or to start the endgame solver.
+     */
+    EASY("Easy", 100, TimeUnit.MICROSECONDS),
+
+    /** Five milliseconds per shot: enough sampling for a good estimate of where ships are. */
+    MEDIUM("Medium", 5, TimeUnit.MILLISECONDS),
+
+    /** Fifty milliseconds per shot: thorough sampling and exact play once the endgame is small enough. */
+    HARD("Hard", 50, TimeUnit.MILLISECONDS);
+
+    private final String label;      // Name shown to the player
+    private final long budgetNanos;  // Time budget per shot
+
+    /**
+     * Creates a difficulty level.
+     *
+     * @param label  the name shown to the player
+     * @param budget the time budget per shot
+     * @param unit   the unit of the time budget
+     */
+    Difficulty(String label, long budget, TimeUnit unit) {
+        this.label = label;
+        this.budgetNanos = unit.toNanos(budget);
+    }
+
+    /**
+     * Returns the time the computer may spend choosing each shot.
+     *
+     * @return the time budget in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Returns the name shown to the player.
+     *
+     * @return the difficulty's name
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,494 @@
+package org.com.battleship.ai;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.Grid;
+
+/**
+ * Exact solver for the end of a game.
+ * Once only a few ships remain and the number of ship layouts consistent with everything
+ * the shooter knows drops below a threshold, the solver enumerates those layouts and picks
+ * the shot that minimises the expected number of shots needed to sink the rest of the fleet,
+ * assuming every consistent layout is equally likely. Hits, misses and sink announcements
+ * are all modelled, so sub-positions reached during the search are exactly the positions
+ * the real game can reach; fully solved ones are memoised in a bounded cache that survives
+ * between moves. The search deepens iteratively, so every call honours a hard deadline and
+ * returns the answer of the deepest completed iteration (or the most likely cell if none
+ * completed); once an iteration finishes without hitting its depth limit the answer is exact.
+ */
+public class EndgameSolver {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** Thrown to unwind the search when the deadline passes. Shared and stackless, as it carries no state. */
+    private static final RuntimeException DEADLINE_EXCEEDED = new RuntimeException("Deadline exceeded", null, false, false) {
+    };
+
+    private final int maxLayouts;     // Largest number of consistent layouts the solver takes on
+    private final int maxShips;       // Largest number of remaining ships the solver takes on
+    private final long deadlineNanos; // Time budget per move
+    private final Map<Position, Double> cache; // Expected shots-to-finish of solved sub-positions
+
+    private int slots;         // Number of ships still afloat at the root
+    private int[] slotShip;    // Placement-order index of the ship in each slot
+    private long[] shipLo;     // Cells of each ship in each layout, indexed by layout * slots + slot
+    private long[] shipHi;
+    private long[] haloLo;     // Cells and neighbours of each ship in each layout
+    private long[] haloHi;
+    private int layouts;       // Number of consistent layouts at the root
+    private long deadline;     // Absolute System.nanoTime() deadline of the current move
+    private int depthLimit;    // Depth at which the current iteration estimates instead of searching
+    private boolean truncated; // Whether the position being searched hit the depth limit somewhere below
+    private int bestCell;      // Best cell found at the root by the current iteration
+    private int lastDepth;     // Depth of the deepest completed iteration of the last search
+    private long lastNodes;    // Number of positions expanded by the last search
+
+    /**
+     * Private constructor to create an EndgameSolver instance using the Builder pattern.
+     *
+     * @param builder the Builder instance used for setting the solver's limits
+     */
+    private EndgameSolver(Builder builder) {
+        this.maxLayouts = builder.maxLayouts;
+        this.maxShips = builder.maxShips;
+        this.deadlineNanos = builder.deadlineNanos;
+        int cacheSize = builder.cacheSize;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Position, Double> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Picks the best shot against a board if the position is small enough to solve exactly.
+     *
+     * @param target the board being attacked
+     * @return the index of the cell to shoot, or {@code -1} if the position is outside the endgame
+     */
+    public int solve(BoardState target) {
+        return solve(Knowledge.of(target));
+    }
+
+    /**
+     * Picks the best shot for the given knowledge if the position is small enough to solve exactly.
+     *
+     * @param knowledge what the shooter knows about the board being attacked
+     * @return the index of the cell to shoot, or {@code -1} if the position is outside the endgame
+     */
+    public int solve(Knowledge knowledge) {
+        return solve(knowledge, System.nanoTime() + deadlineNanos);
+    }
+
+    /**
+     * Picks the best shot for the given knowledge, giving up on exactness at the given deadline.
+     *
+     * @param knowledge what the shooter knows about the board being attacked
+     * @param deadline  the absolute {@link System#nanoTime()} by which an answer is needed
+     * @return the index of the cell to shoot, or {@code -1} if the position is outside the endgame
+     */
+    public int solve(Knowledge knowledge, long deadline) {
+        lastDepth = 0;
+        lastNodes = 0;
+        if (knowledge.remainingShips() == 0 || knowledge.remainingShips() > maxShips) return -1;
+        this.deadline = deadline;
+        if (!enumerate(knowledge)) return -1;
+
+        int[] ids = new int[layouts];
+        Arrays.setAll(ids, i -> i);
+        int alive = (1 << slots) - 1;
+        int answer = mostLikelyCell(ids, layouts, knowledge.blockedLo(), knowledge.blockedHi(),
+                knowledge.openLo(), knowledge.openHi(), alive);
+        for (int limit = 1; limit <= Grid.CELLS; limit++) {
+            depthLimit = limit;
+            truncated = false;
+            bestCell = -1;
+            double expected;
+            try {
+                expected = expected(ids, layouts, knowledge.blockedLo(), knowledge.blockedHi(),
+                        knowledge.openLo(), knowledge.openHi(), alive, 0);
+            } catch (RuntimeException e) {
+                if (e != DEADLINE_EXCEEDED) throw e;
+                logger.debug("Endgame search hit the deadline at depth {} after {} positions", limit, lastNodes);
+                break;
+            }
+            answer = bestCell;
+            lastDepth = limit;
+            if (!truncated) {
+                logger.debug("Endgame solved: {} layouts, {} expected shots", layouts, expected);
+                break;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Forgets all memoised positions. Must be called when a new game starts.
+     */
+    public void reset() {
+        cache.clear();
+    }
+
+    /**
+     * Returns the depth of the deepest iteration the last search completed.
+     *
+     * @return the search depth in shots
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Returns the number of positions expanded by the last search.
+     *
+     * @return the number of expanded positions
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * Returns the number of layouts that were consistent at the root of the last search.
+     *
+     * @return the number of consistent layouts
+     */
+    public int getLastLayouts() {
+        return layouts;
+    }
+
+    /**
+     * Enumerates every layout of the remaining ships that is consistent with the knowledge.
+     *
+     * @return {@code true} if the layouts fit under the threshold and were listed before the deadline
+     */
+    private boolean enumerate(Knowledge knowledge) {
+        int[] types = knowledge.remainingTypes();
+        slots = types.length;
+        slotShip = new int[slots];
+        for (int slot = 0, ship = 0; slot < slots; ship++) {
+            if ((knowledge.aliveMask() & 1 << ship) != 0) slotShip[slot++] = ship;
+        }
+        Placements[] placements = new Placements[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            placements[slot] = new Placements(types[slot], knowledge.blockedLo(), knowledge.blockedHi());
+        }
+        int capacity = Math.min(maxLayouts, 1024) * slots;
+        shipLo = new long[capacity];
+        shipHi = new long[capacity];
+        haloLo = new long[capacity];
+        haloHi = new long[capacity];
+        layouts = 0;
+        int[] chosen = new int[slots];
+        return place(placements, chosen, 0, 0, 0, 0, 0, knowledge.openLo(), knowledge.openHi());
+    }
+
+    /**
+     * Recursively places the ship in the given slot on top of the ships already chosen.
+     *
+     * @return {@code false} if the number of layouts exceeded the threshold or the deadline passed
+     */
+    private boolean place(Placements[] placements, int[] chosen, int slot, long cellsLo, long cellsHi,
+                          long nearLo, long nearHi, long openLo, long openHi) {
+        if (slot == slots) {
+            if ((openLo & ~cellsLo) != 0 || (openHi & ~cellsHi) != 0) return true; // Leaves a hit unexplained
+            if (layouts == maxLayouts) return false;
+            if ((layouts + 1) * slots > shipLo.length) {
+                int capacity = shipLo.length * 2;
+                shipLo = Arrays.copyOf(shipLo, capacity);
+                shipHi = Arrays.copyOf(shipHi, capacity);
+                haloLo = Arrays.copyOf(haloLo, capacity);
+                haloHi = Arrays.copyOf(haloHi, capacity);
+            }
+            for (int s = 0; s < slots; s++) {
+                Placements p = placements[s];
+                int offset = layouts * slots + s;
+                shipLo[offset] = p.lo[chosen[s]];
+                shipHi[offset] = p.hi[chosen[s]];
+                haloLo[offset] = p.haloLo[chosen[s]];
+                haloHi[offset] = p.haloHi[chosen[s]];
+            }
+            layouts++;
+            return true;
+        }
+        if (System.nanoTime() - deadline > 0) return false;
+        Placements p = placements[slot];
+        for (int i = 0; i < p.count; i++) {
+            if ((p.lo[i] & nearLo) != 0 || (p.hi[i] & nearHi) != 0) continue; // Overlaps or touches a ship
+            chosen[slot] = i;
+            if (!place(placements, chosen, slot + 1, cellsLo | p.lo[i], cellsHi | p.hi[i],
+                    nearLo | p.haloLo[i], nearHi | p.haloHi[i], openLo, openHi)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the expected number of shots needed to sink every remaining ship from a position.
+     * At the root the best cell is recorded in {@link #bestCell}. Positions at the depth limit
+     * are estimated rather than searched, and only values that involved no estimate are cached.
+     *
+     * @param ids   the layouts consistent with the position
+     * @param n     the number of consistent layouts
+     * @param alive bit set of the slots whose ship is still afloat
+     * @param depth the number of shots taken since the root
+     * @return the expected number of shots to finish
+     */
+    private double expected(int[] ids, int n, long blockedLo, long blockedHi, long openLo, long openHi,
+                            int alive, int depth) {
+        if (alive == 0) return 0;
+        if (System.nanoTime() - deadline > 0) throw DEADLINE_EXCEEDED;
+        lastNodes++;
+
+        long unhitTotal = 0;
+        for (int i = 0; i < n; i++) {
+            unhitTotal += unhit(ids[i], openLo, openHi, alive);
+        }
+        if (n == 1 && depth > 0) return unhitTotal;
+
+        Position key = null;
+        if (depth > 0) {
+            key = new Position(blockedLo, blockedHi, openLo, openHi, aliveShips(alive));
+            Double known = cache.get(key);
+            if (known != null) return known;
+        }
+
+        // Candidate cells, most likely first, encoded as (layouts covering the cell << 8) | cell
+        int[] candidates = new int[Grid.CELLS];
+        int count = 0;
+        for (int cell = 0; cell < Grid.CELLS; cell++) {
+            if (Grid.test(blockedLo, blockedHi, cell) || Grid.test(openLo, openHi, cell)) continue;
+            int covering = 0;
+            for (int i = 0; i < n; i++) {
+                if (slotAt(ids[i], cell, alive) >= 0) covering++;
+            }
+            if (covering > 0) candidates[count++] = covering << 8 | cell;
+        }
+        Arrays.sort(candidates, 0, count);
+        if (count == 0) return unhitTotal / (double) n;
+
+        if (depth == depthLimit) {
+            // Each hit is needed anyway; telling the layouts apart costs roughly one miss per
+            // group of layouts the most likely cell can rule in or out
+            truncated = true;
+            return unhitTotal / (double) n + (n / (double) (candidates[count - 1] >>> 8) - 1) / 2;
+        }
+
+        // A cell covered by every layout has to be shot eventually and shooting it reveals
+        // information for free, so it is never worse to shoot it right away
+        int last = candidates[count - 1] >>> 8 == n ? count - 1 : 0;
+
+        boolean outer = truncated;
+        truncated = false;
+        double best = Double.MAX_VALUE;
+        int[] group = new int[n];
+        for (int c = count - 1; c >= last; c--) {
+            int covering = candidates[c] >>> 8;
+            int cell = candidates[c] & 0xFF;
+            double bound = 1 + (unhitTotal - covering) / (double) n;
+            if (bound >= best) break; // Later candidates are covered by fewer layouts, so their bounds only grow
+            if (System.nanoTime() - deadline > 0) throw DEADLINE_EXCEEDED;
+            double cost = 1 + shotCost(ids, n, group, cell, blockedLo, blockedHi, openLo, openHi, alive, depth);
+            if (cost < best) {
+                best = cost;
+                if (depth == 0) bestCell = cell;
+            }
+        }
+        if (key != null && !truncated) cache.put(key, best);
+        truncated |= outer;
+        return best;
+    }
+
+    /**
+     * Computes the expected number of shots needed after shooting a cell, averaged over its outcomes.
+     */
+    private double shotCost(int[] ids, int n, int[] group, int cell, long blockedLo, long blockedHi,
+                            long openLo, long openHi, int alive, int depth) {
+        long bitLo = Grid.lo(cell);
+        long bitHi = Grid.hi(cell);
+        double total = 0;
+
+        // Miss: the cell is empty in these layouts
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (slotAt(ids[i], cell, alive) < 0) group[size++] = ids[i];
+        }
+        if (size > 0) {
+            total += size * expected(Arrays.copyOf(group, size), size, blockedLo | bitLo, blockedHi | bitHi,
+                    openLo, openHi, alive, depth + 1);
+        }
+
+        // Hit without a sink: the ship under the cell still has unhit cells
+        long nextOpenLo = openLo | bitLo;
+        long nextOpenHi = openHi | bitHi;
+        size = 0;
+        for (int i = 0; i < n; i++) {
+            int slot = slotAt(ids[i], cell, alive);
+            if (slot >= 0 && !sinks(ids[i], slot, nextOpenLo, nextOpenHi)) group[size++] = ids[i];
+        }
+        if (size > 0) {
+            total += size * expected(Arrays.copyOf(group, size), size, blockedLo, blockedHi,
+                    nextOpenLo, nextOpenHi, alive, depth + 1);
+        }
+
+        // Sink: the announcement reveals which ship went down and where it was
+        boolean[] grouped = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int slot = slotAt(ids[i], cell, alive);
+            if (grouped[i] || slot < 0 || !sinks(ids[i], slot, nextOpenLo, nextOpenHi)) continue;
+            int offset = ids[i] * slots + slot;
+            size = 0;
+            for (int j = i; j < n; j++) {
+                int other = ids[j] * slots + slot;
+                if (!grouped[j] && shipLo[other] == shipLo[offset] && shipHi[other] == shipHi[offset]) {
+                    grouped[j] = true;
+                    group[size++] = ids[j];
+                }
+            }
+            total += size * expected(Arrays.copyOf(group, size), size,
+                    blockedLo | haloLo[offset], blockedHi | haloHi[offset],
+                    nextOpenLo & ~shipLo[offset], nextOpenHi & ~shipHi[offset], alive & ~(1 << slot), depth + 1);
+        }
+        return total / n;
+    }
+
+    /**
+     * Picks the cell covered by the most consistent layouts; used when the deadline passes.
+     */
+    private int mostLikelyCell(int[] ids, int n, long blockedLo, long blockedHi, long openLo, long openHi, int alive) {
+        int best = -1;
+        int bestCovering = 0;
+        for (int cell = 0; cell < Grid.CELLS; cell++) {
+            if (Grid.test(blockedLo, blockedHi, cell) || Grid.test(openLo, openHi, cell)) continue;
+            int covering = 0;
+            for (int i = 0; i < n; i++) {
+                if (slotAt(ids[i], cell, alive) >= 0) covering++;
+            }
+            if (covering > bestCovering) {
+                bestCovering = covering;
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the slot whose ship covers a cell in a layout, ignoring ships that are already sunk.
+     *
+     * @return the slot, or {@code -1} if no afloat ship covers the cell
+     */
+    private int slotAt(int layout, int cell, int alive) {
+        for (int slot = 0; slot < slots; slot++) {
+            int offset = layout * slots + slot;
+            if ((alive & 1 << slot) != 0 && Grid.test(shipLo[offset], shipHi[offset], cell)) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether every cell of a ship in a layout has been hit.
+     */
+    private boolean sinks(int layout, int slot, long openLo, long openHi) {
+        int offset = layout * slots + slot;
+        return (shipLo[offset] & ~openLo) == 0 && (shipHi[offset] & ~openHi) == 0;
+    }
+
+    /**
+     * Counts the cells of afloat ships in a layout that have not been hit yet.
+     */
+    private int unhit(int layout, long openLo, long openHi, int alive) {
+        int total = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if ((alive & 1 << slot) == 0) continue;
+            int offset = layout * slots + slot;
+            total += Grid.count(shipLo[offset] & ~openLo, shipHi[offset] & ~openHi);
+        }
+        return total;
+    }
+
+    /**
+     * Converts a bit set of slots into a bit set of ships in placement order.
+     */
+    private int aliveShips(int alive) {
+        int ships = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if ((alive & 1 << slot) != 0) ships |= 1 << slotShip[slot];
+        }
+        return ships;
+    }
+
+    /**
+     * Everything that determines the set of consistent layouts, used as the memoisation key.
+     */
+    private record Position(long blockedLo, long blockedHi, long openLo, long openHi, int alive) {
+    }
+
+    /**
+     * Builder class for constructing {@link EndgameSolver} instances.
+     */
+    public static class Builder {
+        private int maxLayouts = 2000;
+        private int maxShips = 2;
+        private long deadlineNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        private int cacheSize = 100_000;
+
+        /**
+         * Sets the largest number of consistent layouts the solver will take on.
+         *
+         * @param maxLayouts the layout threshold below which the solver takes over
+         * @return the Builder instance for chaining
+         */
+        public Builder setMaxLayouts(int maxLayouts) {
+            this.maxLayouts = maxLayouts;
+            return this;
+        }
+
+        /**
+         * Sets the largest number of remaining ships the solver will take on.
+         *
+         * @param maxShips the number of remaining ships below which the solver takes over
+         * @return the Builder instance for chaining
+         */
+        public Builder setMaxShips(int maxShips) {
+            this.maxShips = maxShips;
+            return this;
+        }
+
+        /**
+         * Sets the hard time budget for each move.
+         *
+         * @param deadline the time budget
+         * @param unit     the unit of the time budget
+         * @return the Builder instance for chaining
+         */
+        public Builder setDeadline(long deadline, TimeUnit unit) {
+            this.deadlineNanos = unit.toNanos(deadline);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of memoised positions.
+         *
+         * @param cacheSize the number of positions kept in the cache
+         * @return the Builder instance for chaining
+         */
+        public Builder setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new {@link EndgameSolver} instance.
+         *
+         * @return a new {@link EndgameSolver} instance
+         */
+        public EndgameSolver build() {
+            return new EndgameSolver(this);
+        }
+    }
+}
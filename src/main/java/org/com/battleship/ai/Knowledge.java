@@ -0,0 +1,171 @@
+package org.com.battleship.ai;
+
+import java.util.Arrays;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+
+/**
+ * What a shooter legitimately knows about the board being attacked: which cells were
+ * shot, which of those were hits and which ships have been sunk. Sunk ships are
+ * revealed, so their cells and neighbours are excluded from where the remaining ships
+ * can be. The fleet layout of the target is only consulted for information the game
+ * announces; positions of ships that are still afloat are never read.
+ */
+public final class Knowledge {
+
+    private final long shotLo;    // Low mask word of shot cells
+    private final long shotHi;    // High mask word of shot cells
+    private final long blockedLo; // Low mask word of cells that cannot hold a remaining ship
+    private final long blockedHi; // High mask word of cells that cannot hold a remaining ship
+    private final long openLo;    // Low mask word of hits on ships that are still afloat
+    private final long openHi;    // High mask word of hits on ships that are still afloat
+    private final int[] remaining; // Types of the ships still afloat
+    private final int aliveMask;  // Bit i is set if ship i (in placement order) is afloat
+
+    /**
+     * Creates a knowledge snapshot.
+     */
+    private Knowledge(long shotLo, long shotHi, long blockedLo, long blockedHi,
+                      long openLo, long openHi, int[] remaining, int aliveMask) {
+        this.shotLo = shotLo;
+        this.shotHi = shotHi;
+        this.blockedLo = blockedLo;
+        this.blockedHi = blockedHi;
+        this.openLo = openLo;
+        this.openHi = openHi;
+        this.remaining = remaining;
+        this.aliveMask = aliveMask;
+    }
+
+    /**
+     * Extracts the shooter's knowledge from the state of the board being attacked.
+     *
+     * @param target the board being attacked
+     * @return the shooter's knowledge of that board
+     */
+    public static Knowledge of(BoardState target) {
+        FleetLayout layout = target.getLayout();
+        long shotLo = target.shotLo();
+        long shotHi = target.shotHi();
+        long hitLo = target.hitLo();
+        long hitHi = target.hitHi();
+        long blockedLo = shotLo & ~hitLo;
+        long blockedHi = shotHi & ~hitHi;
+        long openLo = hitLo;
+        long openHi = hitHi;
+        int[] remaining = new int[layout.size()];
+        int count = 0;
+        int aliveMask = 0;
+        for (int ship = 0; ship < layout.size(); ship++) {
+            if (!target.isSunk(ship)) {
+                remaining[count++] = layout.type(ship);
+                aliveMask |= 1 << ship;
+                continue;
+            }
+            // A sunk ship is announced, so its cells and their neighbours are known to be taken care of
+            long lo = layout.maskLo(ship);
+            long hi = layout.maskHi(ship);
+            openLo &= ~lo;
+            openHi &= ~hi;
+            for (int index = 0; index < Grid.CELLS; index++) {
+                if (!Grid.test(lo, hi, index)) continue;
+                blockedLo |= Placements.haloLo(Grid.x(index), Grid.y(index));
+                blockedHi |= Placements.haloHi(Grid.x(index), Grid.y(index));
+            }
+        }
+        return new Knowledge(shotLo, shotHi, blockedLo, blockedHi, openLo, openHi,
+                Arrays.copyOf(remaining, count), aliveMask);
+    }
+
+    /**
+     * Returns the low mask word of shot cells.
+     *
+     * @return the low mask word
+     */
+    public long shotLo() {
+        return shotLo;
+    }
+
+    /**
+     * Returns the high mask word of shot cells.
+     *
+     * @return the high mask word
+     */
+    public long shotHi() {
+        return shotHi;
+    }
+
+    /**
+     * Returns the low mask word of cells that cannot hold a ship that is still afloat.
+     *
+     * @return the low mask word
+     */
+    public long blockedLo() {
+        return blockedLo;
+    }
+
+    /**
+     * Returns the high mask word of cells that cannot hold a ship that is still afloat.
+     *
+     * @return the high mask word
+     */
+    public long blockedHi() {
+        return blockedHi;
+    }
+
+    /**
+     * Returns the low mask word of hits on ships that are still afloat.
+     *
+     * @return the low mask word
+     */
+    public long openLo() {
+        return openLo;
+    }
+
+    /**
+     * Returns the high mask word of hits on ships that are still afloat.
+     *
+     * @return the high mask word
+     */
+    public long openHi() {
+        return openHi;
+    }
+
+    /**
+     * Returns the types of the ships still afloat.
+     *
+     * @return a copy of the remaining ship types
+     */
+    public int[] remainingTypes() {
+        return remaining.clone();
+    }
+
+    /**
+     * Returns the number of ships still afloat.
+     *
+     * @return the number of remaining ships
+     */
+    public int remainingShips() {
+        return remaining.length;
+    }
+
+    /**
+     * Returns a bit set of the ships still afloat, indexed by placement order.
+     *
+     * @return the alive mask
+     */
+    public int aliveMask() {
+        return aliveMask;
+    }
+
+    /**
+     * Checks whether a cell has been shot.
+     *
+     * @param index the cell index
+     * @return {@code true} if the cell has been shot
+     */
+    public boolean isShot(int index) {
+        return Grid.test(shotLo, shotHi, index);
+    }
+}
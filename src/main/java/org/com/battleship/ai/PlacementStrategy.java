@@ -0,0 +1,19 @@
+package org.com.battleship.ai;
+
+import java.util.Random;
+import org.com.battleship.state.FleetLayout;
+
+/**
+ * Decides where the computer places its fleet.
+ */
+@FunctionalInterface
+public interface PlacementStrategy {
+
+    /**
+     * Chooses a layout for the standard fleet.
+     *
+     * @param random the random number generator to draw from
+     * @return a legal layout of the standard fleet
+     */
+    FleetLayout place(Random random);
+}
@@ -0,0 +1,104 @@
+package org.com.battleship.ai;
+
+import org.com.battleship.state.Grid;
+
+/**
+ * Every legal position of one ship type that avoids a set of blocked cells.
+ * Each placement is stored as the mask of the cells it covers plus its "halo":
+ * the covered cells and their horizontal and vertical neighbours, which no other
+ * ship may touch.
+ */
+final class Placements {
+
+    /** Offsets of a cell and its four neighbours. */
+    private static final int[] DX = {0, -1, 1, 0, 0};
+    private static final int[] DY = {0, 0, 0, -1, 1};
+
+    final long[] lo;     // Low mask word of the covered cells
+    final long[] hi;     // High mask word of the covered cells
+    final long[] haloLo; // Low mask word of the covered cells and their neighbours
+    final long[] haloHi; // High mask word of the covered cells and their neighbours
+    final int count;     // Number of placements
+
+    /**
+     * Enumerates the placements of a ship type that do not cover any blocked cell.
+     *
+     * @param type      the type (size) of the ship
+     * @param blockedLo the low mask word of cells that cannot contain a ship
+     * @param blockedHi the high mask word of cells that cannot contain a ship
+     */
+    Placements(int type, long blockedLo, long blockedHi) {
+        int capacity = 2 * Grid.CELLS;
+        long[] cellsLo = new long[capacity];
+        long[] cellsHi = new long[capacity];
+        long[] nearLo = new long[capacity];
+        long[] nearHi = new long[capacity];
+        int n = 0;
+        for (int orientation = 0; orientation < (type == 1 ? 1 : 2); orientation++) {
+            boolean vertical = orientation == 1;
+            for (int y = 0; y < Grid.SIZE; y++) {
+                for (int x = 0; x < Grid.SIZE; x++) {
+                    long lo = 0;
+                    long hi = 0;
+                    long haloLo = 0;
+                    long haloHi = 0;
+                    boolean legal = true;
+                    for (int i = 0; i < type && legal; i++) {
+                        int targetX = x + (vertical ? 0 : i);
+                        int targetY = y + (vertical ? i : 0);
+                        if (!Grid.isValid(targetX, targetY)) {
+                            legal = false;
+                            continue;
+                        }
+                        int index = Grid.index(targetX, targetY);
+                        if (Grid.test(blockedLo, blockedHi, index)) {
+                            legal = false;
+                            continue;
+                        }
+                        lo |= Grid.lo(index);
+                        hi |= Grid.hi(index);
+                        haloLo |= haloLo(targetX, targetY);
+                        haloHi |= haloHi(targetX, targetY);
+                    }
+                    if (!legal) continue;
+                    cellsLo[n] = lo;
+                    cellsHi[n] = hi;
+                    nearLo[n] = haloLo;
+                    nearHi[n] = haloHi;
+                    n++;
+                }
+            }
+        }
+        this.lo = cellsLo;
+        this.hi = cellsHi;
+        this.haloLo = nearLo;
+        this.haloHi = nearHi;
+        this.count = n;
+    }
+
+    /**
+     * Returns the low mask word of a cell and its on-board neighbours.
+     */
+    static long haloLo(int x, int y) {
+        long mask = 0;
+        for (int d = 0; d < 5; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (Grid.isValid(nx, ny)) mask |= Grid.lo(Grid.index(nx, ny));
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the high mask word of a cell and its on-board neighbours.
+     */
+    static long haloHi(int x, int y) {
+        long mask = 0;
+        for (int d = 0; d < 5; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (Grid.isValid(nx, ny)) mask |= Grid.hi(Grid.index(nx, ny));
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,70 @@
+package org.com.battleship.ai;
+
+import java.util.Arrays;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.Grid;
+
+/**
+ * Chooses a whole volley for the salvo variant.
+ * Cells are picked one at a time from the {@link DensityMap}. While hunting, the density is
+ * recomputed after each pick as if the chosen cells came up empty, so the volley spreads over
+ * the positions the fleet is most likely to occupy instead of stacking every shot on the same
+ * likely ship. While finishing off damaged ships, the chosen cells are only taken out of the
+ * running, so the rest of the volley keeps closing in around the same hits.
+ */
+public final class SalvoTargeting {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private SalvoTargeting() {
+    }
+
+    /**
+     * Chooses a volley against a board.
+     *
+     * @param target the board being attacked
+     * @param shots  the number of shots in the volley
+     * @return the indices of the cells to shoot; fewer than {@code shots} if the board runs out of cells
+     */
+    public static int[] chooseVolley(BoardState target, int shots) {
+        return chooseVolley(Knowledge.of(target), shots);
+    }
+
+    /**
+     * Chooses a volley for the given knowledge.
+     *
+     * @param knowledge what the shooter knows about the board being attacked
+     * @param shots     the number of shots in the volley
+     * @return the indices of the cells to shoot; fewer than {@code shots} if the board runs out of cells
+     */
+    public static int[] chooseVolley(Knowledge knowledge, int shots) {
+        int[] volley = new int[shots];
+        int count = 0;
+        long chosenLo = 0;
+        long chosenHi = 0;
+        boolean targeting = (knowledge.openLo() | knowledge.openHi()) != 0;
+        while (count < shots) {
+            double[] density = targeting
+                    ? DensityMap.compute(knowledge, 0L, 0L, chosenLo, chosenHi)
+                    : DensityMap.compute(knowledge, chosenLo, chosenHi, 0L, 0L);
+            int cell = DensityMap.best(density);
+            if (cell < 0) cell = firstUnshot(knowledge, chosenLo, chosenHi);
+            if (cell < 0) break;
+            volley[count++] = cell;
+            chosenLo |= Grid.lo(cell);
+            chosenHi |= Grid.hi(cell);
+        }
+        return Arrays.copyOf(volley, count);
+    }
+
+    /**
+     * Finds the first cell that has been neither shot nor chosen.
+     */
+    private static int firstUnshot(Knowledge knowledge, long chosenLo, long chosenHi) {
+        for (int index = 0; index < Grid.CELLS; index++) {
+            if (!knowledge.isShot(index) && !Grid.test(chosenLo, chosenHi, index)) return index;
+        }
+        return -1;
+    }
+}
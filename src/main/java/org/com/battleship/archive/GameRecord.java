@@ -0,0 +1,141 @@
+package org.com.battleship.archive;
+
+import java.nio.ByteBuffer;
+import org.com.battleship.state.Grid;
+
+/**
+ * Layout of one record in a game archive: how a single board was attacked in a finished game.
+ * Every game contributes two records, one per board. Records have a fixed width, so an archive
+ * can be memory-mapped and split into chunks at any multiple of {@link #SIZE}.
+ * <pre>
+ * offset  size  content
+ *      0     1  flags: {@link #COMPUTER_SHOOTER} if the computer shot this board, {@link #SHOOTER_WON} if the shooter won
+ *      1     1  number of shots, 0..100
+ *      2    10  up to {@link #SHIPS} ships as (type, origin | vertical &lt;&lt; 7) byte pairs; type 0 marks an unused slot
+ *     12   100  the shot cells in the order they were fired, as grid indices; unused entries are 0xFF
+ * </pre>
+ */
+public final class GameRecord {
+
+    /** Width of a record in bytes. */
+    public static final int SIZE = 112;
+
+    /** Maximum number of ships described by a record. */
+    public static final int SHIPS = 5;
+
+    /** Flag set when the board belongs to the player and was shot by the computer. */
+    public static final int COMPUTER_SHOOTER = 1;
+
+    /** Flag set when the shooter won the game. */
+    public static final int SHOOTER_WON = 2;
+
+    static final int FLAGS = 0;        // Offset of the flags
+    static final int SHOT_COUNT = 1;   // Offset of the number of shots
+    static final int FLEET = 2;        // Offset of the ship pairs
+    static final int SHOTS = 12;       // Offset of the shot order
+    private static final byte NO_SHOT = (byte) 0xFF;
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private GameRecord() {
+    }
+
+    /**
+     * Writes a record at the buffer's position and advances the position by {@link #SIZE}.
+     *
+     * @param buffer   the buffer to write to
+     * @param flags    the record's flags
+     * @param types    the ship types, at most {@link #SHIPS}
+     * @param origins  the grid index of each ship's first cell
+     * @param vertical whether each ship runs down rather than across
+     * @param ships    the number of ships
+     * @param shots    the shot cells in order
+     * @param count    the number of shots
+     */
+    public static void write(ByteBuffer buffer, int flags, int[] types, int[] origins, boolean[] vertical, int ships,
+                             int[] shots, int count) {
+        int start = buffer.position();
+        buffer.put(start + FLAGS, (byte) flags);
+        buffer.put(start + SHOT_COUNT, (byte) count);
+        for (int ship = 0; ship < SHIPS; ship++) {
+            boolean present = ship < ships;
+            buffer.put(start + FLEET + 2 * ship, (byte) (present ? types[ship] : 0));
+            buffer.put(start + FLEET + 2 * ship + 1, (byte) (present ? origins[ship] | (vertical[ship] ? 0x80 : 0) : 0));
+        }
+        for (int i = 0; i < Grid.CELLS; i++) {
+            buffer.put(start + SHOTS + i, i < count ? (byte) shots[i] : NO_SHOT);
+        }
+        buffer.position(start + SIZE);
+    }
+
+    /**
+     * Reads the flags of the record starting at an offset.
+     *
+     * @param buffer the archive
+     * @param record the offset of the record
+     * @return the record's flags
+     */
+    public static int flags(ByteBuffer buffer, int record) {
+        return buffer.get(record + FLAGS) & 0xFF;
+    }
+
+    /**
+     * Reads the number of shots of the record starting at an offset.
+     *
+     * @param buffer the archive
+     * @param record the offset of the record
+     * @return the number of shots
+     */
+    public static int shotCount(ByteBuffer buffer, int record) {
+        return Math.min(Grid.CELLS, buffer.get(record + SHOT_COUNT) & 0xFF);
+    }
+
+    /**
+     * Reads a ship's type from the record starting at an offset.
+     *
+     * @param buffer the archive
+     * @param record the offset of the record
+     * @param ship   the ship's slot, below {@link #SHIPS}
+     * @return the ship's type, or 0 if the slot is unused
+     */
+    public static int type(ByteBuffer buffer, int record, int ship) {
+        return buffer.get(record + FLEET + 2 * ship) & 0xFF;
+    }
+
+    /**
+     * Reads the grid index of a ship's first cell from the record starting at an offset.
+     *
+     * @param buffer the archive
+     * @param record the offset of the record
+     * @param ship   the ship's slot, below {@link #SHIPS}
+     * @return the ship's origin
+     */
+    public static int origin(ByteBuffer buffer, int record, int ship) {
+        return buffer.get(record + FLEET + 2 * ship + 1) & 0x7F;
+    }
+
+    /**
+     * Reads a ship's orientation from the record starting at an offset.
+     *
+     * @param buffer the archive
+     * @param record the offset of the record
+     * @param ship   the ship's slot, below {@link #SHIPS}
+     * @return {@code true} if the ship runs down rather than across
+     */
+    public static boolean isVertical(ByteBuffer buffer, int record, int ship) {
+        return (buffer.get(record + FLEET + 2 * ship + 1) & 0x80) != 0;
+    }
+
+    /**
+     * Reads the cell of a shot from the record starting at an offset.
+     *
+     * @param buffer the archive
+     * @param record the offset of the record
+     * @param shot   the shot's position in the shot order, below {@link #shotCount}
+     * @return the grid index of the cell shot
+     */
+    public static int shot(ByteBuffer buffer, int record, int shot) {
+        return buffer.get(record + SHOTS + shot) & 0xFF;
+    }
+}
@@ -0,0 +1,163 @@
+package org.com.battleship.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.events.GameEvent;
+import org.com.battleship.events.GameEventListener;
+import org.com.battleship.events.GameEventType;
+import org.com.battleship.state.Grid;
+
+/**
+ * Appends every finished game to an archive file, two {@link GameRecord}s per game.
+ * Subscribe it to a game's {@link org.com.battleship.events.GameEventBus}; it rebuilds each board's
+ * fleet and shot order from the events and writes them out when the game ends. Runs on the
+ * subscription's thread, so the file is never written from the JavaFX Application Thread.
+ * Games in which the subscription missed events are skipped rather than archived incomplete, and so
+ * are games abandoned before they ended: a game is only recorded from its {@code GAME_START} event, and
+ * whatever was recorded of an unfinished game is thrown away when the next one starts. Games in which
+ * moves were undone or redone are skipped too: the events do not say which shots were taken back, so
+ * their shot orders would count shots that were never part of the game.
+ */
+public final class GameRecorder implements GameEventListener, AutoCloseable {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final FileChannel channel;  // The archive, opened for appending
+    private final ByteBuffer buffer = ByteBuffer.allocate(2 * GameRecord.SIZE); // Both records of a game
+
+    private final Side[] sides = {new Side(), new Side()}; // Index 1 is the enemy's board
+    private long lastSequence = -1;  // Sequence of the previous event, to detect missed events
+    private boolean complete = true; // Whether every event of the current game was seen and nothing undone
+    private boolean recording;       // Whether a game has started and not yet ended
+
+    /**
+     * Opens an archive for appending, creating it if needed.
+     *
+     * @param file the archive file
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecorder(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Folds an event into the game being recorded.
+     *
+     * @param event the event
+     */
+    @Override
+    public void onEvent(GameEvent event) {
+        boolean missed = lastSequence >= 0 && event.sequence() != lastSequence + 1;  // Events were dropped
+        lastSequence = event.sequence();
+        if (missed) complete = false;  // A game whose events were missed is never written, whichever game they belonged to
+        if (event.type() == GameEventType.GAME_START) {
+            startGame();
+            return;
+        }
+        if (!recording) return;  // Between games, or in a game whose start was not seen
+
+        switch (event.type()) {
+            case PLACEMENT -> {
+                Side side = sides[event.enemyBoard() ? 1 : 0];
+                if (side.ships < GameRecord.SHIPS) {
+                    side.types[side.ships] = event.shipType();
+                    side.origins[side.ships] = event.cell();
+                    side.vertical[side.ships] = event.vertical();
+                    side.ships++;
+                }
+            }
+            case SHOT -> {
+                Side side = sides[event.enemyBoard() ? 1 : 0];
+                if (!side.shot[event.cell()]) {
+                    side.shot[event.cell()] = true;
+                    side.order[side.count++] = event.cell();
+                }
+            }
+            case POSITION_RESET -> complete = false; // The shots taken back cannot be told apart
+            case GAME_OVER -> {
+                write(event.enemyTurn());
+                recording = false;
+            }
+            default -> {
+                // Sinks and turn changes follow from the shots and need not be stored
+            }
+        }
+    }
+
+    /**
+     * Forgets the previous game, and with it anything recorded of a game that was abandoned.
+     */
+    private void startGame() {
+        for (Side side : sides) side.reset();
+        complete = true;
+        recording = true;
+    }
+
+    /**
+     * Appends both records of the finished game.
+     *
+     * @param enemyWon whether the computer won
+     */
+    private void write(boolean enemyWon) {
+        if (!complete) {
+            logger.warn("Game events were dropped or moves were undone; the game is not archived");
+            return;
+        }
+        buffer.clear();
+        Side player = sides[0];
+        Side enemy = sides[1];
+        GameRecord.write(buffer, GameRecord.COMPUTER_SHOOTER | (enemyWon ? GameRecord.SHOOTER_WON : 0),
+                player.types, player.origins, player.vertical, player.ships, player.order, player.count);
+        GameRecord.write(buffer, enemyWon ? 0 : GameRecord.SHOOTER_WON,
+                enemy.types, enemy.origins, enemy.vertical, enemy.ships, enemy.order, enemy.count);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            logger.warn("Could not archive the game", e);
+        }
+    }
+
+    /**
+     * Closes the archive.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The fleet and shots of one board in the game being recorded.
+     */
+    private static final class Side {
+        private final int[] types = new int[GameRecord.SHIPS];
+        private final int[] origins = new int[GameRecord.SHIPS];
+        private final boolean[] vertical = new boolean[GameRecord.SHIPS];
+        private final boolean[] shot = new boolean[Grid.CELLS];
+        private final int[] order = new int[Grid.CELLS];
+        private int ships;
+        private int count;
+
+        /**
+         * Clears the side for a new game.
+         */
+        private void reset() {
+            Arrays.fill(shot, false);
+            ships = 0;
+            count = 0;
+        }
+    }
+}
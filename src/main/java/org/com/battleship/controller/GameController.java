@@ -1,20 +1,52 @@
 package org.com.battleship.controller;
 
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.com.battleship.ai.AdaptivePlacement;
+import org.com.battleship.ai.AnytimeTargeting;
+import org.com.battleship.archive.GameRecorder;
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.ai.EndgameSolver;
+import org.com.battleship.ai.PlacementStrategy;
+import org.com.battleship.ai.SalvoTargeting;
+import org.com.battleship.events.GameEventBus;
 import org.com.battleship.model.Board;
 import org.com.battleship.model.Cell;
 import org.com.battleship.model.Ship;
+import org.com.battleship.net.PeerListener;
+import org.com.battleship.net.PeerSession;
+import org.com.battleship.persist.MatchStore;
+import org.com.battleship.persist.StoredMatch;
+import org.com.battleship.profile.ShotProfile;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.GameState;
+import org.com.battleship.state.Grid;
+import org.com.battleship.state.ShotResult;
+import org.com.battleship.state.StateStore;
+import org.com.battleship.startup.StartupTimeline;
 
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller class for managing the game logic and board interaction.
@@ -48,14 +80,76 @@ public class GameController {
     /** Random number generator used for AI's moves, ship placement and ship orientation. */
     private final Random random = new Random();
 
-    /** Set of cells that have been shot to avoid repeated shots. */
-    private final Set<Cell> alreadyShotCells = new HashSet<>();
+    /** How hard the enemy plays; the default can be set with {@code battleship.difficulty}. */
+    private Difficulty difficulty = defaultDifficulty();
 
-    /** Queue of cells to target in AI's hunt-and-kill mode when a ship is hit. */
-    private final Queue<Cell> huntQueue = new LinkedList<>();
+    /**
+     * Chooses the enemy's shots, refining each one until the difficulty's time budget runs out.
+     * Only used on the {@link #thinker} thread.
+     */
+    private final AnytimeTargeting targeting = new AnytimeTargeting.Builder().setDifficulty(difficulty)
+            .setSolver(endgameSolver()).build();
+
+    /** Runs the enemy's thinking, so a long time budget never holds up the JavaFX Application Thread. */
+    private final ExecutorService thinker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enemy-ai");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Number of the current game; shots the enemy chose for an earlier game are dropped. */
+    private int gameGeneration;
+
+    /** Choice of difficulty, only available while placing ships. */
+    private ChoiceBox<Difficulty> difficultyChoice;
+
+    /** Label showing how long the enemy thought about its last shot and how far it got. */
+    private Label thinkLabel;
+
+    /** Flag indicating whether the salvo variant is played: one shot per surviving ship each turn. */
+    private boolean salvo = false;
+
+    /** Cells the player has marked for the next salvo volley. */
+    private final List<Cell> pendingVolley = new ArrayList<>();
+
+    /** Toggle used to choose the salvo variant before the game starts. */
+    private ToggleButton salvoToggle;
+
+    /** Port on which LAN games are hosted and joined; can be set with {@code battleship.peerPort}. */
+    private static final int PEER_PORT = Integer.getInteger("battleship.peerPort", 47100);
+
+    /** Toggle to play another player on the LAN instead of the computer, only available while placing ships. */
+    private ToggleButton lanToggle;
+
+    /** Address of the player to join in a LAN game; left empty to host the game instead. */
+    private TextField peerAddress;
+
+    /** Connection to the other player in a LAN game, or {@code null} when playing the computer. */
+    private PeerSession peer;
+
+    /** Socket a LAN game is hosted on until the other player joins, or {@code null}; closed to stop waiting. */
+    private volatile ServerSocket peerServer;
+
+    /** Number of the current LAN game; events of sessions from earlier games are ignored. */
+    private int peerGeneration;
 
-    /** List to track cells of ships that have been hit but not sunk. */
-    private final List<Cell> hitCells = new ArrayList<>();
+    /** Shows whether the other player's fleet matched its commitment once a LAN game is over. */
+    private final Label peerVerdict = new Label();
+
+    /** The process's match store, opened by the first controller; {@code null} until then or if there is none. */
+    private static MatchStore sharedMatchStore;
+
+    /** Whether the process's match store has been opened, or opening it has been attempted. */
+    private static boolean matchStoreOpened;
+
+    /** Whether the matches recovered from the match store have been claimed by a controller. */
+    private static boolean recoveryClaimed;
+
+    /** Keeps the match in progress in a crash-safe file, if {@code battleship.matchStore} names one. */
+    private final MatchStore matchStore = matchStore();
+
+    /** Slot of the match in progress in the match store, or -1 if it is not being kept. */
+    private int matchSlot = -1;
 
     /** Label to indicate the current turn (player or enemy). */
     private Label turnIndicator;
@@ -66,6 +160,44 @@ public class GameController {
     /** Flag to determine if the game is paused. */
     private boolean isPaused = false;
 
+    /** Publishes an immutable snapshot of the current position after every shot. */
+    private final StateStore store = new StateStore();
+
+    /** Positions at the start of each of the player's previous turns, most recent first. */
+    private final Deque<GameState> undoStack = new ArrayDeque<>();
+
+    /** Positions that were undone and can be replayed, most recent first. */
+    private final Deque<GameState> redoStack = new ArrayDeque<>();
+
+    /** Number of recorded games before the enemy starts placing its fleet from the player's shot history. */
+    private static final int MIN_PROFILE_GAMES = 3;
+
+    /** How the current user has shot at the enemy board in earlier games. */
+    private final ShotProfile profile = ShotProfile.forCurrentUser();
+
+    /** Places the enemy fleet where the player tends to shoot last, once enough history exists. */
+    private final PlacementStrategy placement = new AdaptivePlacement.Builder()
+            .setLateness(() -> profile.games() >= MIN_PROFILE_GAMES ? profile.lateness() : null).build();
+
+    /** Cells of the enemy board in the order the player shot them. */
+    private final int[] playerShotOrder = new int[Grid.CELLS];
+
+    /** Number of valid entries in {@link #playerShotOrder}. */
+    private int playerShots;
+
+    /** Broadcasts placements, shots, sinks and turn changes to spectators, journals and metrics. */
+    private final GameEventBus events = new GameEventBus(1024);
+
+    /** Whether {@link #onShown()} has run. */
+    private boolean shown = false;
+
+    /** The side whose turn was last announced on the event bus. */
+    private boolean announcedEnemyTurn = false;
+
+    /** Shows the enemy's shots one at a time; the cadence can be set with {@code battleship.shotCadence} (ms). */
+    private final ShotAnimator animator = new ShotAnimator.Builder()
+            .setCadence(Long.getLong("battleship.shotCadence", 250), TimeUnit.MILLISECONDS).build();
+
     /**
      * Constructor that initializes the game controller with the primary stage.
      *
@@ -75,6 +207,148 @@ public class GameController {
         this.primaryStage = stage;
     }
 
+    /**
+     * Starts the parts of the game that must not run before its scene is shown: the event bus's
+     * subscribers, and the match an earlier run left unfinished, which may have the enemy move and
+     * even end the game at once. The controller and its board may be built on any thread, but this and
+     * everything after it runs on the JavaFX Application Thread. Calls after the first do nothing.
+     * Everything started here is stopped again once the window is closed.
+     */
+    public void onShown() {
+        if (shown) return;
+        shown = true;
+        primaryStage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> onHidden());
+        if (Boolean.getBoolean("battleship.journal")) {
+            events.subscribe(event -> logger.info("Game event: {}", event), 256, 4); // Sampled, never holds up play
+        }
+        String archive = System.getProperty("battleship.archive");
+        if (archive != null) {
+            try {
+                events.subscribe(new GameRecorder(Path.of(archive)), 4096); // Unsampled; gaps skip the game
+            } catch (IOException e) {
+                logger.warn("Cannot open game archive {}; games will not be recorded", archive, e);
+            }
+        }
+        StoredMatch unfinished = claimRecovered(matchStore);
+        if (unfinished != null) resume(unfinished);
+    }
+
+    /**
+     * Stops the game once its window is closed: the enemy's thinking, any LAN game and the event bus,
+     * whose subscribers receive the events still on their way and are then closed, which flushes the
+     * game archive.
+     */
+    private void onHidden() {
+        gameGeneration++; // Drops a shot the enemy may still be choosing
+        running = false;
+        thinker.shutdownNow();
+        leavePeerGame();
+        events.shutdown();
+    }
+
+    /**
+     * Returns the process's match store, opening the file named by the {@code battleship.matchStore}
+     * system property on first use. Every controller shares it: the file is locked while open and its
+     * slots are handed out by the one store.
+     *
+     * @return the match store, or {@code null} if none is configured or it cannot be opened
+     */
+    private static synchronized MatchStore matchStore() {
+        if (matchStoreOpened) return sharedMatchStore;
+        matchStoreOpened = true;
+        String file = System.getProperty("battleship.matchStore");
+        if (file == null) return null;
+        try {
+            sharedMatchStore = new MatchStore.Builder().setFile(Path.of(file)).build();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot open match store {}; matches will not survive a crash", file, e);
+        }
+        return sharedMatchStore;
+    }
+
+    /**
+     * Hands the match to resume to the first controller that asks: the most recent one left unfinished
+     * when the store was last used. Every other recovered match is released, so slots are not kept
+     * claimed by matches nobody will play.
+     *
+     * @param store the match store, or {@code null}
+     * @return the match to resume, or {@code null} if there is none or it was already handed out
+     */
+    private static synchronized StoredMatch claimRecovered(MatchStore store) {
+        if (store == null || recoveryClaimed) return null;
+        recoveryClaimed = true;
+        StoredMatch newest = null;
+        for (StoredMatch match : store.recovered()) {
+            if (match.state().isOver()) continue; // Decided just before the crash; nothing to resume
+            if (newest == null || match.id() > newest.id()) newest = match;
+        }
+        int released = 0;
+        for (StoredMatch match : store.recovered()) {
+            if (match == newest) continue;
+            store.release(match.slot());
+            released++;
+        }
+        if (released > 0) logger.info("Released {} recovered matches that will not be resumed", released);
+        return newest;
+    }
+
+    /**
+     * Returns the bus on which this controller announces the game's events.
+     * Subscribers are called on their own threads and can never slow the game down.
+     *
+     * @return the game event bus
+     */
+    public GameEventBus events() {
+        return events;
+    }
+
+    /**
+     * Sets the time between two of the enemy's shots being shown. Zero shows them immediately.
+     *
+     * @param cadence the time between shots
+     * @param unit    the unit of the cadence
+     */
+    public void setShotCadence(long cadence, TimeUnit unit) {
+        animator.setCadence(cadence, unit);
+    }
+
+    /**
+     * Sets how hard the enemy plays. Takes effect from the enemy's next shot.
+     *
+     * @param difficulty the difficulty level
+     */
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+        thinker.execute(() -> targeting.setDifficulty(difficulty));
+        if (difficultyChoice != null) difficultyChoice.setValue(difficulty);
+    }
+
+    /**
+     * Reads the default difficulty from the {@code battleship.difficulty} system property.
+     *
+     * @return the configured difficulty, or {@link Difficulty#MEDIUM} if none or an unknown one is set
+     */
+    private static Difficulty defaultDifficulty() {
+        String name = System.getProperty("battleship.difficulty", Difficulty.MEDIUM.name());
+        try {
+            return Difficulty.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown difficulty {}; playing {}", name, Difficulty.MEDIUM);
+            return Difficulty.MEDIUM;
+        }
+    }
+
+    /**
+     * Builds the enemy's endgame solver, which takes over once at most {@code battleship.solverShips}
+     * ships remain (default 2) and they can lie in at most {@code battleship.solverLayouts} ways (default 2000).
+     *
+     * @return the endgame solver
+     */
+    private static EndgameSolver endgameSolver() {
+        return new EndgameSolver.Builder().setMaxLayouts(Integer.getInteger("battleship.solverLayouts", 2000))
+                .setMaxShips(Integer.getInteger("battleship.solverShips", 2)).build();
+    }
+
     /**
      * Creates the game board for both players
      * and sets up event handlers for player interactions.
@@ -103,16 +377,65 @@ public class GameController {
         restartButton.setOnAction(e -> restartGame());
         sidebar.getChildren().add(restartButton);
 
+        // Buttons to take back and replay the player's moves
+        Button undoButton = new Button("Undo");
+        undoButton.setOnAction(e -> undo());
+        sidebar.getChildren().add(undoButton);
+
+        Button redoButton = new Button("Redo");
+        redoButton.setOnAction(e -> redo());
+        sidebar.getChildren().add(redoButton);
+
+        // Toggle to play the salvo variant, only available while placing ships
+        salvoToggle = new ToggleButton("Salvo");
+        salvoToggle.setSelected(salvo);
+        salvoToggle.setOnAction(e -> {
+            salvo = salvoToggle.isSelected();
+            difficultyChoice.setDisable(salvo);
+        });
+        sidebar.getChildren().add(salvoToggle);
+
+        // Choice of how much time the enemy may spend on each shot, only available while placing ships.
+        // Salvo volleys are chosen by a fixed heuristic without a time budget, so it has no effect there.
+        difficultyChoice = new ChoiceBox<>();
+        difficultyChoice.getItems().addAll(Difficulty.values());
+        difficultyChoice.setValue(difficulty);
+        difficultyChoice.setDisable(salvo);
+        difficultyChoice.setOnAction(e -> setDifficulty(difficultyChoice.getValue()));
+        sidebar.getChildren().add(difficultyChoice);
+
+        // Label to show how much the enemy thought about its last shot
+        thinkLabel = new Label();
+        sidebar.getChildren().add(thinkLabel);
+
+        // Toggle and address to play another player on the LAN, only available while placing ships
+        lanToggle = new ToggleButton("LAN");
+        peerAddress = new TextField();
+        peerAddress.setPromptText("Join address (empty to host)");
+        peerAddress.setPrefColumnCount(12);
+        sidebar.getChildren().addAll(lanToggle, peerAddress);
+
         root.setRight(sidebar);
 
         // Initialize the enemy board with an event handler for gameplay
-        enemyBoard = new Board.Builder().setEnemy(true).setHandler(event -> {
-            if (!running || enemyTurn || isPaused) return;
+        enemyBoard = new Board.Builder().setEnemy(true).setHandler((cell, button) -> {
+            if (!running || enemyTurn || isPaused || animator.isBusy()) return;
 
-            Cell cell = (Cell) event.getSource();
             if (cell.getWasShot()) return;
+            if (lanToggle.isSelected()) {
+                // The result arrives asynchronously; mark the cell as pending until it does
+                int index = Grid.index(cell.x, cell.y);
+                if (peer != null && peer.shoot(index)) enemyBoard.setCellStroke(index, Color.ORANGE);
+                return;
+            }
+            if (salvo) {
+                markVolleyTarget(cell);
+                return;
+            }
 
-            enemyTurn = !cell.shoot();  // switch to the computer's turn if a ship was not hit
+            undoStack.push(store.snapshot()); // Remember the position so the move can be undone
+            redoStack.clear();
+            enemyTurn = !fire(cell);  // switch to the computer's turn if a ship was not hit
             updateTurnIndicator(); // Update the turn indicator
 
             // Check if the player has won
@@ -124,17 +447,19 @@ public class GameController {
         }).build();
 
         // Initialize player board with an event handler for gameplay
-        playerBoard = new Board.Builder().setEnemy(false).setHandler(event -> {
+        playerBoard = new Board.Builder().setEnemy(false).setHandler((cell, button) -> {
+            StartupTimeline.mark(StartupTimeline.FIRST_MOVE);
             if (running || isPaused) return;
 
-            Cell cell = (Cell) event.getSource();
             // Place player's ship
+            boolean vertical = button == MouseButton.PRIMARY;
             if (playerBoard.placeShip(new Ship.Builder().type(shipsToPlace)
-                    .vertical(event.getButton() == MouseButton.PRIMARY).health().build(), cell.x, cell.y)
-                    && --shipsToPlace == 0) {
-                startGame(); // Start the game once all ships are placed
+                    .vertical(vertical).health().build(), cell.x, cell.y)) {
+                playerBoard.setPlacementPreview(--shipsToPlace); // Preview the next ship, if any
+                if (shipsToPlace == 0) startGame(); // Start the game once all ships are placed
             }
         }).build();
+        playerBoard.setPlacementPreview(shipsToPlace);
 
         VBox vbox = new VBox(50, enemyBoard, playerBoard);
         vbox.setAlignment(Pos.CENTER);
@@ -147,109 +472,463 @@ public class GameController {
      * Begins the game by placing enemy ships randomly and setting the game to running.
      */
     private void startGame() {
-        placeEnemyShipsRandomly();
+        salvoToggle.setDisable(true);
+        difficultyChoice.setDisable(true);
+        lanToggle.setDisable(true);
+        peerAddress.setDisable(true);
+        events.gameStart(); // Subscribers throw away whatever they kept of an abandoned game
+        announceFleet(false, playerBoard.getLayout());
+        if (lanToggle.isSelected()) {
+            startPeerGame();
+            return;
+        }
+        placeEnemyFleet();
+        playerShots = 0;
+        store.publish(GameState.start(playerBoard.getLayout(), enemyBoard.getLayout()));
+        thinker.execute(targeting::reset);
+        undoStack.clear();
+        redoStack.clear();
         running = true;
         turnIndicator.setText(YOUR_TURN);
+        announcedEnemyTurn = false;
+        events.turn(false);
+        if (matchStore != null) {
+            try {
+                matchSlot = matchStore.claim();
+            } catch (RuntimeException e) {
+                logger.warn("Cannot keep this match in the match store", e);
+            }
+        }
+        persist();
     }
 
     /**
-     * Places enemy ships randomly on the board at the start of the game.
+     * Continues the match an earlier run left unfinished, exactly as it was last saved:
+     * fleets, shots, turn, variant, difficulty and the player's shot order.
+     * The enemy AI works from the position alone, so it picks up where it left off.
+     *
+     * @param match the match to continue
      */
-    private void placeEnemyShipsRandomly() {
-        int type = 5;
-        while (type > 0) {
-            int x = random.nextInt(10);
-            int y = random.nextInt(10);
-            // Attempt to place a ship on a random cell
-            if (enemyBoard.placeShip(new Ship.Builder().type(type).vertical(Math.random() < 0.5).health().build(), x, y)) {
-                type--;
+    private void resume(StoredMatch match) {
+        GameState state = match.state();
+        playerBoard.placeFleet(state.player().getLayout());
+        enemyBoard.placeFleet(state.enemy().getLayout());
+        shipsToPlace = 0;
+        playerBoard.setPlacementPreview(0);
+        salvo = match.salvo();
+        salvoToggle.setSelected(salvo);
+        setDifficulty(match.difficulty());
+        System.arraycopy(match.shotOrder(), 0, playerShotOrder, 0, match.shotOrder().length);
+        playerShots = match.shotOrder().length;
+        matchSlot = match.slot();
+        store.publish(state);
+        thinker.execute(targeting::reset);
+        salvoToggle.setDisable(true);
+        difficultyChoice.setDisable(true);
+        lanToggle.setDisable(true);
+        peerAddress.setDisable(true);
+        running = true;
+        announcedEnemyTurn = !state.isEnemyTurn(); // Announce whose turn it is
+        applyState();
+        logger.info("Resumed match {} after {} shots", match.id(),
+                state.player().shotCount() + state.enemy().shotCount());
+        if (enemyTurn) {
+            if (salvo) enemyVolley();
+            else enemyMove();
+        }
+    }
+
+    /**
+     * Saves the current position to the match store, if the match is being kept there.
+     */
+    private void persist() {
+        if (matchSlot >= 0) {
+            matchStore.save(matchSlot, store.snapshot(), difficulty, salvo, playerShotOrder, playerShots);
+        }
+    }
+
+    /**
+     * Frees the match's slot in the match store, so the match is not resumed.
+     */
+    private void releaseMatch() {
+        if (matchSlot >= 0) {
+            matchStore.release(matchSlot);
+            matchSlot = -1;
+        }
+    }
+
+    /**
+     * Hosts or joins a LAN game with the player's fleet. Connecting happens off the JavaFX Application
+     * Thread; the game starts once both players have committed to their fleets. If the game is left
+     * before then, the wait for the other player is given up and a late connection is closed.
+     */
+    private void startPeerGame() {
+        String address = peerAddress.getText().trim();
+        int generation = ++peerGeneration;
+        PeerSession.Builder builder = new PeerSession.Builder()
+                .setLayout(playerBoard.getLayout()).setListener(new PeerHandler(generation));
+        turnIndicator.setText(address.isEmpty() ? "Hosting on port " + PEER_PORT : "Joining " + address);
+        peerVerdict.setText("Checking the opponent's fleet...");
+        ServerSocket server = null;
+        if (address.isEmpty()) {
+            try {
+                server = new ServerSocket(PEER_PORT);
+            } catch (IOException e) {
+                logger.warn("Cannot host LAN game on port {}", PEER_PORT, e);
+                turnIndicator.setText("Connection failed");
+                return;
+            }
+        }
+        ServerSocket hosting = server;
+        peerServer = hosting;
+        Thread connector = new Thread(() -> {
+            try {
+                PeerSession session = hosting != null ? builder.accept(hosting) : builder.connect(address, PEER_PORT);
+                Platform.runLater(() -> {
+                    if (generation == peerGeneration) {
+                        peer = session;
+                    } else {
+                        session.close(); // The game was left while connecting
+                    }
+                });
+            } catch (IOException e) {
+                Platform.runLater(() -> {
+                    if (generation != peerGeneration) return; // Closing the socket to leave the game ends up here too
+                    logger.warn("Cannot start LAN game", e);
+                    turnIndicator.setText("Connection failed");
+                });
+            } finally {
+                if (hosting != null) closeQuietly(hosting);
             }
+        }, "peer-connect");
+        connector.setDaemon(true);
+        connector.start();
+    }
+
+    /**
+     * Leaves the current LAN game, if any: stops waiting for the other player to join, closes the
+     * session and makes every event still to come from it stale.
+     */
+    private void leavePeerGame() {
+        peerGeneration++;
+        ServerSocket server = peerServer;
+        peerServer = null;
+        if (server != null) closeQuietly(server); // Ends the connector's accept()
+        if (peer != null) {
+            peer.close();
+            peer = null;
         }
     }
 
     /**
-     * Executes the enemy's move using a hunt-and-kill strategy to target player ships.
+     * Closes a server socket, ignoring failures; it is not used afterwards either way.
+     *
+     * @param server the server socket
+     */
+    private static void closeQuietly(ServerSocket server) {
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Closing LAN server socket failed", e);
+        }
+    }
+
+    /**
+     * Places the enemy ships at the start of the game, as chosen by the placement strategy.
+     */
+    private void placeEnemyFleet() {
+        FleetLayout layout = placement.place(random);
+        enemyBoard.placeFleet(layout);
+        announceFleet(true, layout);
+    }
+
+    /**
+     * Publishes the placement of every ship of a fleet on the event bus.
+     *
+     * @param enemyBoard whether the fleet is the enemy's
+     * @param layout     the fleet
+     */
+    private void announceFleet(boolean enemyBoard, FleetLayout layout) {
+        for (int ship = 0; ship < layout.size(); ship++) {
+            events.placement(enemyBoard, layout.origin(ship), layout.type(ship), layout.isVertical(ship));
+        }
+    }
+
+    /**
+     * Returns the stage this controller shows the game in.
+     *
+     * @return the primary stage
+     */
+    public Stage getStage() {
+        return primaryStage;
+    }
+
+    /**
+     * Returns the latest snapshot of the game. Safe to call from any thread without locking;
+     * the returned state is immutable and always describes a consistent position.
+     *
+     * @return the current game state, or {@code null} while ships are still being placed
+     */
+    public GameState snapshot() {
+        return store.snapshot();
+    }
+
+    /**
+     * Executes the enemy's move: keeps shooting while it hits, choosing every shot within the
+     * time budget of the current difficulty. Each shot is chosen on the {@link #thinker} thread
+     * and fired on the JavaFX Application Thread, which stays free to render in between.
      */
     private void enemyMove() {
-        turnIndicator.setText(ENEMY_TURN);
+        updateTurnIndicator();
+        if (enemyTurn && playerBoard.getShips() > 0) {
+            chooseEnemyShot();
+        } else {
+            endEnemyMove();
+        }
+    }
 
-        while (enemyTurn) {
-            if (huntQueue.isEmpty()) {
-                fireRandomShot();  // Hunt mode: firing randomly until a hit is made
-            } else {
-                fireAtAdjacentCells(); // Kill mode: firing at adjacent cells
-            }
+    /**
+     * Has the enemy choose its next shot on the {@link #thinker} thread and fire it once chosen.
+     */
+    private void chooseEnemyShot() {
+        int generation = gameGeneration;
+        BoardState target = store.snapshot().player();
+        thinker.execute(() -> {
+            int cell = targeting.choose(target);
+            String thought = describeThinking();
+            Platform.runLater(() -> enemyShot(generation, cell, thought));
+        });
+    }
+
+    /**
+     * Fires the shot the enemy chose, then chooses the next one while it keeps hitting.
+     *
+     * @param generation the number of the game the shot was chosen for
+     * @param cell       the grid index of the cell to shoot
+     * @param thought    how the enemy arrived at the shot, for the think label
+     */
+    private void enemyShot(int generation, int cell, String thought) {
+        if (generation != gameGeneration || !running) return; // The game was restarted while the enemy thought
+        thinkLabel.setText(thought);
+        enemyTurn = enemyFire(playerBoard.getCell(Grid.x(cell), Grid.y(cell)));
+        if (enemyTurn && playerBoard.getShips() > 0) {
+            chooseEnemyShot();
+        } else {
+            endEnemyMove(); // The shots are decided; hand the turn back once they have all been shown
+        }
+    }
 
+    /**
+     * Hands the turn back once all of the enemy's shots have been shown, or ends the game.
+     */
+    private void endEnemyMove() {
+        animator.whenIdle(() -> {
             if (playerBoard.getShips() == 0) {
                 endGame("You Lose!");
+            } else {
+                updateTurnIndicator();
             }
+        });
+    }
+
+    /**
+     * Describes how long the enemy thought about its last shot, how far it refined it and how many
+     * fleets it sampled on the way. Must be called on the {@link #thinker} thread.
+     *
+     * @return the text for the think label
+     */
+    private String describeThinking() {
+        return String.format("AI: %.2f ms, depth %d, %d samples",
+                targeting.getLastThinkNanos() / 1e6, targeting.getLastDepth(), targeting.getLastSamples());
+    }
+
+    /**
+     * Marks or unmarks a cell for the player's next salvo volley and fires the volley
+     * once one cell has been marked for every surviving ship of the player.
+     *
+     * @param cell the cell on the enemy board that was clicked
+     */
+    private void markVolleyTarget(Cell cell) {
+        if (pendingVolley.remove(cell)) {
+            enemyBoard.setCellStroke(Grid.index(cell.x, cell.y), Color.BLACK);
+            return;
+        }
+        pendingVolley.add(cell);
+        enemyBoard.setCellStroke(Grid.index(cell.x, cell.y), Color.ORANGE);
+        if (pendingVolley.size() < playerBoard.getShips()) return;
+
+        undoStack.push(store.snapshot()); // Remember the position so the volley can be undone
+        redoStack.clear();
+        List<Cell> volley = new ArrayList<>(pendingVolley);
+        clearPendingVolley();
+        fireVolley(enemyBoard, volley);
+
+        if (enemyBoard.getShips() == 0) {
+            endGame("You Win!");
+        } else {
+            enemyVolley();
+        }
+    }
+
+    /**
+     * Fires the enemy's salvo volley: one shot per surviving enemy ship, chosen jointly.
+     */
+    private void enemyVolley() {
+        enemyTurn = true;
+        updateTurnIndicator();
+        thinkLabel.setText("AI: salvo heuristic"); // Volleys ignore the difficulty's time budget
+
+        int[] targets = SalvoTargeting.chooseVolley(store.snapshot().player(), enemyBoard.getShips());
+        List<Cell> volley = new ArrayList<>(targets.length);
+        for (int index : targets) {
+            volley.add(playerBoard.getCell(Grid.x(index), Grid.y(index)));
         }
+        fireVolley(playerBoard, volley);
 
+        if (playerBoard.getShips() == 0) {
+            endGame("You Lose!");
+            return;
+        }
+        enemyTurn = false;
         updateTurnIndicator();
     }
 
     /**
-     * Fires a random shot at an un-shot cell on the player's board.
+     * Fires a salvo volley at a board and advances the game state to match.
+     *
+     * @param board  the board being attacked
+     * @param volley the cells to shoot
      */
-    private void fireRandomShot() {
-        Cell randomCell = getRandomCell();
-        if (!alreadyShotCells.contains(randomCell)) {
-            enemyTurn = randomCell.shoot();
-            if (enemyTurn && !randomCell.getWasShot()) {
-                hitCells.add(randomCell);
-                huntQueue.add(randomCell);
-            }
+    private void fireVolley(Board board, List<Cell> volley) {
+        board.fireVolley(volley);
+        int[] indices = new int[volley.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = Grid.index(volley.get(i).x, volley.get(i).y);
+            if (board == enemyBoard) playerShotOrder[playerShots++] = indices[i];
         }
+        advance(store.snapshot().volley(indices), board == enemyBoard, indices);
     }
 
     /**
-     * Fires at cells adjacent to a hit cell, aiming to sink a detected ship.
+     * Removes the marks from the cells chosen for the player's next salvo volley.
      */
-    private void fireAtAdjacentCells() {
-        Cell targetCell = huntQueue.poll();
-        List<Cell> adjacentCells = getAdjacentCells(Objects.requireNonNull(targetCell));
+    private void clearPendingVolley() {
+        pendingVolley.forEach(cell -> enemyBoard.setCellStroke(Grid.index(cell.x, cell.y), Color.BLACK));
+        pendingVolley.clear();
+    }
 
-        for (Cell adjCell : adjacentCells) {
-            if (!alreadyShotCells.contains(adjCell)) {
-                enemyTurn = adjCell.shoot();
-                if (enemyTurn) {
-                    hitCells.add(adjCell);
-                    huntQueue.add(adjCell);
-                    break;
-                }
-            }
-        }
+    /**
+     * Shoots at a cell on the player's behalf, records it in the player's shot order
+     * and advances the game state to match.
+     *
+     * @param cell the cell to shoot
+     * @return {@code true} if the shot hits a ship, {@code false} otherwise
+     */
+    private boolean fire(Cell cell) {
+        playerShotOrder[playerShots++] = Grid.index(cell.x, cell.y);
+        boolean hit = cell.shoot();
+        advance(store.snapshot().shoot(Grid.index(cell.x, cell.y)), true, Grid.index(cell.x, cell.y));
+        return hit;
     }
 
     /**
-     * Retrieves a random un-shot cell from the player's board.
+     * Shoots at a cell on the enemy's behalf and advances the game state to match.
+     * The outcome is known immediately, but the cell is only repainted when the animator reaches it.
      *
-     * @return a randomly selected cell that has not been shot at.
+     * @param cell the cell to shoot
+     * @return {@code true} if the shot hits a ship, {@code false} otherwise
      */
-    private Cell getRandomCell() {
-        int x = random.nextInt(10);
-        int y = random.nextInt(10);
-        return playerBoard.getCell(x, y);
+    private boolean enemyFire(Cell cell) {
+        boolean hit = cell.resolve();
+        animator.enqueue(cell);
+        advance(store.snapshot().shoot(Grid.index(cell.x, cell.y)), false, Grid.index(cell.x, cell.y));
+        return hit;
     }
 
     /**
-     * Returns a list of cells adjacent to the given cell on the board.
+     * Publishes the position after one or more shots at a board and announces the shots,
+     * and any ships they sank, on the event bus.
      *
-     * @param cell the cell for which adjacent cells are required.
-     * @return a list of cells adjacent to the given cell.
+     * @param next           the position after the shots
+     * @param enemyBoardShot whether the shots were fired at the enemy's board
+     * @param cells          the grid indices of the cells shot
+     */
+    private void advance(GameState next, boolean enemyBoardShot, int... cells) {
+        GameState previous = store.snapshot();
+        store.publish(next);
+        persist(); // In place, a few hundred bytes; survives the process dying from here on
+        BoardState before = enemyBoardShot ? previous.enemy() : previous.player();
+        BoardState after = enemyBoardShot ? next.enemy() : next.player();
+        for (int cell : cells) {
+            events.shot(enemyBoardShot, cell, after.resultOf(cell));
+        }
+        FleetLayout layout = after.getLayout();
+        for (int ship = 0; ship < layout.size(); ship++) {
+            if (!before.isSunk(ship) && after.isSunk(ship)) {
+                events.sink(enemyBoardShot, layout.origin(ship), layout.type(ship));
+            }
+        }
+    }
+
+    /**
+     * Takes back the player's last move together with the enemy's reply.
      */
-    private List<Cell> getAdjacentCells(Cell cell) {
-        List<Cell> adjacentCells = new ArrayList<>();
-        int x = (int) cell.getX();
-        int y = (int) cell.getY();
+    private void undo() {
+        if (!running || peer != null || enemyTurn || isPaused || animator.isBusy() || undoStack.isEmpty()) return;
+        clearPendingVolley();
+        redoStack.push(store.snapshot());
+        store.publish(undoStack.pop());
+        applyState();
+        logger.info("Move undone");
+    }
 
-        // Ensure adjacent cells are within board bounds
-        if (x > 0) adjacentCells.add(playerBoard.getCell(x - 1, y));
-        if (x < 9) adjacentCells.add(playerBoard.getCell(x + 1, y));
-        if (y > 0) adjacentCells.add(playerBoard.getCell(x, y - 1));
-        if (y < 9) adjacentCells.add(playerBoard.getCell(x, y + 1));
+    /**
+     * Replays the most recently undone move together with the enemy's reply.
+     */
+    private void redo() {
+        if (!running || peer != null || enemyTurn || isPaused || animator.isBusy() || redoStack.isEmpty()) return;
+        clearPendingVolley();
+        undoStack.push(store.snapshot());
+        store.publish(redoStack.pop());
+        applyState();
+        logger.info("Move redone");
+    }
 
-        return adjacentCells;
+    /**
+     * Shows the current game state on both boards. The enemy AI works from the state alone,
+     * so it needs no bookkeeping of its own to be rebuilt; subscribers to the event bus are told
+     * that the position was replaced.
+     */
+    private void applyState() {
+        GameState state = store.snapshot();
+        events.positionReset();
+        enemyBoard.restore(state.enemy());
+        playerBoard.restore(state.player());
+        enemyTurn = state.isEnemyTurn();
+        syncShotOrder(state);
+        updateTurnIndicator();
+        persist();
+    }
+
+    /**
+     * Drops the undone shots from the player's shot order and appends the redone ones.
+     *
+     * @param state the position now shown
+     */
+    private void syncShotOrder(GameState state) {
+        int kept = 0;
+        boolean[] listed = new boolean[Grid.CELLS];
+        for (int i = 0; i < playerShots; i++) {
+            int index = playerShotOrder[i];
+            if (state.enemy().isShot(index)) {
+                playerShotOrder[kept++] = index;
+                listed[index] = true;
+            }
+        }
+        for (int index = 0; index < Grid.CELLS; index++) {
+            if (state.enemy().isShot(index) && !listed[index]) playerShotOrder[kept++] = index;
+        }
+        playerShots = kept;
     }
 
     /**
@@ -257,6 +936,10 @@ public class GameController {
      */
     private void updateTurnIndicator() {
         turnIndicator.setText(enemyTurn ? ENEMY_TURN : YOUR_TURN);
+        if (running && enemyTurn != announcedEnemyTurn) {
+            announcedEnemyTurn = enemyTurn;
+            events.turn(enemyTurn);
+        }
     }
 
     /**
@@ -266,7 +949,10 @@ public class GameController {
      */
     private void endGame(String result) {
         running = false;
+        releaseMatch();
         logger.info(result);
+        profile.record(playerShotOrder, playerShots); // Learn from how the player searched this time
+        if (peer == null) events.gameOver(playerBoard.getShips() == 0); // A LAN game ends once the enemy fleet is verified
         StackPane endScreen = new StackPane();
         endScreen.setPrefSize(400, 200);
         Label resultLabel = new Label(result);
@@ -276,6 +962,7 @@ public class GameController {
         restartButton.setOnAction(e -> restartGame());
 
         VBox layout = new VBox(20, resultLabel, restartButton, closeButton);
+        if (peer != null) layout.getChildren().add(1, peerVerdict); // Filled in once the opponent reveals its fleet
         layout.setAlignment(Pos.CENTER);
         endScreen.getChildren().add(layout);
 
@@ -288,6 +975,7 @@ public class GameController {
      */
     private void togglePause() {
         isPaused = !isPaused;
+        animator.setHeld(isPaused);
         if (isPaused) {
             turnIndicator.setText("Game Paused");
             logger.info("Game Paused");
@@ -303,13 +991,18 @@ public class GameController {
      */
     private void restartGame() {
         logger.info("Restarting Game");
+        gameGeneration++; // Drops a shot the enemy may still be choosing
         shipsToPlace = 5;
         running = false;
         enemyTurn = false;
         isPaused = false;
-        alreadyShotCells.clear();
-        huntQueue.clear();
-        hitCells.clear();
+        animator.cancel();
+        releaseMatch();
+        leavePeerGame();
+        undoStack.clear();
+        redoStack.clear();
+        pendingVolley.clear();
+        store.publish(null);
 
         // Clear boards and reset turn indicator
         enemyBoard.clear();
@@ -320,4 +1013,118 @@ public class GameController {
         primaryStage.setScene(new Scene(createBoard()));
         logger.info("Game Restarted");
     }
+
+    /**
+     * Plays a LAN game from the events of the peer session, handing each one over to the
+     * JavaFX Application Thread. The other player's shots are shown through the animator like the
+     * computer's, and the enemy board is painted from the results the other player reports.
+     * Events that arrive after their game was left are dropped, so they cannot touch the next game.
+     * <p>
+     * The other player's fleet is only known once it is revealed after the game, so the event bus
+     * gets no placements or sinks for the enemy board during play. Once the revealed fleet has been
+     * verified, its placements are published followed by the end of the game; a game whose fleet is
+     * never verified never ends on the bus, and is not archived.
+     * </p>
+     */
+    private class PeerHandler implements PeerListener {
+
+        private final int generation; // Number of the LAN game this handler plays
+        private boolean over;         // Whether one of the fleets has been sunk
+        private boolean won;          // Whether this side sank the other fleet
+
+        /**
+         * Creates a handler for a LAN game.
+         *
+         * @param generation the number of the game
+         */
+        PeerHandler(int generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * Checks whether this handler's game has been left. Must be called on the JavaFX Application Thread.
+         *
+         * @return {@code true} if the handler's events must be ignored
+         */
+        private boolean stale() {
+            return generation != peerGeneration;
+        }
+
+        @Override
+        public void onReady(boolean myTurn) {
+            Platform.runLater(() -> {
+                if (stale()) return;
+                playerShots = 0;
+                running = true;
+                enemyTurn = !myTurn;
+                announcedEnemyTurn = !enemyTurn; // Force the first turn to be announced
+                updateTurnIndicator();
+            });
+        }
+
+        @Override
+        public void onShotResult(int cell, ShotResult result, int sunkType, boolean myTurn) {
+            Platform.runLater(() -> {
+                if (stale()) return;
+                Cell target = enemyBoard.getCell(Grid.x(cell), Grid.y(cell));
+                enemyBoard.setCellStroke(cell, Color.BLACK); // Through the board, which may be previewing the cell
+                target.mark(result.isHit());
+                playerShotOrder[playerShots++] = cell;
+                events.shot(true, cell, result);
+                if (result == ShotResult.SUNK) enemyBoard.setShips(enemyBoard.getShips() - 1);
+                enemyTurn = !myTurn;
+                updateTurnIndicator();
+            });
+        }
+
+        @Override
+        public void onIncomingShot(int cell, ShotResult result, boolean myTurn) {
+            Platform.runLater(() -> {
+                if (stale()) return;
+                playerBoard.getCell(Grid.x(cell), Grid.y(cell)).resolve();
+                animator.enqueue(playerBoard.getCell(Grid.x(cell), Grid.y(cell)));
+                events.shot(false, cell, result);
+                if (result == ShotResult.SUNK) {
+                    FleetLayout layout = playerBoard.getLayout();
+                    int ship = layout.shipAt(cell);
+                    events.sink(false, layout.origin(ship), layout.type(ship));
+                }
+                enemyTurn = !myTurn;
+                animator.whenIdle(GameController.this::updateTurnIndicator);
+            });
+        }
+
+        @Override
+        public void onGameOver(boolean won) {
+            Platform.runLater(() -> {
+                if (stale()) return;
+                this.over = true;
+                this.won = won;
+                animator.whenIdle(() -> endGame(won ? "You Win!" : "You Lose!"));
+            });
+        }
+
+        @Override
+        public void onVerified(boolean honest, String detail) {
+            if (!honest) logger.warn("Opponent's fleet failed verification: {}", detail);
+            Platform.runLater(() -> {
+                if (stale()) return;
+                peerVerdict.setText(honest ? "Opponent's fleet verified" : "Opponent cheated: " + detail);
+                FleetLayout fleet = peer != null ? peer.getRevealedLayout() : null;
+                if (honest && over && fleet != null) {
+                    announceFleet(true, fleet);
+                    events.gameOver(!won);
+                }
+            });
+        }
+
+        @Override
+        public void onClosed(Exception cause) {
+            Platform.runLater(() -> {
+                if (stale() || !running) return;
+                running = false;
+                turnIndicator.setText(cause == null ? "Opponent left" : "Connection lost");
+            });
+        }
+    }
 }
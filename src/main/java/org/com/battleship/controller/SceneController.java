@@ -7,6 +7,8 @@ import javafx.scene.input.KeyEvent;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.com.battleship.startup.GameScenePreloader;
+import org.com.battleship.startup.StartupTimeline;
 
 /**
  * Controller class for handling scene transitions.
@@ -21,6 +23,7 @@ public class SceneController {
 
     /**
      * Starts the game when any key is pressed from the main menu.
+     * The game scene is normally already prepared in the background by {@link GameScenePreloader}.
      *
      * @param keyEvent the KeyEvent triggered by the user's input.
      */
@@ -28,11 +31,11 @@ public class SceneController {
     public void startGame(KeyEvent keyEvent) {
         try {
             Stage stage = (Stage) ((Node) keyEvent.getSource()).getScene().getWindow(); // Get the current stage
-            GameController gameController = new GameController(stage);
-            Scene scene = new Scene(gameController.createBoard()); // Create a new scene with the game board layout
+            Scene scene = new Scene(GameScenePreloader.take(stage)); // Create a new scene with the prepared game board layout
             stage.setScene(scene); // Set the new scene to the stage
             stage.setResizable(false); // Make the stage non-resizable to maintain consistent UI layout
             stage.show(); // Display the new scene
+            StartupTimeline.mark(StartupTimeline.GAME_SHOWN);
             logger.info("Starting game"); // Log that the game is starting
         } catch (Exception e) {
             logger.error("Unable to start game", e); // Log an error if the game fails to start
@@ -0,0 +1,186 @@
+package org.com.battleship.controller;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javafx.animation.AnimationTimer;
+import org.com.battleship.model.Cell;
+
+/**
+ * Plays the enemy's shots one after another instead of showing a whole chain of hits in one frame.
+ * Shots are resolved by the caller straight away (see {@link Cell#resolve()}) and only queued here
+ * to be shown. An {@link AnimationTimer} reveals them at a fixed cadence; every cell revealed in a
+ * pulse is painted in a single pass, so each pulse costs one layout and render however many shots it shows.
+ * If the queue backs up beyond the fast-forward threshold, the animator skips frames and reveals
+ * the excess in the next pulse.
+ * Must only be used on the JavaFX Application Thread.
+ */
+final class ShotAnimator extends AnimationTimer {
+
+    private long cadence;          // Time between two revealed shots, in nanoseconds
+    private final int fastForward; // Largest backlog that is still played at the normal cadence
+
+    private final ArrayDeque<Cell> queue = new ArrayDeque<>();       // Resolved shots not shown yet
+    private final List<Runnable> idleActions = new ArrayList<>();    // Run once the queue has drained
+    private boolean active;  // Whether the timer is registered for pulses
+    private boolean held;    // Whether playback is paused
+    private long nextDue;    // Pulse time at which the next shot is due, 0 to play on the next pulse
+
+    /**
+     * Private constructor to create a ShotAnimator using the Builder pattern.
+     *
+     * @param builder the Builder instance used for setting the animator's properties
+     */
+    private ShotAnimator(Builder builder) {
+        this.cadence = builder.cadence;
+        this.fastForward = builder.fastForward;
+    }
+
+    /**
+     * Changes the time between two revealed shots. A cadence of zero shows shots as soon as they are queued.
+     *
+     * @param cadence the time between shots
+     * @param unit    the unit of the cadence
+     */
+    void setCadence(long cadence, TimeUnit unit) {
+        this.cadence = unit.toNanos(Math.max(0, cadence));
+    }
+
+    /**
+     * Queues a resolved shot to be shown.
+     *
+     * @param cell the cell that was shot
+     */
+    void enqueue(Cell cell) {
+        if (cadence == 0 && queue.isEmpty()) {
+            cell.paint();  // Nothing to wait for
+            return;
+        }
+        queue.add(cell);
+        if (!held && !active) {
+            nextDue = 0;
+            active = true;
+            start();
+        }
+    }
+
+    /**
+     * Runs an action once every queued shot has been shown, or straight away if none are queued.
+     *
+     * @param action the action to run
+     */
+    void whenIdle(Runnable action) {
+        if (queue.isEmpty()) {
+            action.run();
+        } else {
+            idleActions.add(action);
+        }
+    }
+
+    /**
+     * Checks whether shots are still waiting to be shown.
+     *
+     * @return {@code true} while the animation is playing
+     */
+    boolean isBusy() {
+        return !queue.isEmpty();
+    }
+
+    /**
+     * Pauses or resumes playback. Queued shots are kept while paused.
+     *
+     * @param held {@code true} to pause, {@code false} to resume
+     */
+    void setHeld(boolean held) {
+        this.held = held;
+        if (held && active) {
+            active = false;
+            stop();
+        } else if (!held && !active && !queue.isEmpty()) {
+            nextDue = 0;
+            active = true;
+            start();
+        }
+    }
+
+    /**
+     * Drops all queued shots and pending actions without showing them.
+     */
+    void cancel() {
+        if (active) {
+            active = false;
+            stop();
+        }
+        queue.clear();
+        idleActions.clear();
+    }
+
+    /**
+     * Reveals the shots due in this pulse in a single pass.
+     *
+     * @param now the time of the pulse, in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        if (nextDue == 0) nextDue = now;  // First pulse after starting plays right away
+        if (now < nextDue) return;
+
+        long late = cadence == 0 ? queue.size() : (now - nextDue) / cadence; // Shots missed by late pulses
+        int steps = (int) Math.min(queue.size(), 1 + late);
+        steps = Math.max(steps, queue.size() - fastForward);  // Fast-forward a backed-up queue
+        for (int i = 0; i < steps; i++) {
+            queue.poll().paint();
+        }
+        nextDue = now + cadence;
+
+        if (queue.isEmpty()) {
+            active = false;
+            stop();
+            List<Runnable> actions = new ArrayList<>(idleActions);
+            idleActions.clear();
+            actions.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Builder class for constructing ShotAnimator instances.
+     */
+    static class Builder {
+        private long cadence = TimeUnit.MILLISECONDS.toNanos(250);
+        private int fastForward = 4;
+
+        /**
+         * Sets the time between two revealed shots. Defaults to 250 ms.
+         *
+         * @param cadence the time between shots
+         * @param unit    the unit of the cadence
+         * @return the Builder instance for chaining
+         */
+        Builder setCadence(long cadence, TimeUnit unit) {
+            this.cadence = unit.toNanos(Math.max(0, cadence));
+            return this;
+        }
+
+        /**
+         * Sets the largest backlog that is still played shot by shot; anything beyond it
+         * is revealed at once in the next pulse. Defaults to 4.
+         *
+         * @param fastForward the fast-forward threshold
+         * @return the Builder instance for chaining
+         */
+        Builder setFastForward(int fastForward) {
+            this.fastForward = Math.max(0, fastForward);
+            return this;
+        }
+
+        /**
+         * Builds the animator.
+         *
+         * @return a new ShotAnimator
+         */
+        ShotAnimator build() {
+            return new ShotAnimator(this);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.com.battleship.corpus;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import org.com.battleship.exceptions.CorpusFormatException;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+
+/**
+ * Binary format of a fleet-layout corpus: a fixed set of layouts that every strategy can be
+ * run against identically, e.g. in regression suites and AI tournaments.
+ * <pre>
+ * header (32 bytes)
+ *      0   4  magic "BSLC"
+ *      4   4  format version
+ *      8   4  record size
+ *     12   4  ships per record
+ *     16   8  number of layouts, written when the corpus is closed
+ *     24   8  reserved
+ * record (88 bytes, one per layout)
+ *      0  80  {@link #SHIPS} ships as (low, high) cell masks, see {@link Grid#lo(int)}; empty slots are 0
+ *     80   4  CRC-32C of the masks
+ *     84   4  reserved
+ * </pre>
+ * All values are little-endian. A ship's type, origin and orientation follow from its mask, so
+ * records are decoded straight into a {@link FleetLayout} without any parsing; single-cell ships,
+ * whose orientation makes no difference to play, read back as horizontal.
+ */
+public final class LayoutCorpus {
+
+    /** Size of the file header in bytes. */
+    public static final int HEADER = 32;
+
+    /** Size of a record in bytes. */
+    public static final int RECORD = 88;
+
+    /** Number of ship slots per record. */
+    public static final int SHIPS = 5;
+
+    static final int MAGIC = 0x434C5342;  // "BSLC" in little-endian byte order
+    static final int VERSION = 1;
+    static final int COUNT = 16;          // Offset of the number of layouts in the header
+    private static final int MASKS = SHIPS * 2 * Long.BYTES;
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private LayoutCorpus() {
+    }
+
+    /**
+     * Writes a layout as a record at the buffer's position and advances it by {@link #RECORD}.
+     *
+     * @param buffer the little-endian buffer to write to
+     * @param layout the layout
+     * @throws CorpusFormatException if the layout has more ships than a record holds
+     */
+    static void encode(ByteBuffer buffer, FleetLayout layout) {
+        if (layout.size() > SHIPS) {
+            throw new CorpusFormatException("A corpus record holds at most " + SHIPS + " ships: " + layout, null);
+        }
+        int start = buffer.position();
+        for (int ship = 0; ship < SHIPS; ship++) {
+            boolean present = ship < layout.size();
+            buffer.putLong(present ? layout.maskLo(ship) : 0);
+            buffer.putLong(present ? layout.maskHi(ship) : 0);
+        }
+        buffer.putInt((int) checksum(buffer, start));
+        buffer.putInt(0);
+    }
+
+    /**
+     * Reads the record at the buffer's position into a layout and advances the position by {@link #RECORD}.
+     *
+     * @param buffer the little-endian buffer to read from
+     * @param index  the record's index, for error messages
+     * @return the layout
+     * @throws CorpusFormatException if the checksum does not match or the masks do not form a legal fleet
+     */
+    static FleetLayout decode(ByteBuffer buffer, long index) {
+        int start = buffer.position();
+        int expected = buffer.getInt(start + MASKS);
+        if ((int) checksum(buffer, start) != expected) {
+            throw new CorpusFormatException("Checksum mismatch in layout " + index, null);
+        }
+        FleetLayout.Builder builder = new FleetLayout.Builder();
+        try {
+            for (int ship = 0; ship < SHIPS; ship++) {
+                long lo = buffer.getLong(start + ship * 2 * Long.BYTES);
+                long hi = buffer.getLong(start + ship * 2 * Long.BYTES + Long.BYTES);
+                int type = Grid.count(lo, hi);
+                if (type == 0) continue;  // Empty slot
+                int origin = lo != 0 ? Long.numberOfTrailingZeros(lo) : 64 + Long.numberOfTrailingZeros(hi);
+                boolean vertical = type > 1 && Grid.test(lo, hi, origin + Grid.SIZE);
+                builder.ship(type, Grid.x(origin), Grid.y(origin), vertical);
+            }
+        } catch (RuntimeException e) {
+            throw new CorpusFormatException("Layout " + index + " is not a legal fleet", e);
+        }
+        buffer.position(start + RECORD);
+        return builder.build();
+    }
+
+    /**
+     * Computes the CRC-32C of the masks of the record starting at an offset.
+     */
+    private static long checksum(ByteBuffer buffer, int start) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start, MASKS));
+        return crc.getValue();
+    }
+}
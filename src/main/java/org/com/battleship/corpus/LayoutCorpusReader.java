@@ -0,0 +1,143 @@
+package org.com.battleship.corpus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.exceptions.CorpusFormatException;
+import org.com.battleship.state.FleetLayout;
+
+/**
+ * Reads fleet layouts from a corpus file, see {@link LayoutCorpus}.
+ * Layouts can be fetched by index, which costs a single positional read, or streamed in order
+ * with large block reads by iterating over the reader. Every record's checksum is verified.
+ * Positional reads leave the channel's position alone, so several threads may read by index
+ * or iterate over the same reader at once.
+ */
+public final class LayoutCorpusReader implements Iterable<FleetLayout>, AutoCloseable {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final int BLOCK_RECORDS = 1024;  // Records read per block while streaming
+
+    private final FileChannel channel;  // The corpus file
+    private final long count;           // Number of complete records in the file
+
+    /**
+     * Opens a corpus file and checks its header.
+     *
+     * @param file the corpus file
+     * @throws IOException           if the file cannot be read
+     * @throws CorpusFormatException if the file is not a corpus in a supported format
+     */
+    public LayoutCorpusReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(LayoutCorpus.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            read(header, 0);
+            if (header.getInt(0) != LayoutCorpus.MAGIC || header.getInt(4) != LayoutCorpus.VERSION
+                    || header.getInt(8) != LayoutCorpus.RECORD || header.getInt(12) != LayoutCorpus.SHIPS) {
+                throw new CorpusFormatException(file + " is not a fleet-layout corpus in a supported format", null);
+            }
+            long stored = header.getLong(LayoutCorpus.COUNT);
+            long present = (channel.size() - LayoutCorpus.HEADER) / LayoutCorpus.RECORD;
+            if (stored != present) {
+                logger.warn("{} declares {} layouts but holds {}; the writer was probably not closed",
+                        file, stored, present);
+            }
+            this.count = stored == 0 ? present : Math.min(stored, present);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of layouts in the corpus.
+     *
+     * @return the number of layouts
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Reads the layout at an index.
+     *
+     * @param index the layout's index, from 0 to {@link #size()} - 1
+     * @return the layout
+     * @throws IOException           if the corpus cannot be read
+     * @throws CorpusFormatException if the record is damaged
+     */
+    public FleetLayout get(long index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Layout " + index + " of " + count);
+        }
+        ByteBuffer record = ByteBuffer.allocate(LayoutCorpus.RECORD).order(ByteOrder.LITTLE_ENDIAN);
+        read(record, LayoutCorpus.HEADER + index * LayoutCorpus.RECORD);
+        return LayoutCorpus.decode(record, index);
+    }
+
+    /**
+     * Streams all layouts in order, reading the file in large blocks.
+     * I/O errors surface as {@link UncheckedIOException}.
+     *
+     * @return an iterator over the layouts
+     */
+    @Override
+    public Iterator<FleetLayout> iterator() {
+        ByteBuffer block = ByteBuffer.allocateDirect(BLOCK_RECORDS * LayoutCorpus.RECORD).order(ByteOrder.LITTLE_ENDIAN);
+        block.limit(0);
+        return new Iterator<>() {
+            private long next;  // Index of the next layout
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public FleetLayout next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                if (!block.hasRemaining()) {
+                    int records = (int) Math.min(BLOCK_RECORDS, count - next);
+                    block.clear().limit(records * LayoutCorpus.RECORD);
+                    try {
+                        read(block, LayoutCorpus.HEADER + next * LayoutCorpus.RECORD);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return LayoutCorpus.decode(block, next++);
+            }
+        };
+    }
+
+    /**
+     * Fills a buffer from a file position and flips it for reading.
+     */
+    private void read(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position + target.position());
+            if (read < 0) throw new CorpusFormatException("Corpus ends unexpectedly at byte " + position, null);
+        }
+        target.flip();
+    }
+
+    /**
+     * Closes the corpus file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,97 @@
+package org.com.battleship.corpus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.com.battleship.state.FleetLayout;
+
+/**
+ * Streams fleet layouts into a new corpus file, see {@link LayoutCorpus}.
+ * Records are gathered in a buffer and written in large blocks, so millions of layouts can be
+ * written without holding them in memory. The number of layouts is stored when the writer is closed.
+ * Not thread-safe.
+ */
+public final class LayoutCorpusWriter implements AutoCloseable {
+
+    private static final int BLOCK_RECORDS = 1024;  // Records written per block
+
+    private final FileChannel channel;  // The corpus file
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_RECORDS * LayoutCorpus.RECORD)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private long count;                 // Layouts written so far
+
+    /**
+     * Creates a corpus file, replacing any existing file, and writes its header.
+     *
+     * @param file the corpus file
+     * @throws IOException if the file cannot be created
+     */
+    public LayoutCorpusWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(LayoutCorpus.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LayoutCorpus.MAGIC).putInt(LayoutCorpus.VERSION).putInt(LayoutCorpus.RECORD)
+                .putInt(LayoutCorpus.SHIPS).putLong(0).putLong(0).flip();
+        write(header, 0);
+    }
+
+    /**
+     * Appends a layout to the corpus.
+     *
+     * @param layout the layout
+     * @throws IOException if the corpus cannot be written
+     */
+    public void write(FleetLayout layout) throws IOException {
+        if (!buffer.hasRemaining()) flush();
+        LayoutCorpus.encode(buffer, layout);
+        count++;
+    }
+
+    /**
+     * Returns the number of layouts written so far.
+     *
+     * @return the number of layouts
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Writes out the buffered records.
+     */
+    private void flush() throws IOException {
+        long buffered = buffer.position() / LayoutCorpus.RECORD;
+        buffer.flip();
+        write(buffer, LayoutCorpus.HEADER + (count - buffered) * LayoutCorpus.RECORD);
+        buffer.clear();
+    }
+
+    /**
+     * Writes a whole buffer at a file position.
+     */
+    private void write(ByteBuffer source, long position) throws IOException {
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+    }
+
+    /**
+     * Writes the remaining records and the number of layouts, then closes the file.
+     *
+     * @throws IOException if the corpus cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            ByteBuffer total = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(count).flip();
+            write(total, LayoutCorpus.COUNT);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.com.battleship.events;
+
+import org.com.battleship.state.ShotResult;
+
+/**
+ * An immutable game event as delivered to subscribers of the {@link GameEventBus}.
+ * Fields that do not apply to an event's type are 0, {@code false} or {@code null}.
+ *
+ * @param sequence   the position of the event on the bus, increasing by one per published event;
+ *                   gaps show where events were dropped or sampled out for a subscriber
+ * @param nanoTime   when the event was published, from {@link System#nanoTime()}
+ * @param type       the kind of event
+ * @param enemyBoard whether the event concerns the enemy's board rather than the player's
+ * @param cell       the cell shot, or the origin of the placed ship, as a grid index
+ * @param shipType   the size of the ship placed or sunk
+ * @param vertical   whether the placed ship runs down rather than across
+ * @param result     the outcome of a shot
+ * @param enemyTurn  for turn changes and the end of the game, whether the enemy is to move or won
+ */
+public record GameEvent(long sequence, long nanoTime, GameEventType type, boolean enemyBoard, int cell,
+                        int shipType, boolean vertical, ShotResult result, boolean enemyTurn) {
+}
@@ -0,0 +1,381 @@
+package org.com.battleship.events;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.state.ShotResult;
+
+/**
+ * Broadcasts game events to any number of subscribers without ever holding up the game.
+ * <p>
+ * The game publishes into a pre-allocated single-producer Disruptor ring; publishing writes a
+ * few fields into a ring slot and never blocks or allocates. One dispatcher thread drains the ring
+ * and hands every event to each subscriber's own bounded mailbox, and each subscriber reads its
+ * mailbox on its own thread. A slow subscriber therefore only ever fills its own mailbox: once full,
+ * further events are dropped for that subscriber, and a sampling subscriber thins out shots as its
+ * backlog grows. If even the dispatcher falls a whole ring behind, the game drops the event rather
+ * than wait.
+ * <p>
+ * All publishing must happen on a single thread, the JavaFX Application Thread in the game.
+ * The ring and its dispatcher are only started once the first subscriber arrives, and run until
+ * {@link #shutdown()}.
+ */
+public final class GameEventBus {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** Longest time {@link #shutdown()} waits for the dispatcher, and then for each subscriber, to catch up. */
+    private static final long SHUTDOWN_MILLIS = 2000;
+
+    /** Put in a mailbox behind its last event when the bus shuts down; never delivered. */
+    private static final GameEvent END = new GameEvent(-1, 0, null, false, 0, 0, false, null, false);
+
+    private final int ringSize;                 // Number of slots in the ring, a power of two
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong unpublished = new AtomicLong(); // Events lost because the ring was full
+    private Disruptor<Slot> disruptor;          // Started with the first subscription
+    private volatile RingBuffer<Slot> ring;     // Null until the first subscription
+
+    /**
+     * Creates an event bus.
+     *
+     * @param ringSize the number of events the ring can hold, rounded up to a power of two
+     */
+    public GameEventBus(int ringSize) {
+        this.ringSize = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+    }
+
+    /**
+     * Subscribes a listener that drops events while its mailbox is full.
+     *
+     * @param listener the listener
+     * @param capacity the number of events the listener may fall behind
+     * @return the subscription, which can be closed to unsubscribe
+     */
+    public Subscription subscribe(GameEventListener listener, int capacity) {
+        return subscribe(listener, capacity, 1);
+    }
+
+    /**
+     * Subscribes a listener. Once its mailbox is more than half full, a sampling listener only
+     * receives one in every {@code sampleEvery} shots; other events are still delivered while there is room.
+     *
+     * @param listener    the listener
+     * @param capacity    the number of events the listener may fall behind
+     * @param sampleEvery how many shots to skip per delivered shot under pressure; 1 disables sampling
+     * @return the subscription, which can be closed to unsubscribe
+     */
+    public synchronized Subscription subscribe(GameEventListener listener, int capacity, int sampleEvery) {
+        Subscription subscription = new Subscription(listener, capacity, sampleEvery);
+        subscriptions.add(subscription);
+        if (ring == null) start();
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Starts the ring and its dispatcher thread.
+     */
+    private void start() {
+        ThreadFactory threads = runnable -> {
+            Thread thread = new Thread(runnable, "game-events");
+            thread.setDaemon(true);
+            return thread;
+        };
+        disruptor = new Disruptor<>(Slot::new, ringSize, threads, ProducerType.SINGLE, new SleepingWaitStrategy());
+        disruptor.handleEventsWith(new Dispatcher());
+        ring = disruptor.start();
+        logger.info("Game event bus started with {} slots", ringSize);
+    }
+
+    /**
+     * Stops the bus once the events published so far have reached every subscriber, waiting a few
+     * seconds at most for the dispatcher and for each subscriber to catch up. Listeners that are
+     * {@link AutoCloseable} are closed after their last event. Events published afterwards are discarded.
+     */
+    public synchronized void shutdown() {
+        ring = null; // Nothing more is published
+        if (disruptor != null) {
+            try {
+                disruptor.shutdown(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("Game event dispatcher did not catch up; discarding the rest of the ring");
+                disruptor.halt();
+            }
+            disruptor = null;
+        }
+        for (Subscription subscription : subscriptions) subscription.finish();
+    }
+
+    /**
+     * Returns the number of events lost because the dispatcher had fallen a whole ring behind.
+     *
+     * @return the number of unpublished events
+     */
+    public long getUnpublished() {
+        return unpublished.get();
+    }
+
+    /**
+     * Publishes the start of a new game, before the placements of its fleets.
+     */
+    public void gameStart() {
+        publish(GameEventType.GAME_START, false, 0, 0, false, null, false);
+    }
+
+    /**
+     * Publishes a ship placement.
+     *
+     * @param enemyBoard whether the ship was placed on the enemy's board
+     * @param origin     the grid index of the ship's first cell
+     * @param shipType   the size of the ship
+     * @param vertical   whether the ship runs down rather than across
+     */
+    public void placement(boolean enemyBoard, int origin, int shipType, boolean vertical) {
+        publish(GameEventType.PLACEMENT, enemyBoard, origin, shipType, vertical, null, false);
+    }
+
+    /**
+     * Publishes a shot.
+     *
+     * @param enemyBoard whether the enemy's board was shot
+     * @param cell       the grid index of the cell shot
+     * @param result     the outcome of the shot
+     */
+    public void shot(boolean enemyBoard, int cell, ShotResult result) {
+        publish(GameEventType.SHOT, enemyBoard, cell, 0, false, result, false);
+    }
+
+    /**
+     * Publishes the sinking of a ship.
+     *
+     * @param enemyBoard whether the ship was on the enemy's board
+     * @param origin     the grid index of the ship's first cell
+     * @param shipType   the size of the ship
+     */
+    public void sink(boolean enemyBoard, int origin, int shipType) {
+        publish(GameEventType.SINK, enemyBoard, origin, shipType, false, null, false);
+    }
+
+    /**
+     * Publishes a change of turn.
+     *
+     * @param enemyTurn whether the enemy is now to move
+     */
+    public void turn(boolean enemyTurn) {
+        publish(GameEventType.TURN, false, 0, 0, false, null, enemyTurn);
+    }
+
+    /**
+     * Publishes that the game's position was replaced, e.g. by undo or redo.
+     */
+    public void positionReset() {
+        publish(GameEventType.POSITION_RESET, false, 0, 0, false, null, false);
+    }
+
+    /**
+     * Publishes the end of the game.
+     *
+     * @param enemyWon whether the enemy won
+     */
+    public void gameOver(boolean enemyWon) {
+        publish(GameEventType.GAME_OVER, false, 0, 0, false, null, enemyWon);
+    }
+
+    /**
+     * Claims a ring slot, fills it in and publishes it; drops the event if the ring is full
+     * or nobody is subscribed.
+     */
+    private void publish(GameEventType type, boolean enemyBoard, int cell, int shipType, boolean vertical,
+                         ShotResult result, boolean enemyTurn) {
+        RingBuffer<Slot> current = ring;
+        if (current == null) return;  // No subscribers yet
+        long sequence;
+        try {
+            sequence = current.tryNext();
+        } catch (InsufficientCapacityException e) {
+            unpublished.incrementAndGet();
+            return;
+        }
+        Slot slot = current.get(sequence);
+        slot.nanoTime = System.nanoTime();
+        slot.type = type;
+        slot.enemyBoard = enemyBoard;
+        slot.cell = cell;
+        slot.shipType = shipType;
+        slot.vertical = vertical;
+        slot.result = result;
+        slot.enemyTurn = enemyTurn;
+        current.publish(sequence);
+    }
+
+    /**
+     * A pre-allocated ring slot, overwritten in place for every event.
+     */
+    private static final class Slot {
+        private long nanoTime;
+        private GameEventType type;
+        private boolean enemyBoard;
+        private int cell;
+        private int shipType;
+        private boolean vertical;
+        private ShotResult result;
+        private boolean enemyTurn;
+    }
+
+    /**
+     * Drains the ring and fans each event out to the subscribers' mailboxes without waiting on any of them.
+     */
+    private final class Dispatcher implements EventHandler<Slot> {
+
+        /**
+         * Copies a slot into an immutable event and offers it to every subscriber.
+         *
+         * @param slot       the ring slot
+         * @param sequence   the slot's sequence number
+         * @param endOfBatch whether this is the last event currently available
+         */
+        @Override
+        public void onEvent(Slot slot, long sequence, boolean endOfBatch) {
+            GameEvent event = new GameEvent(sequence, slot.nanoTime, slot.type, slot.enemyBoard, slot.cell,
+                    slot.shipType, slot.vertical, slot.result, slot.enemyTurn);
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * A subscriber's mailbox and the thread that delivers from it.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final GameEventListener listener;   // Receives the delivered events
+        private final BlockingQueue<GameEvent> mailbox; // Events waiting to be delivered
+        private final int capacity;                  // Size of the mailbox
+        private final int sampleEvery;               // Shots skipped per delivered shot under pressure
+        private final Thread thread;                 // Delivers events to the listener
+        private final AtomicLong delivered = new AtomicLong(); // Events handed to the listener
+        private final AtomicLong dropped = new AtomicLong();   // Events dropped or sampled out
+        private long shotsUnderPressure;             // Shots seen while the mailbox was over half full
+        private volatile boolean open = true;        // Cleared when the subscription is closed
+
+        /**
+         * Creates a subscription; its thread is started by {@link #subscribe}.
+         */
+        private Subscription(GameEventListener listener, int capacity, int sampleEvery) {
+            this.listener = listener;
+            this.capacity = Math.max(1, capacity);
+            this.sampleEvery = Math.max(1, sampleEvery);
+            this.mailbox = new ArrayBlockingQueue<>(this.capacity);
+            this.thread = new Thread(this::deliver, "game-events-subscriber");
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Offers an event to the mailbox, dropping it if the mailbox is full or sampling is thinning out shots.
+         * Called on the dispatcher thread.
+         *
+         * @param event the event
+         */
+        private void offer(GameEvent event) {
+            if (!open) return;
+            if (sampleEvery > 1 && event.type() == GameEventType.SHOT && mailbox.size() > capacity / 2
+                    && shotsUnderPressure++ % sampleEvery != 0) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (!mailbox.offer(event)) dropped.incrementAndGet();
+        }
+
+        /**
+         * Delivers events from the mailbox until the subscription is closed.
+         */
+        private void deliver() {
+            try {
+                while (open) {
+                    GameEvent event = mailbox.take();
+                    if (event == END) return;
+                    try {
+                        listener.onEvent(event);
+                        delivered.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        logger.warn("Game event listener failed on {}", event, e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();  // Closed while waiting for an event
+            }
+        }
+
+        /**
+         * Returns the number of events handed to the listener so far.
+         *
+         * @return the number of delivered events
+         */
+        public long getDelivered() {
+            return delivered.get();
+        }
+
+        /**
+         * Returns the number of events this subscriber missed because it fell behind.
+         *
+         * @return the number of dropped events
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * Delivers the events left in the mailbox, stops the delivering thread and closes the listener
+         * if it is {@link AutoCloseable}. A listener that does not catch up in time loses the rest of its
+         * mailbox and is left open, since it may still be handling an event.
+         */
+        private void finish() {
+            subscriptions.remove(this);
+            try {
+                if (mailbox.offer(END, SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS)) thread.join(SHUTDOWN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                logger.warn("Game event listener {} did not catch up before shutdown", listener);
+                close();
+                return;
+            }
+            open = false;
+            if (listener instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Could not close game event listener {}", listener, e);
+                }
+            }
+        }
+
+        /**
+         * Unsubscribes and stops the delivering thread. Events still in the mailbox are discarded.
+         */
+        @Override
+        public void close() {
+            open = false;
+            subscriptions.remove(this);
+            thread.interrupt();
+            mailbox.clear();
+        }
+    }
+}
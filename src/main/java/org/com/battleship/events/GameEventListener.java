@@ -0,0 +1,17 @@
+package org.com.battleship.events;
+
+/**
+ * Receives events from a {@link GameEventBus} subscription.
+ * Events are delivered on the subscription's own thread, never on the JavaFX Application Thread;
+ * listeners that update the UI must hand over with {@code Platform.runLater}.
+ */
+@FunctionalInterface
+public interface GameEventListener {
+
+    /**
+     * Handles a game event.
+     *
+     * @param event the event
+     */
+    void onEvent(GameEvent event);
+}
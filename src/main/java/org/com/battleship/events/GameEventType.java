@@ -0,0 +1,28 @@
+package org.com.battleship.events;
+
+/**
+ * Kinds of events published on the {@link GameEventBus}.
+ */
+public enum GameEventType {
+
+    /** A new game began; whatever was left of the previous one, finished or not, is over. */
+    GAME_START,
+
+    /** A ship was placed on a board. */
+    PLACEMENT,
+
+    /** A cell was shot. */
+    SHOT,
+
+    /** A ship was sunk. */
+    SINK,
+
+    /** The turn passed to the other side. */
+    TURN,
+
+    /** The position was taken back or replayed, e.g. by undo or redo; shots since may be undone. */
+    POSITION_RESET,
+
+    /** The game ended. */
+    GAME_OVER
+}
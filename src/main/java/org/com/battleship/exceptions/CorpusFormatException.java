@@ -0,0 +1,32 @@
+package org.com.battleship.exceptions;
+
+/**
+ * Custom exception class for handling malformed or damaged fleet-layout corpora.
+ * <p>
+ * This exception is a subclass of {@link RuntimeException}, meaning it is unchecked and
+ * can be thrown at runtime without being explicitly declared in a method's `throws` clause.
+ * It is typically thrown when a corpus file has the wrong header or a record fails its checksum.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * throw new CorpusFormatException("Checksum mismatch in layout 42", cause);
+ * </pre>
+ *
+ * @see RuntimeException
+ */
+public class CorpusFormatException extends RuntimeException {
+
+    /**
+     * Constructs a new {@link CorpusFormatException} with the specified detail message
+     * and cause of the exception.
+     *
+     * @param message the detail message that provides additional context about the exception.
+     *                This can be accessed later using {@link Throwable#getMessage()}.
+     * @param cause   the cause of the exception, which can be another throwable that led to this exception.
+     *                If {@code null}, the cause is considered nonexistent or unknown.
+     */
+    public CorpusFormatException(String message, Throwable cause) {
+        super(message, cause); // Call the parent constructor to initialize the exception
+    }
+}
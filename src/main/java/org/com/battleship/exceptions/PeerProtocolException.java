@@ -0,0 +1,32 @@
+package org.com.battleship.exceptions;
+
+/**
+ * Custom exception class for handling a broken or dishonest connection to a peer.
+ * <p>
+ * This exception is a subclass of {@link RuntimeException}, meaning it is unchecked and
+ * can be thrown at runtime without being explicitly declared in a method's `throws` clause.
+ * It is typically thrown when a peer sends an unknown or out-of-turn message, or the connection fails.
+ * </p>
+ *
+ * Example usage:
+ * <pre>
+ * throw new PeerProtocolException("Shot out of turn at cell 42", cause);
+ * </pre>
+ *
+ * @see RuntimeException
+ */
+public class PeerProtocolException extends RuntimeException {
+
+    /**
+     * Constructs a new {@link PeerProtocolException} with the specified detail message
+     * and cause of the exception.
+     *
+     * @param message the detail message that provides additional context about the exception.
+     *                This can be accessed later using {@link Throwable#getMessage()}.
+     * @param cause   the cause of the exception, which can be another throwable that led to this exception.
+     *                If {@code null}, the cause is considered nonexistent or unknown.
+     */
+    public PeerProtocolException(String message, Throwable cause) {
+        super(message, cause); // Call the parent constructor to initialize the exception
+    }
+}
@@ -0,0 +1,169 @@
+package org.com.battleship.logging;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+
+/**
+ * Logging for the game's hot paths: shots, ship placements and volleys.
+ * <p>
+ * Every event belongs to a {@link Category} that is sampled (only every n-th event is logged) and
+ * rate-limited (at most so many events per second; the rest are counted as suppressed). The level
+ * and the category's budget are checked before anything else, so an event that is not logged costs
+ * a few comparisons and never builds its message. Events that are logged use parameterised messages
+ * with primitive-friendly arguments and constant strings, which Log4j formats without allocating.
+ * </p>
+ * The events go to the {@code org.com.battleship.game} logger, which {@code log4j2.xml} routes through
+ * an asynchronous, garbage-free logger so the game thread only hands the event to a ring buffer.
+ * Each category is tuned with {@code battleship.log.<category>.sample} and
+ * {@code battleship.log.<category>.rate}, e.g. {@code -Dbattleship.log.shot.sample=100}.
+ */
+public final class GameLog {
+
+    /** Logger for all game events; configured separately from the application's other loggers. */
+    static final Logger logger = LogManager.getLogger("org.com.battleship.game");
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private GameLog() {
+    }
+
+    /**
+     * Kinds of game events, each with its own marker, sampling rate and rate limit.
+     */
+    public enum Category {
+
+        /** A single shot at a cell. */
+        SHOT(1, 200),
+
+        /** A ship placement, successful or rejected. */
+        PLACEMENT(1, 100),
+
+        /** A whole salvo volley. */
+        VOLLEY(1, 100);
+
+        private final Marker marker;      // Marker that lets appenders filter the category
+        private final long sampleEvery;   // Only every n-th event is considered
+        private final long maxPerSecond;  // Largest number of events logged per second
+        private final AtomicLong seen = new AtomicLong();       // Events offered so far
+        private final AtomicLong suppressed = new AtomicLong(); // Sampled events dropped by the rate limit
+        private final AtomicLong logged = new AtomicLong();     // Events actually logged
+        private volatile long window;     // Second, counted from the nanoTime origin, of the current rate window
+        private final AtomicLong used = new AtomicLong(); // Events logged in the current rate window
+
+        /**
+         * Creates a category with default limits, overridable through system properties.
+         *
+         * @param sampleEvery  the default sampling interval
+         * @param maxPerSecond the default rate limit
+         */
+        Category(long sampleEvery, long maxPerSecond) {
+            String key = "battleship.log." + name().toLowerCase(Locale.ROOT);
+            this.marker = MarkerManager.getMarker(name());
+            this.sampleEvery = Math.max(1, Long.getLong(key + ".sample", sampleEvery));
+            this.maxPerSecond = Math.max(0, Long.getLong(key + ".rate", maxPerSecond));
+        }
+
+        /**
+         * Decides whether an event of this category is logged, counting it either way.
+         *
+         * @return {@code true} if the event is sampled and within the rate limit
+         */
+        boolean admit() {
+            if (seen.getAndIncrement() % sampleEvery != 0) return false;
+            long second = System.nanoTime() / 1_000_000_000L;
+            if (second != window) {  // A new window; racing threads at worst let a few extra events through
+                window = second;
+                used.set(0);
+            }
+            if (used.incrementAndGet() > maxPerSecond) {
+                suppressed.incrementAndGet();
+                return false;
+            }
+            logged.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * Returns the number of events offered in this category, logged or not.
+         *
+         * @return the number of events
+         */
+        public long getSeen() {
+            return seen.get();
+        }
+
+        /**
+         * Returns the number of events that were sampled but dropped by the rate limit.
+         *
+         * @return the number of suppressed events
+         */
+        public long getSuppressed() {
+            return suppressed.get();
+        }
+
+        /**
+         * Returns the number of events that were logged.
+         *
+         * @return the number of logged events
+         */
+        public long getLogged() {
+            return logged.get();
+        }
+    }
+
+    /**
+     * Logs a shot at a cell.
+     *
+     * @param enemyBoard whether the shot was fired at the enemy's board
+     * @param x          the x-coordinate of the cell
+     * @param y          the y-coordinate of the cell
+     * @param hit        whether the shot hit a ship
+     * @param sunk       whether the shot sank the ship
+     */
+    public static void shot(boolean enemyBoard, int x, int y, boolean hit, boolean sunk) {
+        if (!logger.isEnabled(Level.INFO, Category.SHOT.marker) || !Category.SHOT.admit()) return;
+        logger.info(Category.SHOT.marker, "Shot at {} ({}, {}): {}", side(enemyBoard), x, y,
+                sunk ? "sunk" : hit ? "hit" : "miss");
+    }
+
+    /**
+     * Logs an attempt to place a ship.
+     *
+     * @param enemyBoard whether the ship was placed on the enemy's board
+     * @param type       the type (size) of the ship
+     * @param x          the starting x-coordinate
+     * @param y          the starting y-coordinate
+     * @param vertical   whether the ship runs down rather than across
+     * @param placed     whether the placement was legal and the ship was placed
+     */
+    public static void placement(boolean enemyBoard, int type, int x, int y, boolean vertical, boolean placed) {
+        if (!logger.isEnabled(Level.INFO, Category.PLACEMENT.marker) || !Category.PLACEMENT.admit()) return;
+        logger.info(Category.PLACEMENT.marker, "Ship of type {} {} at {} ({}, {}) {}", type,
+                vertical ? "vertical" : "horizontal", side(enemyBoard), x, y, placed ? "placed" : "rejected");
+    }
+
+    /**
+     * Logs a salvo volley.
+     *
+     * @param enemyBoard whether the volley was fired at the enemy's board
+     * @param shots      the number of shots in the volley
+     * @param hits       the number of shots that hit a ship
+     */
+    public static void volley(boolean enemyBoard, int shots, int hits) {
+        if (!logger.isEnabled(Level.INFO, Category.VOLLEY.marker) || !Category.VOLLEY.admit()) return;
+        logger.info(Category.VOLLEY.marker, "Volley at {}: {} shots, {} hits", side(enemyBoard), shots, hits);
+    }
+
+    /**
+     * Names a board by its owner.
+     */
+    private static String side(boolean enemyBoard) {
+        return enemyBoard ? "enemy" : "player";
+    }
+}
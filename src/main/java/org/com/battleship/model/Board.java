@@ -2,23 +2,32 @@ package org.com.battleship.model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.IntStream;
-import javafx.event.EventHandler;
-import javafx.geometry.Point2D;
 import javafx.scene.Parent;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.com.battleship.exceptions.BoardInitializationException;
 import org.com.battleship.exceptions.ShipPlacementException;
+import org.com.battleship.logging.GameLog;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
 
 /**
  * Represents the game board.
  * This class is responsible for handling ship placement, validating placements,
  * retrieving neighbouring cells, and resetting the board.
+ * Input is dispatched once per board rather than once per cell: pointer coordinates are
+ * converted straight to grid indices, which also drives the hover preview and keyboard targeting.
+ * Like every JavaFX node, a board and its cells must only be touched on the JavaFX Application
+ * Thread; other threads should read the immutable snapshots published by
+ * {@link org.com.battleship.controller.GameController#snapshot()} instead.
  */
 public class Board extends Parent {
 
@@ -28,6 +37,20 @@ public class Board extends Parent {
     private final VBox rows = new VBox();  // Holds rows of cells (10x10 grid)
     private final boolean enemy;           // Indicates if this board belongs to the enemy
     private int ships;                     // Counter for the number of ships on the board
+    private final List<Ship> fleet = new ArrayList<>(); // Ships in the order they were placed
+
+    private static final Color PREVIEW_VALID = Color.LIMEGREEN;  // Outline of a placement that fits
+    private static final Color PREVIEW_INVALID = Color.RED;      // Outline of a placement that does not fit
+    private static final Color CURSOR = Color.GOLD;              // Outline of the targeted cell
+
+    private final CellHandler handler;     // Receives activated cells, or null for a passive board
+    private final Cell[] cells = new Cell[Grid.CELLS]; // Cells by grid index, for direct lookups
+    private int hoverIndex = -1;           // Grid index under the pointer or keyboard cursor, -1 if none
+    private int previewLength;             // Length of the ship being placed, 0 for a single-cell cursor
+    private boolean previewVertical = true; // Orientation of the previewed ship, toggled with R
+    private final int[] previewCells = new int[Grid.SIZE];     // Cells currently outlined by the preview
+    private final Paint[] savedStrokes = new Paint[Grid.SIZE]; // Their strokes before the preview
+    private int previewCount;              // Number of cells currently outlined
 
     /**
      * Private constructor to create a Board instance using the Builder pattern.
@@ -37,34 +60,219 @@ public class Board extends Parent {
     private Board(Builder builder) {
         this.enemy = builder.enemy;
         this.ships = builder.ships;
-        initializeGrid(builder.handler);
+        this.handler = builder.handler;
+        initializeGrid();
+        initializeInput();
     }
 
     /**
-     * Initializes the 10x10 grid with Cell instances and attaches event handlers.
-     *
-     * @param handler the event handler for mouse click events
+     * Initializes the 10x10 grid with Cell instances.
      */
-    private void initializeGrid(EventHandler<? super MouseEvent> handler) {
-        logger.info("Initializing the grid.");
+    private void initializeGrid() {
+        logger.debug("Initializing the grid.");
         try {
             for (int y = 0; y < 10; y++) {
                 HBox row = new HBox();  // Each row containing 10 cells
                 for (int x = 0; x < 10; x++) {
                     Cell cell = new Cell.Builder().setX(x).setY(y).setBoard(this).build();
-                    if (handler != null) cell.setOnMouseClicked(handler);  // Attach event handler if provided
+                    cells[Grid.index(x, y)] = cell;
                     row.getChildren().add(cell);  // Add cell to the row
                 }
                 rows.getChildren().add(row);  // Add row to the VBox
             }
             getChildren().add(rows);  // Add rows to the parent container
-            logger.info("Grid initialized successfully.");
+            logger.debug("Grid initialized successfully.");
         } catch (Exception e) {
             logger.error("Error initializing the grid.", e);
             throw new BoardInitializationException("Failed to initialize the grid.", e);
         }
     }
 
+    /**
+     * Registers the board's input handlers.
+     * The cells are made transparent to picking so the board itself is the only target,
+     * which keeps dispatch to a single handler no matter how many cells the board has.
+     */
+    private void initializeInput() {
+        if (handler == null) return;  // Passive boards take no input
+        rows.setMouseTransparent(true);
+        setPickOnBounds(true);
+        setFocusTraversable(true);
+        addEventHandler(MouseEvent.MOUSE_CLICKED, this::onMouseClicked);
+        addEventHandler(MouseEvent.MOUSE_MOVED, this::onMouseMoved);
+        addEventHandler(MouseEvent.MOUSE_EXITED, this::onMouseExited);
+        addEventHandler(KeyEvent.KEY_PRESSED, this::onKeyPressed);
+    }
+
+    /**
+     * Dispatches a click to the handler for the cell under the pointer.
+     *
+     * @param event the mouse event
+     */
+    private void onMouseClicked(MouseEvent event) {
+        int index = indexAt(event.getX(), event.getY());
+        if (index < 0) return;
+        hoverIndex = index;
+        requestFocus();
+        activate(index, event.getButton());
+        event.consume();
+    }
+
+    /**
+     * Moves the hover preview to the cell under the pointer.
+     * Nothing is allocated unless the pointer enters a different cell.
+     *
+     * @param event the mouse event
+     */
+    private void onMouseMoved(MouseEvent event) {
+        int index = indexAt(event.getX(), event.getY());
+        if (index == hoverIndex) return;
+        hoverIndex = index;
+        showPreview();
+    }
+
+    /**
+     * Hides the hover preview when the pointer leaves the board.
+     *
+     * @param event the mouse event
+     */
+    private void onMouseExited(MouseEvent event) {
+        hoverIndex = -1;
+        clearPreview();
+    }
+
+    /**
+     * Handles keyboard targeting: arrow keys move the cursor, R rotates the previewed ship,
+     * and Enter or Space activates the cell under the cursor.
+     *
+     * @param event the key event
+     */
+    private void onKeyPressed(KeyEvent event) {
+        int x = hoverIndex < 0 ? 0 : Grid.x(hoverIndex);
+        int y = hoverIndex < 0 ? 0 : Grid.y(hoverIndex);
+        switch (event.getCode()) {
+            case LEFT -> x = Math.max(0, x - 1);
+            case RIGHT -> x = hoverIndex < 0 ? 0 : Math.min(Grid.SIZE - 1, x + 1);
+            case UP -> y = Math.max(0, y - 1);
+            case DOWN -> y = hoverIndex < 0 ? 0 : Math.min(Grid.SIZE - 1, y + 1);
+            case R -> previewVertical = !previewVertical;
+            case ENTER, SPACE -> {
+                if (hoverIndex >= 0) {
+                    activate(hoverIndex, previewVertical ? MouseButton.PRIMARY : MouseButton.SECONDARY);
+                }
+                event.consume();
+                return;
+            }
+            default -> {
+                return;  // Leave other keys to the rest of the scene
+            }
+        }
+        hoverIndex = Grid.index(x, y);
+        showPreview();
+        event.consume();
+    }
+
+    /**
+     * Passes a cell to the handler with the preview hidden, so the handler sees the real
+     * cell strokes, and shows the preview again afterwards.
+     *
+     * @param index  the grid index of the activated cell
+     * @param button the mouse button to report
+     */
+    private void activate(int index, MouseButton button) {
+        clearPreview();
+        handler.handle(cells[index], button);
+        showPreview();
+    }
+
+    /**
+     * Converts a point in the board's coordinates to a grid index.
+     *
+     * @param x the x-coordinate relative to the board
+     * @param y the y-coordinate relative to the board
+     * @return the grid index, or -1 if the point is outside the grid
+     */
+    private int indexAt(double x, double y) {
+        double pitch = cells[0].getLayoutBounds().getWidth();  // Cell size including its stroke
+        int cellX = (int) Math.floor(x / pitch);
+        int cellY = (int) Math.floor(y / pitch);
+        return Grid.isValid(cellX, cellY) ? Grid.index(cellX, cellY) : -1;
+    }
+
+    /**
+     * Sets the length of the ship previewed under the pointer.
+     * A length of 0 shows a single-cell cursor on an enemy board and nothing on the player's board.
+     *
+     * @param length the length of the next ship to place, or 0 once placement is over
+     */
+    public void setPlacementPreview(int length) {
+        this.previewLength = length;
+        showPreview();
+    }
+
+    /**
+     * Outlines the cells under the pointer or keyboard cursor, replacing any previous outline.
+     */
+    private void showPreview() {
+        clearPreview();
+        if (hoverIndex < 0) return;
+        int x = Grid.x(hoverIndex);
+        int y = Grid.y(hoverIndex);
+        if (previewLength == 0) {
+            if (enemy) outline(hoverIndex, CURSOR);
+            return;
+        }
+        Color stroke = isPlacementValid(previewLength, previewVertical, x, y) ? PREVIEW_VALID : PREVIEW_INVALID;
+        for (int i = 0; i < previewLength; i++) {
+            int targetX = x + (previewVertical ? 0 : i);
+            int targetY = y + (previewVertical ? i : 0);
+            if (!isValidPoint(targetX, targetY)) break;  // Only outline the part that is on the board
+            outline(Grid.index(targetX, targetY), stroke);
+        }
+    }
+
+    /**
+     * Outlines a single cell, remembering its stroke so it can be restored.
+     *
+     * @param index  the grid index of the cell
+     * @param stroke the outline colour
+     */
+    private void outline(int index, Color stroke) {
+        Cell cell = cells[index];
+        previewCells[previewCount] = index;
+        savedStrokes[previewCount] = cell.getStroke();
+        previewCount++;
+        cell.setStroke(stroke);
+    }
+
+    /**
+     * Sets the stroke of a cell, e.g. to mark it. If the preview currently outlines the cell, the
+     * stroke is shown once the preview moves on, instead of being overwritten by the one it saved.
+     *
+     * @param index  the grid index of the cell
+     * @param stroke the stroke
+     */
+    public void setCellStroke(int index, Paint stroke) {
+        for (int i = 0; i < previewCount; i++) {
+            if (previewCells[i] == index) {
+                savedStrokes[i] = stroke;
+                return;
+            }
+        }
+        cells[index].setStroke(stroke);
+    }
+
+    /**
+     * Restores the strokes of the cells outlined by the preview.
+     */
+    private void clearPreview() {
+        for (int i = 0; i < previewCount; i++) {
+            cells[previewCells[i]].setStroke(savedStrokes[i]);
+            savedStrokes[i] = null;
+        }
+        previewCount = 0;
+    }
+
     /**
      * Returns the number of ships currently placed on the board.
      *
@@ -91,7 +299,7 @@ public class Board extends Parent {
      * @return the Cell at the specified coordinates
      */
     public Cell getCell(int x, int y) {
-        return (Cell) ((HBox) rows.getChildren().get(y)).getChildren().get(x);
+        return cells[Grid.index(x, y)];
     }
 
     /**
@@ -109,6 +317,15 @@ public class Board extends Parent {
         return cells;
     }
 
+    /**
+     * Checks whether this is the enemy's board.
+     *
+     * @return {@code true} for the enemy's board, {@code false} for the player's
+     */
+    public boolean isEnemy() {
+        return enemy;
+    }
+
     /**
      * Places a ship on the board at the specified coordinates if the placement is valid.
      *
@@ -118,16 +335,15 @@ public class Board extends Parent {
      * @return {@code true} if the ship was successfully placed, {@code false} otherwise
      */
     public boolean placeShip(Ship ship, int x, int y) {
-        logger.info("Attempting to place ship at ({}, {}).", x, y);
         if (!canPlaceShip(ship, x, y)) {
-            logger.warn("Invalid ship placement at ({}, {}).", x, y);
+            GameLog.placement(enemy, ship.getType(), x, y, ship.isVertical(), false);
             return false;
         }
 
         try {
             // Place the ship by iterating through each cell in the specified direction
             int length = ship.getType();
-            IntStream.range(0, length).forEach(i -> {
+            for (int i = 0; i < length; i++) {
                 int targetX = x + (ship.isVertical() ? 0 : i);
                 int targetY = y + (ship.isVertical() ? i : 0);
                 Cell cell = getCell(targetX, targetY);
@@ -136,8 +352,9 @@ public class Board extends Parent {
                     cell.setFill(Color.WHITE);
                     cell.setStroke(Color.GREEN);
                 }
-            });
-            logger.info("Ship placed successfully at ({}, {}).", x, y);
+            }
+            fleet.add(ship);
+            GameLog.placement(enemy, length, x, y, ship.isVertical(), true);
             return true;
         } catch (Exception e) {
             logger.error("Error placing ship at ({}, {}).", x, y, e);
@@ -145,6 +362,48 @@ public class Board extends Parent {
         }
     }
 
+    /**
+     * Places a whole fleet on the board, e.g. one read from a layout corpus.
+     * Ships are placed in the layout's order, so {@link #getLayout()} describes the same fleet afterwards.
+     *
+     * @param layout the fleet to place
+     * @throws ShipPlacementException if a ship does not fit next to the ships already on the board
+     */
+    public void placeFleet(FleetLayout layout) {
+        for (int i = 0; i < layout.size(); i++) {
+            int origin = layout.origin(i);
+            Ship ship = new Ship.Builder().type(layout.type(i)).vertical(layout.isVertical(i)).health().build();
+            if (!placeShip(ship, Grid.x(origin), Grid.y(origin))) {
+                throw new ShipPlacementException("Ship " + i + " of " + layout + " does not fit on the board.", null);
+            }
+        }
+    }
+
+    /**
+     * Fires a whole volley at the board, as in the salvo variant.
+     * All shots are resolved first, then the ship counter is recomputed once and
+     * the targeted cells are repainted together, so the volley shows up in a single UI update.
+     *
+     * @param targets the cells to shoot
+     * @return the number of shots that hit a ship
+     */
+    public int fireVolley(List<Cell> targets) {
+        int hits = 0;
+        for (Cell cell : targets) {
+            if (cell.strike()) hits++;  // Resolve each shot without repainting
+        }
+        int afloat = 0;
+        for (Ship ship : fleet) {
+            if (ship.isAlive()) afloat++;  // Single sink check for the whole volley
+        }
+        this.ships = afloat;
+        for (Cell cell : targets) {
+            cell.paint();  // Single render pass for the whole volley
+        }
+        GameLog.volley(enemy, targets.size(), hits);
+        return hits;
+    }
+
     /**
      * Determines if a ship can be placed at the specified coordinates.
      * Ensures that the ship is within bounds and does not overlap with other ships.
@@ -155,60 +414,43 @@ public class Board extends Parent {
      * @return {@code true} if the placement is valid, {@code false} otherwise
      */
     private boolean canPlaceShip(Ship ship, int x, int y) {
-        int length = ship.getType();
-        int dx = ship.isVertical() ? 0 : 1;
-        int dy = ship.isVertical() ? 1 : 0;
-
-        return IntStream.range(0, length).allMatch(i -> {
-            int targetX = x + i * dx;
-            int targetY = y + i * dy;
-            if (!isValidPoint(targetX, targetY)) return false;  // Check board bounds
-            if (getCell(targetX, targetY).getShip() != null) return false;  // Check if cell is occupied
-            return isSafeFromNeighbors(targetX, targetY);  // Check neighbouring cells
-        });
+        return isPlacementValid(ship.getType(), ship.isVertical(), x, y);
     }
 
     /**
-     * Verifies that all neighbouring cells of a target cell are unoccupied.
+     * Determines if a ship of the given length and orientation fits at the specified coordinates:
+     * every cell must be on the board, empty, and not share an edge with another ship.
+     * Runs on every hover, so it works on the cell array directly and allocates nothing.
      *
-     * @param x the x-coordinate of the cell
-     * @param y the y-coordinate of the cell
-     * @return {@code true} if all neighbouring cells are empty, {@code false} otherwise
-     */
-    private boolean isSafeFromNeighbors(int x, int y) {
-        return getNeighbors(x, y).stream().allMatch(neighbor -> neighbor.getShip() == null);
-    }
-
-    /**
-     * Retrieves the neighbouring cells.
-     *
-     * @param x the x-coordinate of the target cell
-     * @param y the y-coordinate of the target cell
-     * @return a list of neighbouring Cell objects
+     * @param length   the length of the ship
+     * @param vertical whether the ship runs down rather than across
+     * @param x        the starting x-coordinate
+     * @param y        the starting y-coordinate
+     * @return {@code true} if the placement is valid, {@code false} otherwise
      */
-    private List<Cell> getNeighbors(int x, int y) {
-        Point2D[] points = {
-                new Point2D(x - 1.0, y), new Point2D(x + 1.0, y),
-                new Point2D(x, y - 1.0), new Point2D(x, y + 1.0)
-        };
-
-        List<Cell> neighbors = new ArrayList<>();
-        for (Point2D point : points) {
-            if (isValidPoint(point)) {
-                neighbors.add(getCell((int) point.getX(), (int) point.getY()));
+    private boolean isPlacementValid(int length, boolean vertical, int x, int y) {
+        for (int i = 0; i < length; i++) {
+            int targetX = x + (vertical ? 0 : i);
+            int targetY = y + (vertical ? i : 0);
+            if (!isValidPoint(targetX, targetY)) return false;  // Check board bounds
+            if (isOccupied(targetX, targetY)) return false;      // Check if cell is occupied
+            if (isOccupied(targetX - 1, targetY) || isOccupied(targetX + 1, targetY)
+                    || isOccupied(targetX, targetY - 1) || isOccupied(targetX, targetY + 1)) {
+                return false;  // Check neighbouring cells
             }
         }
-        return neighbors;
+        return true;
     }
 
     /**
-     * Checks if a given point is within the board's bounds.
+     * Checks whether a cell holds a ship. Coordinates off the board count as empty.
      *
-     * @param point the Point2D to validate
-     * @return {@code true} if the point is within bounds, {@code false} otherwise
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return {@code true} if the cell is on the board and holds a ship
      */
-    private boolean isValidPoint(Point2D point) {
-        return isValidPoint(point.getX(), point.getY());
+    private boolean isOccupied(int x, int y) {
+        return isValidPoint(x, y) && cells[Grid.index(x, y)].getShip() != null;
     }
 
     /**
@@ -226,12 +468,66 @@ public class Board extends Parent {
      * Resets the board.
      */
     public void clear() {
+        clearPreview();  // The strokes are reset below anyway
         rows.getChildren().forEach(row -> ((HBox) row).getChildren().forEach(cell -> {
             ((Cell) cell).setShip(null);  // Remove any ship from the cell
             ((Cell) cell).setFill(Color.LIGHTBLUE);  // Reset to default color
             ((Cell) cell).setStroke(Color.BLACK);    // Reset stroke colour
         }));
         this.ships = 0;  // Reset ship count
+        fleet.clear();
+    }
+
+    /**
+     * Describes the ships placed so far as an immutable {@link FleetLayout}.
+     * Ships appear in the layout in the order they were placed.
+     *
+     * @return the layout of the ships on this board
+     */
+    public FleetLayout getLayout() {
+        FleetLayout.Builder builder = new FleetLayout.Builder();
+        for (Ship ship : fleet) {
+            int origin = findOrigin(ship);
+            builder.ship(ship.getType(), Grid.x(origin), Grid.y(origin), ship.isVertical());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Brings the cells, ship health and ship counter in line with a board state,
+     * e.g. after a move has been undone or redone.
+     * The state must have been created from this board's {@link #getLayout()}.
+     *
+     * @param state the board state to show
+     */
+    public void restore(BoardState state) {
+        for (int index = 0; index < Grid.CELLS; index++) {
+            Cell cell = getCell(Grid.x(index), Grid.y(index));
+            boolean shot = state.isShot(index);
+            cell.setWasShot(shot);
+            if (shot) {
+                cell.setFill(cell.getShip() != null ? Color.RED : Color.BLACK);
+            } else {
+                cell.setFill(cell.getShip() != null && !enemy ? Color.WHITE : Color.LIGHTGRAY);
+            }
+        }
+        for (int i = 0; i < fleet.size(); i++) {
+            fleet.get(i).restoreHealth(state.health(i));
+        }
+        this.ships = state.shipsRemaining();
+    }
+
+    /**
+     * Finds the top-left cell occupied by a ship.
+     *
+     * @param ship the placed ship
+     * @return the index of the ship's first cell
+     */
+    private int findOrigin(Ship ship) {
+        for (int index = 0; index < Grid.CELLS; index++) {
+            if (getCell(Grid.x(index), Grid.y(index)).getShip() == ship) return index;
+        }
+        throw new ShipPlacementException("Ship is not on the board: " + ship, null);
     }
 
     /**
@@ -241,7 +537,7 @@ public class Board extends Parent {
     public static class Builder {
         private boolean enemy = false;
         private int ships = 5;
-        private EventHandler<? super MouseEvent> handler;
+        private CellHandler handler;
 
         public Builder setEnemy(boolean enemy) {
             this.enemy = enemy;
@@ -253,7 +549,7 @@ public class Board extends Parent {
             return this;
         }
 
-        public Builder setHandler(EventHandler<? super MouseEvent> handler) {
+        public Builder setHandler(CellHandler handler) {
             this.handler = handler;
             return this;
         }
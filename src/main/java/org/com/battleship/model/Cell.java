@@ -4,6 +4,7 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.com.battleship.logging.GameLog;
 
 /**
  * Represents a single cell on the board.
@@ -65,20 +66,64 @@ public class Cell extends Rectangle {
      * @return {@code true} if the shot hits a ship, {@code false} otherwise
      */
     public boolean shoot() {
-        wasShot = true; // Mark the cell shot.
-        setFill(Color.BLACK); // Set the colour to black to indicate the cell was shot.
-
-        if (ship != null) {
-            ship.hit(); // Mark the ship as hit.
-            setFill(Color.RED); // Change the cell colour to red to indicate a hit.
-            if (!ship.isAlive()) {
-                board.setShips(board.getShips() - 1); // Decrease remaining ships if the ship is sunk.
-            }
-            logger.info("Ship Hit");
-            return true; // Return true if the shot hit a ship.
+        boolean hit = resolve(); // Work out the outcome of the shot.
+        paint(); // Show the outcome of the shot.
+        return hit;
+    }
+
+    /**
+     * Shoots at the cell without repainting it: the cell is marked shot, the ship is damaged and
+     * the board's ship counter is updated, but the cell keeps its colour until {@link #paint()} is called.
+     * Lets the outcome of a shot be known immediately while it is shown later, e.g. by an animation.
+     *
+     * @return {@code true} if the shot hits a ship, {@code false} otherwise
+     */
+    public boolean resolve() {
+        boolean afloat = ship != null && ship.isAlive(); // Whether the ship could still be sunk by this shot.
+        boolean hit = strike(); // Mark the cell shot and damage the ship, if any.
+
+        boolean sunk = hit && afloat && !ship.isAlive(); // Whether this shot sank the ship.
+        if (sunk) {
+            board.setShips(board.getShips() - 1); // Decrease remaining ships if this shot sank the ship.
         }
-        logger.info("No ship hit");
-        return false; // Return false if the shot did not hit a ship.
+        GameLog.shot(board.isEnemy(), x, y, hit, sunk); // Sampled and rate-limited; free when not logged.
+        return hit; // Return whether the shot hit a ship.
+    }
+
+    /**
+     * Marks the cell as shot and damages the ship in it without repainting the cell
+     * or updating the board's ship counter. Shooting the same cell twice only damages the ship once.
+     * Used by {@link Board#fireVolley(java.util.List)} to resolve several shots before a single sink check.
+     *
+     * @return {@code true} if the cell contains a ship, {@code false} otherwise
+     */
+    boolean strike() {
+        if (!wasShot) {
+            wasShot = true; // Mark the cell shot.
+            if (ship != null) ship.hit(); // Mark the ship as hit.
+        }
+        return ship != null; // Return true if the shot hit a ship.
+    }
+
+    /**
+     * Updates the cell's colour to show the outcome of a shot: black for a miss, red for a hit.
+     * Cells that have not been shot keep their current colour.
+     */
+    public void paint() {
+        if (wasShot) {
+            setFill(ship != null ? Color.RED : Color.BLACK); // Red for a hit, black for a miss.
+        }
+    }
+
+    /**
+     * Marks the cell as shot with an outcome decided elsewhere and paints it: red for a hit, black for a miss.
+     * Used for a LAN opponent's board, whose ships are never placed locally; no ship or ship counter is touched.
+     *
+     * @param hit whether the shot struck a ship
+     */
+    public void mark(boolean hit) {
+        wasShot = true; // Mark the cell shot.
+        setFill(hit ? Color.RED : Color.BLACK); // Show the reported outcome.
     }
 
     /**
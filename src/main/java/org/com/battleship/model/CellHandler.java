@@ -0,0 +1,21 @@
+package org.com.battleship.model;
+
+import javafx.scene.input.MouseButton;
+
+/**
+ * Receives the cells activated on a {@link Board}.
+ * The board resolves pointer and keyboard input to a cell itself, so handlers
+ * never have to inspect the underlying JavaFX event.
+ */
+@FunctionalInterface
+public interface CellHandler {
+
+    /**
+     * Handles a cell being activated by a click or by the keyboard.
+     *
+     * @param cell   the activated cell
+     * @param button the mouse button used; keyboard activation reports {@link MouseButton#PRIMARY}
+     *               for a vertical and {@link MouseButton#SECONDARY} for a horizontal preview
+     */
+    void handle(Cell cell, MouseButton button);
+}
@@ -34,6 +34,15 @@ public class Ship extends Parent {
         }
     }
 
+    /**
+     * Restores the health of the ship, e.g. when a shot is undone.
+     *
+     * @param health the health to restore, between 0 and the ship's size
+     */
+    public void restoreHealth(int health) {
+        this.health = health;
+    }
+
     /**
      * Checks if the ship is still alive.
      *
@@ -0,0 +1,152 @@
+package org.com.battleship.net;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import org.com.battleship.exceptions.PeerProtocolException;
+import org.com.battleship.exceptions.ShipPlacementException;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+
+/**
+ * Commitment to a fleet layout, so that a peer can prove after the game that it answered every shot
+ * truthfully without revealing its fleet while the game is running.
+ * <p>
+ * The commitment is the SHA-256 hash of a random 16-byte salt followed by the encoded fleet. It is
+ * sent before the first shot; once the game is over the salt and the fleet are revealed and the other
+ * side recomputes the hash. The salt keeps the fleet from being found by hashing every legal layout.
+ * </p>
+ * Fleets are encoded as {@link PeerProtocol#FLEET} bytes: for each of the five ships, in placement
+ * order, its type followed by its origin with the vertical flag in the top bit, as in game records.
+ */
+public final class FleetCommitment {
+
+    private final FleetLayout layout; // The fleet committed to
+    private final byte[] salt;        // Random salt mixed into the hash
+    private final byte[] hash;        // SHA-256 of the salt and the encoded fleet
+
+    /**
+     * Private constructor; commitments are created with {@link #of(FleetLayout, SecureRandom)}.
+     */
+    private FleetCommitment(FleetLayout layout, byte[] salt) {
+        this.layout = layout;
+        this.salt = salt;
+        this.hash = digest(salt, encode(layout));
+    }
+
+    /**
+     * Commits to a fleet with a fresh random salt.
+     *
+     * @param layout the fleet to commit to
+     * @param random the source of the salt
+     * @return the commitment
+     */
+    public static FleetCommitment of(FleetLayout layout, SecureRandom random) {
+        byte[] salt = new byte[PeerProtocol.SALT];
+        random.nextBytes(salt);
+        return new FleetCommitment(layout, salt);
+    }
+
+    /**
+     * Returns the fleet committed to.
+     *
+     * @return the fleet layout
+     */
+    public FleetLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns the salt, to be revealed once the game is over.
+     *
+     * @return a copy of the salt
+     */
+    public byte[] getSalt() {
+        return salt.clone();
+    }
+
+    /**
+     * Returns the commitment sent to the other peer.
+     *
+     * @return a copy of the SHA-256 hash
+     */
+    public byte[] getHash() {
+        return hash.clone();
+    }
+
+    /**
+     * Encodes a fleet as ship byte pairs.
+     *
+     * @param layout the fleet to encode; must not have more than five ships
+     * @return the encoded fleet, {@link PeerProtocol#FLEET} bytes long
+     */
+    public static byte[] encode(FleetLayout layout) {
+        byte[] fleet = new byte[PeerProtocol.FLEET];
+        for (int ship = 0; ship < layout.size(); ship++) {
+            fleet[2 * ship] = (byte) layout.type(ship);
+            fleet[2 * ship + 1] = (byte) (layout.origin(ship) | (layout.isVertical(ship) ? 0x80 : 0));
+        }
+        return fleet;
+    }
+
+    /**
+     * Decodes a fleet and checks that it is the standard fleet placed by the usual rules.
+     *
+     * @param fleet  the buffer holding the encoded fleet
+     * @param offset the offset of the encoded fleet in the buffer
+     * @return the fleet layout
+     * @throws PeerProtocolException if the fleet is not a legal layout of the standard fleet
+     */
+    public static FleetLayout decode(byte[] fleet, int offset) {
+        FleetLayout.Builder builder = new FleetLayout.Builder();
+        int[] types = new int[PeerProtocol.FLEET / 2];
+        for (int ship = 0; ship < types.length; ship++) {
+            types[ship] = fleet[offset + 2 * ship];
+            int origin = fleet[offset + 2 * ship + 1] & 0x7F;
+            boolean vertical = (fleet[offset + 2 * ship + 1] & 0x80) != 0;
+            if (origin >= Grid.CELLS) throw new PeerProtocolException("Ship origin " + origin + " is off the board", null);
+            try {
+                builder.ship(types[ship], Grid.x(origin), Grid.y(origin), vertical);
+            } catch (ShipPlacementException e) {
+                throw new PeerProtocolException("Revealed fleet breaks the placement rules", e);
+            }
+        }
+        int[] standard = FleetLayout.standardFleet();
+        Arrays.sort(types);
+        Arrays.sort(standard);
+        if (!Arrays.equals(types, standard)) {
+            throw new PeerProtocolException("Revealed fleet is not the standard fleet: " + Arrays.toString(types), null);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Checks a revealed salt and fleet against a commitment received earlier.
+     *
+     * @param hash     the commitment
+     * @param revealed the buffer holding the revealed salt, followed by the encoded fleet
+     * @param offset   the offset of the salt in the buffer
+     * @return {@code true} if the salt and fleet hash to the commitment
+     */
+    public static boolean matches(byte[] hash, byte[] revealed, int offset) {
+        byte[] revealedSalt = Arrays.copyOfRange(revealed, offset, offset + PeerProtocol.SALT);
+        byte[] revealedFleet = Arrays.copyOfRange(revealed, offset + PeerProtocol.SALT,
+                offset + PeerProtocol.SALT + PeerProtocol.FLEET);
+        return MessageDigest.isEqual(hash, digest(revealedSalt, revealedFleet));
+    }
+
+    /**
+     * Hashes a salt and an encoded fleet.
+     */
+    private static byte[] digest(byte[] salt, byte[] fleet) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(salt);
+            sha.update(fleet);
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every Java platform must provide it
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.com.battleship.net;
+
+import org.com.battleship.state.ShotResult;
+
+/**
+ * Receives the events of a {@link PeerSession}.
+ * Methods are called on the session's reader thread, one at a time and in the order the events
+ * happen; implementations driving a user interface must hand them over to its thread.
+ * Every method does nothing by default, so listeners only implement what they need.
+ */
+public interface PeerListener {
+
+    /**
+     * Called once both peers have committed to their fleets and shooting may begin.
+     *
+     * @param myTurn whether this side fires first
+     */
+    default void onReady(boolean myTurn) {
+    }
+
+    /**
+     * Called when the other peer answers one of our shots.
+     *
+     * @param cell     the cell shot
+     * @param result   the outcome reported by the other peer
+     * @param sunkType the type of the ship sunk, or 0 unless the outcome is {@link ShotResult#SUNK}
+     * @param myTurn   whether this side fires next
+     */
+    default void onShotResult(int cell, ShotResult result, int sunkType, boolean myTurn) {
+    }
+
+    /**
+     * Called when the other peer fires at our fleet; the shot has already been answered.
+     *
+     * @param cell   the cell shot
+     * @param result the outcome of the shot
+     * @param myTurn whether this side fires next
+     */
+    default void onIncomingShot(int cell, ShotResult result, boolean myTurn) {
+    }
+
+    /**
+     * Called when one of the fleets has been sunk.
+     *
+     * @param won whether this side sank the other fleet
+     */
+    default void onGameOver(boolean won) {
+    }
+
+    /**
+     * Called when the other peer has revealed its fleet after the game and the answers it gave
+     * during the game have been checked against it.
+     *
+     * @param honest whether the fleet matches the commitment and every answer matches the fleet
+     * @param detail a description of the first inconsistency, or a summary if there is none
+     */
+    default void onVerified(boolean honest, String detail) {
+    }
+
+    /**
+     * Called once when the connection ends, for whatever reason.
+     *
+     * @param cause the failure that ended it, or {@code null} if it was closed normally
+     */
+    default void onClosed(Exception cause) {
+    }
+}
@@ -0,0 +1,214 @@
+package org.com.battleship.net;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import org.com.battleship.exceptions.PeerProtocolException;
+import org.com.battleship.state.ShotResult;
+
+/**
+ * Wire format of a peer-to-peer game. Every message starts with its type, and each type has a fixed size,
+ * so messages need no length prefix and the stream never has to be parsed ahead.
+ * <pre>
+ * type     size  content
+ * HELLO       4  type, protocol version, 1 if the sender is the host, reserved
+ * COMMIT     33  type, SHA-256 commitment to the sender's fleet, see {@link FleetCommitment}
+ * SHOT        4  type, sequence number of the shot, cell, reserved
+ * RESULT      4  type, sequence number of the shot answered, cell, outcome | type of the ship sunk &lt;&lt; 2
+ * REVEAL     27  type, the 16-byte salt and the 10-byte fleet the commitment was made to
+ * BYE         4  type, reserved
+ * </pre>
+ * Cells are grid indices; outcomes are {@link ShotResult} ordinals. During play only SHOT and RESULT
+ * messages are exchanged, four bytes each; a fleet is only sent in the clear once the game is over.
+ */
+public final class PeerProtocol {
+
+    /** Protocol version sent in the HELLO message; peers with different versions refuse to play. */
+    public static final int VERSION = 1;
+
+    /** Type of the greeting that opens a connection. */
+    public static final byte HELLO = 1;
+
+    /** Type of the message committing to a fleet before play starts. */
+    public static final byte COMMIT = 2;
+
+    /** Type of a shot at the receiver's board. */
+    public static final byte SHOT = 3;
+
+    /** Type of the answer to a shot. */
+    public static final byte RESULT = 4;
+
+    /** Type of the message revealing the committed fleet once the game is over. */
+    public static final byte REVEAL = 5;
+
+    /** Type of the message announcing that the sender leaves the game. */
+    public static final byte BYE = 6;
+
+    /** Size of a fleet commitment in bytes. */
+    public static final int HASH = 32;
+
+    /** Size of the salt mixed into a fleet commitment in bytes. */
+    public static final int SALT = 16;
+
+    /** Size of an encoded fleet in bytes, see {@link FleetCommitment#encode}. */
+    public static final int FLEET = 10;
+
+    /** Size of each message type, indexed by type. */
+    private static final int[] SIZES = {0, 4, 1 + HASH, 4, 4, 1 + SALT + FLEET, 4};
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private PeerProtocol() {
+    }
+
+    /**
+     * Returns the size of a message type.
+     *
+     * @param type the message type
+     * @return the size of such a message in bytes, including the type
+     * @throws PeerProtocolException if the type is unknown
+     */
+    public static int size(int type) {
+        if (type <= 0 || type >= SIZES.length) {
+            throw new PeerProtocolException("Unknown message type " + type, null);
+        }
+        return SIZES[type];
+    }
+
+    /**
+     * Reads the next message from a stream.
+     *
+     * @param in the stream to read from
+     * @return the message, or {@code null} if the stream ended between messages
+     * @throws IOException           if the stream fails or ends inside a message
+     * @throws PeerProtocolException if the message type is unknown
+     */
+    public static byte[] read(DataInputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) return null;
+        byte[] message = new byte[size(type)];
+        message[0] = (byte) type;
+        try {
+            in.readFully(message, 1, message.length - 1);
+        } catch (EOFException e) {
+            throw new IOException("Connection ended inside a message of type " + type, e);
+        }
+        return message;
+    }
+
+    /**
+     * Creates a HELLO message.
+     *
+     * @param host whether the sender is the host
+     * @return the message
+     */
+    public static byte[] hello(boolean host) {
+        return new byte[]{HELLO, VERSION, (byte) (host ? 1 : 0), 0};
+    }
+
+    /**
+     * Creates a COMMIT message.
+     *
+     * @param hash the commitment to the sender's fleet
+     * @return the message
+     */
+    public static byte[] commit(byte[] hash) {
+        byte[] message = new byte[size(COMMIT)];
+        message[0] = COMMIT;
+        System.arraycopy(hash, 0, message, 1, HASH);
+        return message;
+    }
+
+    /**
+     * Creates a SHOT message.
+     *
+     * @param sequence the number of shots the sender fired before this one
+     * @param cell     the cell shot
+     * @return the message
+     */
+    public static byte[] shot(int sequence, int cell) {
+        return new byte[]{SHOT, (byte) sequence, (byte) cell, 0};
+    }
+
+    /**
+     * Creates a RESULT message.
+     *
+     * @param sequence the sequence number of the shot answered
+     * @param cell     the cell shot
+     * @param result   the outcome of the shot
+     * @param sunkType the type of the ship sunk, or 0 unless the outcome is {@link ShotResult#SUNK}
+     * @return the message
+     */
+    public static byte[] result(int sequence, int cell, ShotResult result, int sunkType) {
+        return new byte[]{RESULT, (byte) sequence, (byte) cell, (byte) (result.ordinal() | sunkType << 2)};
+    }
+
+    /**
+     * Creates a REVEAL message.
+     *
+     * @param salt  the salt of the sender's commitment
+     * @param fleet the sender's encoded fleet
+     * @return the message
+     */
+    public static byte[] reveal(byte[] salt, byte[] fleet) {
+        byte[] message = new byte[size(REVEAL)];
+        message[0] = REVEAL;
+        System.arraycopy(salt, 0, message, 1, SALT);
+        System.arraycopy(fleet, 0, message, 1 + SALT, FLEET);
+        return message;
+    }
+
+    /**
+     * Creates a BYE message.
+     *
+     * @return the message
+     */
+    public static byte[] bye() {
+        return new byte[]{BYE, 0, 0, 0};
+    }
+
+    /**
+     * Reads the sequence number of a SHOT or RESULT message.
+     *
+     * @param message the message
+     * @return the sequence number
+     */
+    public static int sequence(byte[] message) {
+        return message[1] & 0xFF;
+    }
+
+    /**
+     * Reads the cell of a SHOT or RESULT message.
+     *
+     * @param message the message
+     * @return the cell as a grid index
+     */
+    public static int cell(byte[] message) {
+        return message[2] & 0xFF;
+    }
+
+    /**
+     * Reads the outcome of a RESULT message.
+     *
+     * @param message the message
+     * @return the outcome
+     * @throws PeerProtocolException if the outcome is unknown
+     */
+    public static ShotResult result(byte[] message) {
+        int ordinal = message[3] & 0x03;
+        ShotResult[] results = ShotResult.values();
+        if (ordinal >= results.length) throw new PeerProtocolException("Unknown shot result " + ordinal, null);
+        return results[ordinal];
+    }
+
+    /**
+     * Reads the type of the ship sunk from a RESULT message.
+     *
+     * @param message the message
+     * @return the type of the ship sunk, or 0 if none was sunk
+     */
+    public static int sunkType(byte[] message) {
+        return (message[3] & 0xFF) >>> 2;
+    }
+}
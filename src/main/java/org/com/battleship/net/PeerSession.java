@@ -0,0 +1,483 @@
+package org.com.battleship.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.exceptions.PeerProtocolException;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+import org.com.battleship.state.ShotResult;
+
+/**
+ * One side of a game played against another instance over a direct TCP connection, without a server.
+ * <p>
+ * Each peer keeps its fleet to itself and answers the other's shots from its own {@link BoardState}
+ * as soon as they arrive, on the reader thread, so a shot's round trip never waits for the other
+ * player's screen. Only 4-byte SHOT and RESULT messages cross the wire during play (see
+ * {@link PeerProtocol}); outgoing messages are queued and a writer thread sends everything queued in
+ * one flush, with Nagle's algorithm off. Before the first shot both peers exchange a
+ * {@link FleetCommitment}; when the game is over both reveal their fleets, and each side replays the
+ * answers it was given against the revealed fleet, so a peer that lied about a shot is caught.
+ * </p>
+ * The host fires first; a hit lets the shooter fire again and a miss passes the turn, as against the
+ * computer. Events are reported to a {@link PeerListener} on the reader thread.
+ */
+public final class PeerSession implements AutoCloseable {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final Socket socket;           // Connection to the other peer
+    private final boolean host;            // Whether this side accepted the connection and fires first
+    private final PeerListener listener;   // Receives the session's events
+    private final FleetCommitment commitment; // Our fleet, salt and commitment
+    private final int fleetSize;           // Ships in a standard fleet; sinking that many wins
+    private final DataInputStream in;      // Buffered input from the other peer
+    private final OutputStream out;        // Buffered output to the other peer, written by the writer thread only
+    private final BlockingQueue<byte[]> outbox = new LinkedBlockingQueue<>(); // Messages waiting to be sent
+    private final Thread reader;           // Reads and answers the other peer's messages
+    private final Thread writer;           // Sends queued messages
+
+    // State below is guarded by this session's lock
+    private BoardState board;              // Our fleet as the other peer's shots left it
+    private boolean greeted;               // Whether the other peer's HELLO arrived
+    private byte[] remoteHash;             // The other peer's commitment, once received
+    private boolean myTurn;                // Whether this side fires next
+    private boolean over;                  // Whether one of the fleets has been sunk
+    private int sent;                      // Shots fired at the other peer
+    private int outstanding = -1;          // Cell of the shot awaiting its result, or -1
+    private int received;                  // Shots received from the other peer
+    private int sunk;                      // Ships the other peer reported sunk
+    private final int[] shotOrder = new int[Grid.CELLS];         // Our shots in the order they were fired
+    private final ShotResult[] reported = new ShotResult[Grid.CELLS]; // Answers to our shots, by cell
+    private final int[] reportedSunk = new int[Grid.CELLS];      // Types reported sunk, by cell
+    private FleetLayout revealed;          // The other peer's fleet, once revealed and verified
+
+    private volatile boolean closing;      // Whether close() was called
+    private volatile IOException failure;  // Failure of the writer thread, if any
+    private volatile long shotNanos;       // When the outstanding shot was queued
+    private volatile long roundTripNanos;  // Round trip of the last answered shot
+    private volatile long maxRoundTripNanos; // Longest round trip so far
+
+    /**
+     * Private constructor; sessions are created by {@link Builder#accept(ServerSocket)} and
+     * {@link Builder#connect(String, int)}.
+     */
+    private PeerSession(Builder builder, Socket socket, boolean host) throws IOException {
+        this.socket = socket;
+        this.host = host;
+        this.listener = builder.listener;
+        this.commitment = FleetCommitment.of(builder.layout, builder.random);
+        this.fleetSize = FleetLayout.standardFleet().length;
+        this.board = BoardState.of(builder.layout);
+        socket.setTcpNoDelay(true); // Messages are tiny and flushed deliberately; never wait to coalesce
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.reader = new Thread(this::read, "peer-reader");
+        this.writer = new Thread(this::write, "peer-writer");
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+
+        outbox.add(PeerProtocol.hello(host));
+        outbox.add(PeerProtocol.commit(commitment.getHash()));
+        writer.start();
+        reader.start();
+        logger.info("Peer session {} {}", host ? "hosting for" : "joined", socket.getRemoteSocketAddress());
+    }
+
+    /**
+     * Fires a shot at the other peer's fleet. The result is reported to
+     * {@link PeerListener#onShotResult(int, ShotResult, int, boolean)}.
+     *
+     * @param cell the grid index of the cell to shoot
+     * @return {@code true} if the shot was sent, {@code false} if it is not this side's turn,
+     *         a shot is still awaiting its result, the game is over or the cell was shot before
+     */
+    public synchronized boolean shoot(int cell) {
+        if (remoteHash == null || !myTurn || over || outstanding >= 0 || reported[cell] != null) return false;
+        outstanding = cell;
+        shotOrder[sent] = cell;
+        shotNanos = System.nanoTime();
+        outbox.add(PeerProtocol.shot(sent++, cell));
+        return true;
+    }
+
+    /**
+     * Checks whether this side accepted the connection and therefore fires first.
+     *
+     * @return {@code true} for the host
+     */
+    public boolean isHost() {
+        return host;
+    }
+
+    /**
+     * Checks whether this side may fire now.
+     *
+     * @return {@code true} if a call to {@link #shoot(int)} for a new cell would be accepted
+     */
+    public synchronized boolean isMyTurn() {
+        return remoteHash != null && myTurn && !over && outstanding < 0;
+    }
+
+    /**
+     * Returns the round trip of the last answered shot, from queueing it to reading its result.
+     *
+     * @return the round trip in nanoseconds, or 0 before the first result
+     */
+    public long getRoundTripNanos() {
+        return roundTripNanos;
+    }
+
+    /**
+     * Returns the longest round trip of any shot so far.
+     *
+     * @return the longest round trip in nanoseconds
+     */
+    public long getMaxRoundTripNanos() {
+        return maxRoundTripNanos;
+    }
+
+    /**
+     * Returns the other peer's fleet once it has been revealed and found consistent with its
+     * commitment and every answer it gave, i.e. once {@link PeerListener#onVerified} reported it honest.
+     *
+     * @return the other peer's fleet, or {@code null} until it has been verified
+     */
+    public synchronized FleetLayout getRevealedLayout() {
+        return revealed;
+    }
+
+    /**
+     * Leaves the game: sends a BYE to the other peer and closes the connection once it is out.
+     * {@link PeerListener#onClosed(Exception)} follows with {@code null}.
+     */
+    @Override
+    public void close() {
+        if (closing) return;
+        closing = true;
+        outbox.add(PeerProtocol.bye());
+    }
+
+    /**
+     * Reads and handles the other peer's messages until the connection ends, then reports how it ended.
+     */
+    private void read() {
+        Exception cause = null;
+        try {
+            byte[] message;
+            while ((message = PeerProtocol.read(in)) != null && message[0] != PeerProtocol.BYE) {
+                handle(message);
+            }
+        } catch (IOException | PeerProtocolException e) {
+            if (!closing) cause = failure != null ? failure : e; // Closing our own socket ends the read too
+        }
+        if (cause != null) logger.warn("Peer session with {} failed", socket.getRemoteSocketAddress(), cause);
+        closeSocket();
+        writer.interrupt();
+        listener.onClosed(cause);
+    }
+
+    /**
+     * Sends queued messages, everything queued at the time in a single flush, until a BYE has been sent.
+     */
+    private void write() {
+        List<byte[]> batch = new ArrayList<>();
+        try {
+            boolean bye = false;
+            while (!bye) {
+                batch.add(outbox.take());
+                outbox.drainTo(batch);
+                for (byte[] message : batch) {
+                    out.write(message);
+                    bye |= message[0] == PeerProtocol.BYE;
+                }
+                out.flush();
+                batch.clear();
+            }
+            closeSocket(); // Ends our reader, which reports the session closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // The reader has already ended the session
+        } catch (IOException e) {
+            failure = e;
+            closeSocket();
+        }
+    }
+
+    /**
+     * Dispatches one message from the other peer.
+     *
+     * @throws PeerProtocolException if the message is not allowed at this point of the game
+     */
+    private void handle(byte[] message) {
+        if (!greeted && message[0] != PeerProtocol.HELLO) {
+            throw new PeerProtocolException("Expected HELLO but got message type " + message[0], null);
+        }
+        switch (message[0]) {
+            case PeerProtocol.HELLO -> greet(message);
+            case PeerProtocol.COMMIT -> commit(message);
+            case PeerProtocol.SHOT -> incomingShot(message);
+            case PeerProtocol.RESULT -> shotResult(message);
+            case PeerProtocol.REVEAL -> reveal(message);
+            default -> throw new PeerProtocolException("Unexpected message type " + message[0], null);
+        }
+    }
+
+    /**
+     * Checks the other peer's HELLO: same protocol version, opposite role.
+     */
+    private synchronized void greet(byte[] message) {
+        if (greeted) throw new PeerProtocolException("Duplicate HELLO", null);
+        if (message[1] != PeerProtocol.VERSION) {
+            throw new PeerProtocolException("Peer speaks protocol version " + message[1] + ", not "
+                    + PeerProtocol.VERSION, null);
+        }
+        if ((message[2] == 1) == host) throw new PeerProtocolException("Both peers claim the same role", null);
+        greeted = true;
+    }
+
+    /**
+     * Stores the other peer's commitment; both fleets are now fixed and play begins.
+     */
+    private void commit(byte[] message) {
+        boolean first;
+        synchronized (this) {
+            if (remoteHash != null) throw new PeerProtocolException("Duplicate COMMIT", null);
+            remoteHash = new byte[PeerProtocol.HASH];
+            System.arraycopy(message, 1, remoteHash, 0, PeerProtocol.HASH);
+            myTurn = host;
+            first = myTurn;
+        }
+        listener.onReady(first);
+    }
+
+    /**
+     * Answers a shot at our fleet straight away and reveals our fleet if it was the last ship.
+     */
+    private void incomingShot(byte[] message) {
+        int cell = PeerProtocol.cell(message);
+        ShotResult result;
+        boolean turn;
+        boolean lost;
+        synchronized (this) {
+            if (remoteHash == null || myTurn || over) throw new PeerProtocolException("Shot out of turn", null);
+            if (PeerProtocol.sequence(message) != (received & 0xFF)) {
+                throw new PeerProtocolException("Shot " + PeerProtocol.sequence(message) + " out of sequence", null);
+            }
+            if (cell >= Grid.CELLS || board.isShot(cell)) {
+                throw new PeerProtocolException("Shot at invalid or already shot cell " + cell, null);
+            }
+            result = board.resultOf(cell); // Must be asked before the shot is applied
+            int sunkType = result == ShotResult.SUNK ? board.getLayout().type(board.getLayout().shipAt(cell)) : 0;
+            board = board.shoot(cell);
+            outbox.add(PeerProtocol.result(received++, cell, result, sunkType));
+            myTurn = !result.isHit();
+            lost = board.shipsRemaining() == 0;
+            if (lost) {
+                over = true;
+                outbox.add(PeerProtocol.reveal(commitment.getSalt(), FleetCommitment.encode(commitment.getLayout())));
+            }
+            turn = myTurn && !over;
+        }
+        listener.onIncomingShot(cell, result, turn);
+        if (lost) listener.onGameOver(false);
+    }
+
+    /**
+     * Records the answer to our outstanding shot and reveals our fleet if it sank the last ship.
+     */
+    private void shotResult(byte[] message) {
+        int cell = PeerProtocol.cell(message);
+        ShotResult result = PeerProtocol.result(message);
+        int sunkType = PeerProtocol.sunkType(message);
+        boolean turn;
+        boolean won;
+        boolean exhausted;
+        synchronized (this) {
+            if (outstanding < 0 || cell != outstanding || PeerProtocol.sequence(message) != ((sent - 1) & 0xFF)) {
+                throw new PeerProtocolException("Result for a shot that was not fired at cell " + cell, null);
+            }
+            long roundTrip = System.nanoTime() - shotNanos;
+            roundTripNanos = roundTrip;
+            maxRoundTripNanos = Math.max(maxRoundTripNanos, roundTrip);
+            outstanding = -1;
+            reported[cell] = result;
+            reportedSunk[cell] = sunkType;
+            if (result == ShotResult.SUNK) sunk++;
+            myTurn = result.isHit();
+            won = sunk == fleetSize;
+            exhausted = !won && sent == Grid.CELLS; // Every cell shot, yet the fleet still afloat
+            if (won) {
+                over = true;
+                outbox.add(PeerProtocol.reveal(commitment.getSalt(), FleetCommitment.encode(commitment.getLayout())));
+            }
+            over |= exhausted;
+            turn = myTurn && !over;
+        }
+        listener.onShotResult(cell, result, sunkType, turn);
+        if (won) listener.onGameOver(true);
+        if (exhausted) {
+            listener.onVerified(false, "Every cell was shot but only " + sunk + " ships were reported sunk");
+        }
+    }
+
+    /**
+     * Checks the other peer's revealed fleet against its commitment and against every answer it gave.
+     */
+    private void reveal(byte[] message) {
+        String inconsistency;
+        int shots;
+        synchronized (this) {
+            if (!over) throw new PeerProtocolException("Fleet revealed before the game is over", null);
+            shots = sent;
+            inconsistency = verify(message);
+        }
+        listener.onVerified(inconsistency == null, inconsistency != null ? inconsistency
+                : "Fleet matches its commitment and all " + shots + " answers");
+    }
+
+    /**
+     * Replays our shots against a revealed fleet.
+     *
+     * @return a description of the first inconsistency, or {@code null} if there is none
+     */
+    private String verify(byte[] message) {
+        if (!FleetCommitment.matches(remoteHash, message, 1)) return "Revealed fleet does not match its commitment";
+        FleetLayout layout;
+        try {
+            layout = FleetCommitment.decode(message, 1 + PeerProtocol.SALT);
+        } catch (PeerProtocolException e) {
+            return e.getMessage();
+        }
+        BoardState replay = BoardState.of(layout);
+        for (int shot = 0; shot < sent; shot++) {
+            int cell = shotOrder[shot];
+            ShotResult actual = replay.resultOf(cell);
+            int actualSunk = actual == ShotResult.SUNK ? layout.type(layout.shipAt(cell)) : 0;
+            replay = replay.shoot(cell);
+            if (actual != reported[cell] || actualSunk != reportedSunk[cell]) {
+                return "Shot at (" + Grid.x(cell) + ", " + Grid.y(cell) + ") was reported " + reported[cell]
+                        + " but was " + actual;
+            }
+        }
+        revealed = layout;
+        return null;
+    }
+
+    /**
+     * Closes the socket, ignoring failures; the connection is gone either way.
+     */
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Closing peer socket failed", e);
+        }
+    }
+
+    /**
+     * Builder class for constructing {@link PeerSession} instances.
+     */
+    public static class Builder {
+        private FleetLayout layout;            // Our fleet
+        private PeerListener listener = new PeerListener() { }; // Ignores every event by default
+        private SecureRandom random = new SecureRandom(); // Source of the commitment's salt
+        private int connectTimeout = 5000;     // Milliseconds to wait for the host when joining
+
+        /**
+         * Sets the fleet this side plays with; it is committed to before the first shot.
+         *
+         * @param layout the fleet layout
+         * @return the Builder instance for chaining
+         */
+        public Builder setLayout(FleetLayout layout) {
+            this.layout = layout;
+            return this;
+        }
+
+        /**
+         * Sets the listener receiving the session's events.
+         *
+         * @param listener the listener
+         * @return the Builder instance for chaining
+         */
+        public Builder setListener(PeerListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the source of the random salt mixed into the fleet commitment.
+         *
+         * @param random the random number generator
+         * @return the Builder instance for chaining
+         */
+        public Builder setRandom(SecureRandom random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * Sets how long {@link #connect(String, int)} waits for the host.
+         *
+         * @param connectTimeout the timeout in milliseconds
+         * @return the Builder instance for chaining
+         */
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Waits for a peer to join and starts the session as its host. The server socket stays open.
+         *
+         * @param server the server socket to accept the peer on
+         * @return the running session
+         * @throws IOException if no connection can be accepted
+         */
+        public PeerSession accept(ServerSocket server) throws IOException {
+            requireLayout();
+            return new PeerSession(this, server.accept(), true);
+        }
+
+        /**
+         * Joins a peer hosting a game.
+         *
+         * @param address the host name or address of the peer
+         * @param port    the port the peer accepts connections on
+         * @return the running session
+         * @throws IOException if the peer cannot be reached
+         */
+        public PeerSession connect(String address, int port) throws IOException {
+            requireLayout();
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(address, port), connectTimeout);
+                return new PeerSession(this, socket, false);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Checks that a fleet has been set.
+         */
+        private void requireLayout() {
+            if (layout == null) throw new IllegalStateException("A fleet layout is required");
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.com.battleship.persist;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.GameState;
+import org.com.battleship.state.Grid;
+
+/**
+ * Binary format of a {@link MatchStore} file: a header followed by one fixed-size slot per match.
+ * <pre>
+ * header (64 bytes)
+ *      0   4  magic "BSMS"
+ *      4   4  format version
+ *      8   4  slot size
+ *     12   4  number of slots
+ *     16  48  reserved
+ * slot (512 bytes): two copies of the match, written alternately
+ * copy (256 bytes)
+ *      0   4  CRC-32C of bytes 4..255
+ *      4   8  version: the number of saves to the slot; odd versions go to the second copy
+ *     12   8  match id, 0 if the slot is free
+ *     20   1  flags: {@link #ENEMY_TURN}, {@link #SALVO}
+ *     21   1  difficulty, as a {@link Difficulty} ordinal
+ *     22   1  number of entries in the player's shot order
+ *     23   1  reserved
+ *     24  10  the player's fleet as (type, origin | vertical &lt;&lt; 7) byte pairs, as in game records
+ *     34  10  the enemy's fleet
+ *     44  16  the player's board: (low, high) mask of the cells shot, see {@link Grid#lo(int)}
+ *     60  16  the enemy's board
+ *     76   5  health of each of the player's ships
+ *     81   5  health of each of the enemy's ships
+ *     86   2  reserved
+ *     88 100  the enemy board's cells in the order the player shot them
+ *    188  68  reserved
+ * </pre>
+ * All values are little-endian. A save overwrites the older copy in place, leaving the newer one
+ * untouched, so a write torn by a crash can only damage a copy whose checksum then fails; the other
+ * copy still holds the match as it was one save earlier. Ship health follows from the fleets and the
+ * shot masks and is stored so a recovered match can be checked against it.
+ * <p>
+ * Only the constants that locate a slot and its copies are public, for tools that inspect or damage
+ * store files; reading and writing matches goes through {@link MatchStore}.
+ */
+public final class MatchSlot {
+
+    /** Size of the file header in bytes. */
+    public static final int HEADER = 64;
+
+    /** Size of one copy of a match in bytes. */
+    public static final int COPY = 256;
+
+    /** Size of a slot in bytes. */
+    public static final int SIZE = 2 * COPY;
+
+    /** Offset of the version in a copy. */
+    public static final int VERSION = 4;
+
+    /** Flag set when the computer is to move. */
+    static final int ENEMY_TURN = 1;
+
+    /** Flag set when the salvo variant is played. */
+    static final int SALVO = 2;
+
+    static final int MAGIC = 0x534D5342;  // "BSMS" in little-endian byte order
+    static final int FORMAT = 1;
+    static final int SLOTS = 12;          // Offset of the number of slots in the header
+    static final int ID = 12;             // Offset of the match id in a copy
+    private static final int FLAGS = 20;
+    private static final int DIFFICULTY = 21;
+    private static final int SHOT_COUNT = 22;
+    private static final int FLEETS = 24;
+    private static final int MASKS = 44;
+    private static final int HEALTH = 76;
+    private static final int SHOTS = 88;
+    private static final int SHIPS = 5;
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private MatchSlot() {
+    }
+
+    /**
+     * Returns the offset of one copy of a slot in the file.
+     *
+     * @param slot    the slot
+     * @param version the version to be written to, or read from, the copy
+     * @return the offset of the copy
+     */
+    static int offset(int slot, long version) {
+        return HEADER + slot * SIZE + (int) (version & 1) * COPY;
+    }
+
+    /**
+     * Writes a match into a copy, checksum last.
+     *
+     * @param buffer     the little-endian buffer holding the store
+     * @param checksum   computes the checksum of copies in this buffer
+     * @param copy       the offset of the copy
+     * @param version    the copy's version
+     * @param id         the match id, or 0 to mark the slot free
+     * @param state      the position, or {@code null} for a free slot
+     * @param flags      the copy's flags
+     * @param difficulty the difficulty, or {@code null} for a free slot
+     * @param shotOrder  the player's shot order
+     * @param shots      the number of entries in the shot order
+     */
+    static void encode(ByteBuffer buffer, Checksum checksum, int copy, long version, long id, GameState state,
+                       int flags, Difficulty difficulty, int[] shotOrder, int shots) {
+        buffer.putLong(copy + VERSION, version);
+        buffer.putLong(copy + ID, id);
+        buffer.put(copy + FLAGS, (byte) flags);
+        buffer.put(copy + DIFFICULTY, (byte) (difficulty != null ? difficulty.ordinal() : 0));
+        buffer.put(copy + SHOT_COUNT, (byte) shots);
+        if (state != null) {
+            encodeBoard(buffer, copy, 0, state.player());
+            encodeBoard(buffer, copy, 1, state.enemy());
+        }
+        for (int i = 0; i < Grid.CELLS; i++) {
+            buffer.put(copy + SHOTS + i, (byte) (i < shots ? shotOrder[i] : 0));
+        }
+        buffer.putInt(copy, checksum.of(copy));
+    }
+
+    /**
+     * Checks whether a copy holds a complete save.
+     *
+     * @param buffer   the little-endian buffer holding the store
+     * @param checksum computes the checksum of copies in this buffer
+     * @param copy     the offset of the copy
+     * @return {@code true} if the copy's checksum matches its content
+     */
+    static boolean isValid(ByteBuffer buffer, Checksum checksum, int copy) {
+        return buffer.getInt(copy) == checksum.of(copy);
+    }
+
+    /**
+     * Checks whether a copy has never been written.
+     *
+     * @param buffer the little-endian buffer holding the store
+     * @param copy   the offset of the copy
+     * @return {@code true} if every byte of the copy is zero
+     */
+    static boolean isBlank(ByteBuffer buffer, int copy) {
+        for (int i = 0; i < COPY; i += Long.BYTES) {
+            if (buffer.getLong(copy + i) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the match in a valid copy.
+     *
+     * @param buffer the little-endian buffer holding the store
+     * @param copy   the offset of the copy
+     * @param slot   the slot the copy belongs to
+     * @return the match
+     * @throws IllegalArgumentException if the copy does not describe a legal match
+     */
+    static StoredMatch decode(ByteBuffer buffer, int copy, int slot) {
+        int flags = buffer.get(copy + FLAGS);
+        BoardState player = decodeBoard(buffer, copy, 0);
+        BoardState enemy = decodeBoard(buffer, copy, 1);
+        int shots = buffer.get(copy + SHOT_COUNT) & 0xFF;
+        if (shots > Grid.CELLS) throw new IllegalArgumentException("Shot order of " + shots + " cells");
+        int[] shotOrder = new int[shots];
+        for (int i = 0; i < shots; i++) {
+            shotOrder[i] = buffer.get(copy + SHOTS + i) & 0xFF;
+        }
+        return new StoredMatch(slot, buffer.getLong(copy + ID), buffer.getLong(copy + VERSION),
+                GameState.of(player, enemy, (flags & ENEMY_TURN) != 0),
+                Difficulty.values()[buffer.get(copy + DIFFICULTY)], (flags & SALVO) != 0, shotOrder);
+    }
+
+    /**
+     * Writes one board's fleet, shot mask and ship health.
+     */
+    private static void encodeBoard(ByteBuffer buffer, int copy, int side, BoardState board) {
+        FleetLayout layout = board.getLayout();
+        for (int ship = 0; ship < SHIPS; ship++) {
+            boolean present = ship < layout.size();
+            int pair = copy + FLEETS + side * 2 * SHIPS + 2 * ship;
+            buffer.put(pair, (byte) (present ? layout.type(ship) : 0));
+            buffer.put(pair + 1, (byte) (present ? layout.origin(ship) | (layout.isVertical(ship) ? 0x80 : 0) : 0));
+            buffer.put(copy + HEALTH + side * SHIPS + ship, (byte) (present ? board.health(ship) : 0));
+        }
+        buffer.putLong(copy + MASKS + side * 2 * Long.BYTES, board.shotLo());
+        buffer.putLong(copy + MASKS + side * 2 * Long.BYTES + Long.BYTES, board.shotHi());
+    }
+
+    /**
+     * Reads one board and checks its stored ship health against the one its shots imply.
+     */
+    private static BoardState decodeBoard(ByteBuffer buffer, int copy, int side) {
+        FleetLayout.Builder builder = new FleetLayout.Builder();
+        for (int ship = 0; ship < SHIPS; ship++) {
+            int pair = copy + FLEETS + side * 2 * SHIPS + 2 * ship;
+            int type = buffer.get(pair);
+            if (type == 0) continue; // Unused slot
+            int origin = buffer.get(pair + 1) & 0x7F;
+            if (origin >= Grid.CELLS) throw new IllegalArgumentException("Ship origin " + origin + " is off the board");
+            builder.ship(type, Grid.x(origin), Grid.y(origin), (buffer.get(pair + 1) & 0x80) != 0);
+        }
+        BoardState board = BoardState.of(builder.build(), buffer.getLong(copy + MASKS + side * 2 * Long.BYTES),
+                buffer.getLong(copy + MASKS + side * 2 * Long.BYTES + Long.BYTES));
+        for (int ship = 0; ship < board.getLayout().size(); ship++) {
+            if (board.health(ship) != buffer.get(copy + HEALTH + side * SHIPS + ship)) {
+                throw new IllegalArgumentException("Stored health of ship " + ship + " does not match its hits");
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Computes the CRC-32C of copies in one buffer without allocating: the CRC and the view of the
+     * buffer it reads through are reused. Not thread-safe; use one per thread.
+     */
+    static final class Checksum {
+        private final CRC32C crc = new CRC32C(); // Reset before every copy
+        private final ByteBuffer view;           // The buffer, narrowed to the copy being checked
+
+        /**
+         * Creates a checksum over a buffer.
+         *
+         * @param buffer the buffer holding the store
+         */
+        Checksum(ByteBuffer buffer) {
+            this.view = buffer.duplicate();
+        }
+
+        /**
+         * Computes the CRC-32C of everything in a copy but the checksum itself.
+         *
+         * @param copy the offset of the copy
+         * @return the checksum
+         */
+        int of(int copy) {
+            crc.reset();
+            view.limit(copy + COPY).position(copy + VERSION);
+            crc.update(view);
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package org.com.battleship.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.exceptions.MatchStoreException;
+import org.com.battleship.state.GameState;
+
+/**
+ * Crash-safe store of in-flight matches in a memory-mapped file, one fixed-size slot per match
+ * (see {@link MatchSlot} for the format).
+ * <p>
+ * A save writes the whole match in place, into whichever of the slot's two copies is older, and costs
+ * a few hundred bytes of memory writes: no system call and no log to replay. Each saving thread reuses
+ * its own checksum, so saves allocate nothing after a thread's first. Once
+ * written, a save survives the process being killed, because the operating system owns the mapped
+ * pages; {@link Builder#setSync(boolean)} also forces every save to the device, to survive power loss.
+ * A save torn by a crash fails its checksum and the slot falls back to its other copy.
+ * </p>
+ * Opening a store recovers every match that was in flight when it was last used, by reading each
+ * slot's newest valid copy; see {@link #recovered()}. A store file is locked while it is open, so it can
+ * only be open once at a time, in this process or any other. Different slots may be saved from
+ * different threads at once; a single slot must only be saved from one thread at a time.
+ */
+public final class MatchStore implements AutoCloseable {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final FileChannel channel;     // The store file
+    private final FileLock lock;           // Held while the store is open
+    private final MappedByteBuffer buffer; // The whole file, mapped read-write
+    private final ThreadLocal<MatchSlot.Checksum> checksums; // Each saving thread's reusable checksum
+    private final int slots;               // Number of slots in the file
+    private final boolean sync;            // Whether every save is forced to the device
+    private final long[] versions;         // Version of each slot's newest copy
+    private final long[] ids;              // Id of the match in each slot, 0 if free
+    private final List<StoredMatch> recovered = new ArrayList<>(); // Matches in flight when the store was opened
+    private final long recoverNanos;       // Time taken to recover them
+    private int tornCopies;                // Copies found with a failed checksum
+    private long nextId = 1;               // Id of the next match claimed
+
+    /**
+     * Private constructor; stores are opened with {@link Builder#build()}.
+     */
+    private MatchStore(Builder builder) throws IOException {
+        this.channel = FileChannel.open(builder.file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            this.lock = lock(builder.file);
+            boolean fresh = channel.size() == 0;
+            int count = fresh ? builder.slots : readSlots();
+            this.slots = count;
+            this.sync = builder.sync;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, MatchSlot.HEADER + (long) count * MatchSlot.SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            this.checksums = ThreadLocal.withInitial(() -> new MatchSlot.Checksum(buffer));
+            if (fresh) {
+                buffer.putInt(0, MatchSlot.MAGIC).putInt(4, MatchSlot.FORMAT).putInt(8, MatchSlot.SIZE)
+                        .putInt(MatchSlot.SLOTS, count);
+                buffer.force(0, MatchSlot.HEADER);
+            }
+            this.versions = new long[count];
+            this.ids = new long[count];
+            long start = System.nanoTime();
+            for (int slot = 0; slot < count; slot++) {
+                recover(slot);
+            }
+            this.recoverNanos = System.nanoTime() - start;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (!recovered.isEmpty() || tornCopies > 0) {
+            logger.info("Recovered {} matches from {} in {} us ({} torn copies)", recovered.size(), builder.file,
+                    recoverNanos / 1000, tornCopies);
+        }
+    }
+
+    /**
+     * Returns the matches that were in flight when the store was last used, as of their last complete save.
+     * Their slots stay claimed; keep saving to them to continue the matches, or release them.
+     *
+     * @return the recovered matches, in slot order
+     */
+    public List<StoredMatch> recovered() {
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Returns how long opening the store spent recovering matches.
+     *
+     * @return the recovery time in nanoseconds
+     */
+    public long getRecoverNanos() {
+        return recoverNanos;
+    }
+
+    /**
+     * Returns the number of copies found torn when the store was opened; each cost its slot one save.
+     *
+     * @return the number of torn copies
+     */
+    public int getTornCopies() {
+        return tornCopies;
+    }
+
+    /**
+     * Returns the number of slots, i.e. the most matches the store can hold.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+        return slots;
+    }
+
+    /**
+     * Returns the id of the match in a slot.
+     *
+     * @param slot the slot
+     * @return the match id, or 0 if the slot is free
+     */
+    public synchronized long getId(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Returns the number of saves to a slot so far, which is also the version of its newest copy.
+     * Only up to date on the thread that saves to the slot.
+     *
+     * @param slot the slot
+     * @return the slot's version
+     */
+    public long getVersion(int slot) {
+        return versions[slot];
+    }
+
+    /**
+     * Claims a free slot for a new match. Nothing is written until the match is first saved.
+     *
+     * @return the slot
+     * @throws MatchStoreException if every slot is taken
+     */
+    public synchronized int claim() {
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] == 0) {
+                ids[slot] = nextId++;
+                return slot;
+            }
+        }
+        throw new MatchStoreException("All " + slots + " match slots are taken", null);
+    }
+
+    /**
+     * Saves a match to its slot, overwriting the slot's older copy.
+     *
+     * @param slot       the match's slot, as returned by {@link #claim()} or found by recovery
+     * @param state      the position
+     * @param difficulty the difficulty the computer plays at
+     * @param salvo      whether the salvo variant is played
+     * @param shotOrder  the cells of the enemy board in the order the player shot them
+     * @param shots      the number of entries in the shot order
+     */
+    public void save(int slot, GameState state, Difficulty difficulty, boolean salvo, int[] shotOrder, int shots) {
+        if (ids[slot] == 0) throw new IllegalStateException("Slot " + slot + " has not been claimed");
+        int flags = (state.isEnemyTurn() ? MatchSlot.ENEMY_TURN : 0) | (salvo ? MatchSlot.SALVO : 0);
+        write(slot, ids[slot], state, flags, difficulty, shotOrder, shots);
+    }
+
+    /**
+     * Marks a slot free, e.g. once its match is over, so that it is no longer recovered.
+     *
+     * @param slot the slot
+     */
+    public synchronized void release(int slot) {
+        if (ids[slot] == 0) return;
+        write(slot, 0, null, 0, null, null, 0);
+        ids[slot] = 0;
+    }
+
+    /**
+     * Forces all saves to the device, unlocks the file and closes it. The mapping stays valid until it
+     * is garbage collected.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        lock.release();
+        channel.close();
+    }
+
+    /**
+     * Writes a new version of a slot into its older copy.
+     */
+    private void write(int slot, long id, GameState state, int flags, Difficulty difficulty, int[] shotOrder,
+                       int shots) {
+        long version = versions[slot] + 1;
+        int copy = MatchSlot.offset(slot, version);
+        MatchSlot.encode(buffer, checksums.get(), copy, version, id, state, flags, difficulty, shotOrder, shots);
+        versions[slot] = version;
+        if (sync) buffer.force(copy, MatchSlot.COPY);
+    }
+
+    /**
+     * Finds the newest valid copy of a slot and recovers its match, if it holds one.
+     */
+    private void recover(int slot) {
+        MatchSlot.Checksum checksum = checksums.get();
+        StoredMatch newest = null;
+        for (int half = 0; half < 2; half++) {
+            int copy = MatchSlot.offset(slot, half);
+            if (MatchSlot.isBlank(buffer, copy)) continue;
+            if (!MatchSlot.isValid(buffer, checksum, copy)) {
+                tornCopies++;
+                continue;
+            }
+            long version = buffer.getLong(copy + MatchSlot.VERSION);
+            versions[slot] = Math.max(versions[slot], version);
+            if (newest != null && newest.version() > version) continue;
+            long id = buffer.getLong(copy + MatchSlot.ID);
+            try {
+                newest = id == 0 ? new StoredMatch(slot, 0, version, null, null, false, null)
+                        : MatchSlot.decode(buffer, copy, slot);
+            } catch (RuntimeException e) {
+                logger.warn("Slot {} holds a checksummed but illegal match; ignoring it", slot, e);
+            }
+        }
+        if (newest == null || newest.id() == 0) return;
+        ids[slot] = newest.id();
+        nextId = Math.max(nextId, newest.id() + 1);
+        recovered.add(newest);
+    }
+
+    /**
+     * Locks the whole store file, so that no other store can open it while this one is open.
+     *
+     * @return the lock
+     * @throws MatchStoreException if the file is already open as a store
+     */
+    private FileLock lock(Path file) throws IOException {
+        FileLock held;
+        try {
+            held = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            held = null; // Locked by this process
+        }
+        if (held == null) throw new MatchStoreException("Match store " + file + " is already open", null);
+        return held;
+    }
+
+    /**
+     * Reads and checks the header of an existing store.
+     *
+     * @return the number of slots in the file
+     * @throws MatchStoreException if the file is not a match store of this format
+     */
+    private int readSlots() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(MatchSlot.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        if (header.getInt(0) != MatchSlot.MAGIC || header.getInt(4) != MatchSlot.FORMAT
+                || header.getInt(8) != MatchSlot.SIZE) {
+            throw new MatchStoreException("Not a match store of format " + MatchSlot.FORMAT, null);
+        }
+        int count = header.getInt(MatchSlot.SLOTS);
+        if (count < 1 || channel.size() < MatchSlot.HEADER + (long) count * MatchSlot.SIZE) {
+            throw new MatchStoreException("Match store is truncated", null);
+        }
+        return count;
+    }
+
+    /**
+     * Builder class for constructing {@link MatchStore} instances.
+     */
+    public static class Builder {
+        private Path file;
+        private int slots = 64;
+        private boolean sync;
+
+        /**
+         * Sets the store file. It is created if it does not exist.
+         *
+         * @param file the store file
+         * @return the Builder instance for chaining
+         */
+        public Builder setFile(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Sets the number of slots of a new store. An existing store keeps its own. Defaults to 64.
+         *
+         * @param slots the number of slots
+         * @return the Builder instance for chaining
+         */
+        public Builder setSlots(int slots) {
+            this.slots = slots;
+            return this;
+        }
+
+        /**
+         * Sets whether every save is forced to the device, so matches also survive power loss at the
+         * cost of a write to the device per save. Defaults to {@code false}: saves survive the process
+         * being killed, but the operating system decides when they reach the device.
+         *
+         * @param sync whether to force every save
+         * @return the Builder instance for chaining
+         */
+        public Builder setSync(boolean sync) {
+            this.sync = sync;
+            return this;
+        }
+
+        /**
+         * Opens the store, creating it if needed, and recovers the matches in flight.
+         *
+         * @return the open store
+         * @throws IOException         if the file cannot be opened or mapped
+         * @throws MatchStoreException if the file is not a match store or is already open
+         */
+        public MatchStore build() throws IOException {
+            if (file == null) throw new IllegalStateException("A store file is required");
+            if (slots < 1) throw new IllegalArgumentException("A store needs at least one slot");
+            return new MatchStore(this);
+        }
+    }
+}
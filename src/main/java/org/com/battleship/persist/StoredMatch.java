@@ -0,0 +1,19 @@
+package org.com.battleship.persist;
+
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.state.GameState;
+
+/**
+ * A match as it was last saved to a {@link MatchStore}, recovered after a restart.
+ *
+ * @param slot       the slot the match occupies; keep saving to it to continue the match
+ * @param id         the match's identifier, unique within the store
+ * @param version    the number of saves to the slot, the last of which this is
+ * @param state      the position: both boards, their fleets and whose turn it is
+ * @param difficulty the difficulty the computer was playing at
+ * @param salvo      whether the salvo variant was being played
+ * @param shotOrder  the cells of the enemy board in the order the player shot them
+ */
+public record StoredMatch(int slot, long id, long version, GameState state, Difficulty difficulty, boolean salvo,
+                          int[] shotOrder) {
+}
@@ -0,0 +1,178 @@
+package org.com.battleship.profile;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.state.Grid;
+
+/**
+ * Remembers how a player shoots at the enemy board across sessions.
+ * For every cell the profile keeps the summed <em>lateness</em> of the player's shots: the
+ * position of the shot in the game's shot order, scaled to 0 for the first shot and 1 for the
+ * last, with cells that were never shot counting as 1. Divided by the number of games this gives
+ * how late the player typically reaches a cell.
+ * <p>
+ * The profile is a small memory-mapped file, so loading it and folding in a game only touch a
+ * few hundred bytes. All file work runs on a single background thread; the JavaFX Application
+ * Thread only ever reads an immutable copy of the averages through {@link #lateness()}.
+ */
+public final class ShotProfile {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final int MAGIC = 0x42534850;   // "BSHP"
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;           // magic, version, games, reserved
+    private static final int SIZE = HEADER + Grid.CELLS * Double.BYTES;
+
+    /** Single background thread for all profile file work. */
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shot-profile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;          // The profile file
+    private MappedByteBuffer buffer;  // The mapped file, touched only on the background thread
+    private volatile Averages averages; // Latest averages, published for the JavaFX Application Thread
+
+    /**
+     * Creates a profile backed by a file and starts mapping it in the background.
+     *
+     * @param file the profile file, created if it does not exist
+     */
+    private ShotProfile(Path file) {
+        this.file = file;
+        IO.execute(this::load);
+    }
+
+    /**
+     * Opens the profile of a player. The directory defaults to {@code ~/.battleship/profiles}
+     * and can be changed with the {@code battleship.profileDir} system property.
+     * Returns immediately; the averages become available once the file has been mapped.
+     *
+     * @param player the player's name
+     * @return the player's profile
+     */
+    public static ShotProfile open(String player) {
+        String dir = System.getProperty("battleship.profileDir",
+                Path.of(System.getProperty("user.home"), ".battleship", "profiles").toString());
+        String name = player.replaceAll("[^A-Za-z0-9._-]", "_");  // Keep the file name portable
+        return new ShotProfile(Path.of(dir, name + ".heat"));
+    }
+
+    /**
+     * Opens the profile of the user running the game.
+     *
+     * @return the current user's profile
+     */
+    public static ShotProfile forCurrentUser() {
+        return open(System.getProperty("user.name", "player"));
+    }
+
+    /**
+     * Returns the number of games recorded in the profile.
+     *
+     * @return the number of games, or 0 while the profile is still loading or could not be read
+     */
+    public int games() {
+        Averages current = averages;
+        return current == null ? 0 : current.games;
+    }
+
+    /**
+     * Returns how late the player typically shoots each cell, from 0 (always first) to 1 (never reached).
+     * Never blocks; the returned array is shared and must not be modified.
+     *
+     * @return the average lateness by cell index, or {@code null} if no game has been recorded yet
+     */
+    public double[] lateness() {
+        Averages current = averages;
+        return current == null || current.games == 0 ? null : current.lateness;
+    }
+
+    /**
+     * Folds a finished game into the profile in the background.
+     *
+     * @param order the cell indices shot by the player, in the order they were shot
+     * @param shots the number of valid entries in {@code order}
+     */
+    public void record(int[] order, int shots) {
+        if (shots == 0) return;
+        int[] copy = Arrays.copyOf(order, shots);  // The caller keeps reusing its array
+        IO.execute(() -> update(copy));
+    }
+
+    /**
+     * Maps the profile file, creating and initialising it if needed. Runs on the background thread.
+     */
+    private void load() {
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                boolean fresh = channel.size() < SIZE;
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);  // Stays valid after closing
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                if (fresh || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    for (int i = 0; i < SIZE; i += Integer.BYTES) buffer.putInt(i, 0);
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, VERSION);
+                }
+            }
+            publish();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Shot profile {} is unavailable; enemy fleets will be placed at random", file, e);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Adds the lateness of every cell in a game to the mapped sums. Runs on the background thread.
+     *
+     * @param order the cell indices shot by the player, in order
+     */
+    private void update(int[] order) {
+        if (buffer == null) return;
+        double[] lateness = new double[Grid.CELLS];
+        Arrays.fill(lateness, 1.0);  // Cells never reached are as late as can be
+        double scale = order.length > 1 ? order.length - 1 : 1;
+        for (int rank = 0; rank < order.length; rank++) {
+            lateness[order[rank]] = rank / scale;
+        }
+        for (int cell = 0; cell < Grid.CELLS; cell++) {
+            int offset = HEADER + cell * Double.BYTES;
+            buffer.putDouble(offset, buffer.getDouble(offset) + lateness[cell]);
+        }
+        buffer.putInt(8, buffer.getInt(8) + 1);
+        publish();
+    }
+
+    /**
+     * Recomputes the averages from the mapped sums and publishes them. Runs on the background thread.
+     */
+    private void publish() {
+        int games = buffer.getInt(8);
+        double[] lateness = new double[Grid.CELLS];
+        for (int cell = 0; cell < Grid.CELLS && games > 0; cell++) {
+            lateness[cell] = buffer.getDouble(HEADER + cell * Double.BYTES) / games;
+        }
+        averages = new Averages(games, lateness);
+    }
+
+    /**
+     * An immutable copy of the profile's averages.
+     */
+    private record Averages(int games, double[] lateness) {
+    }
+}
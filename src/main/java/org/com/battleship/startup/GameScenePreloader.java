@@ -0,0 +1,93 @@
+package org.com.battleship.startup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import javafx.stage.Stage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.controller.GameController;
+
+/**
+ * Builds the game scene in the background while the main menu is on screen, so pressing a key
+ * on the menu only has to swap scenes. JavaFX nodes may be created off the JavaFX Application
+ * Thread as long as they are not yet part of a showing window, which holds until the prepared
+ * root is handed to the menu's key handler.
+ * <p>
+ * Only the controller and its node tree are built in the background. Nothing that starts a timer,
+ * publishes an event or touches the stage runs there: the controller is started with
+ * {@link GameController#onShown()} on the JavaFX Application Thread once its scene is shown.
+ * </p>
+ */
+public final class GameScenePreloader {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** The game being prepared, or {@code null} if none has been started. */
+    private static CompletableFuture<Prepared> pending;
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private GameScenePreloader() {
+    }
+
+    /**
+     * Starts building the game scene for a stage on a background thread.
+     * Must be called on the JavaFX Application Thread.
+     *
+     * @param stage the stage the game will be shown in
+     */
+    public static void start(Stage stage) {
+        pending = CompletableFuture.supplyAsync(() -> {
+            GameController controller = new GameController(stage);
+            Parent root = controller.createBoard();
+            StartupTimeline.mark(StartupTimeline.GAME_PREBUILT);
+            return new Prepared(controller, root);
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "game-preloader");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY); // Never compete with the menu for the CPU
+            thread.start();
+        });
+    }
+
+    /**
+     * Returns the root of the prepared game scene for a stage, building it on the spot if the
+     * background build has not been started, has failed or was for another stage.
+     * Waits for a build that is still in progress, since that is never slower than starting over.
+     * The game's controller is started once the caller has shown the root, after the event being
+     * handled. Must be called on the JavaFX Application Thread.
+     *
+     * @param stage the stage the game will be shown in
+     * @return the root of the game scene
+     */
+    public static Parent take(Stage stage) {
+        CompletableFuture<Prepared> prepared = pending;
+        pending = null;
+        Prepared game = null;
+        if (prepared != null) {
+            try {
+                game = prepared.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                logger.warn("Background game preparation failed; building the game now", e.getCause());
+            }
+        }
+        if (game == null || game.controller().getStage() != stage) {
+            GameController controller = new GameController(stage);
+            game = new Prepared(controller, controller.createBoard());
+        }
+        Platform.runLater(game.controller()::onShown); // Once the caller has put the root on screen
+        return game.root();
+    }
+
+    /**
+     * A game controller together with the root of the scene it built.
+     */
+    private record Prepared(GameController controller, Parent root) {
+    }
+}
@@ -0,0 +1,93 @@
+package org.com.battleship.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records named milestones of application startup, measured from the moment the JVM was launched.
+ * The interesting spans are time-to-menu (JVM launch until the main menu is on screen) and
+ * time-to-first-move (JVM launch until the player first clicks a board). The whole timeline is
+ * logged once the first move has been made.
+ */
+public final class StartupTimeline {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** Milestone recorded when {@code main} is entered. */
+    public static final String MAIN = "main";
+
+    /** Milestone recorded when the JavaFX application starts. */
+    public static final String FX_START = "fx-start";
+
+    /** Milestone recorded when the main menu is shown. */
+    public static final String MENU_SHOWN = "menu-shown";
+
+    /** Milestone recorded when the game scene has been built in the background. */
+    public static final String GAME_PREBUILT = "game-prebuilt";
+
+    /** Milestone recorded when the game scene is shown. */
+    public static final String GAME_SHOWN = "game-shown";
+
+    /** Milestone recorded when the player first clicks a board. */
+    public static final String FIRST_MOVE = "first-move";
+
+    /** {@link System#nanoTime()} value corresponding to the launch of the JVM. */
+    private static final long ORIGIN = System.nanoTime()
+            - TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime());
+
+    /** Milestones in the order they were first reached, in nanoseconds since launch. */
+    private static final Map<String, Long> MILESTONES = new LinkedHashMap<>();
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private StartupTimeline() {
+    }
+
+    /**
+     * Records a milestone unless it has already been reached. Safe to call from any thread.
+     * Reaching {@link #FIRST_MOVE} logs the timeline.
+     *
+     * @param milestone the name of the milestone
+     */
+    public static void mark(String milestone) {
+        long elapsed = System.nanoTime() - ORIGIN;
+        synchronized (MILESTONES) {
+            if (MILESTONES.putIfAbsent(milestone, elapsed) != null) return;
+        }
+        logger.debug("Startup milestone {} at {} ms", milestone, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        if (FIRST_MOVE.equals(milestone)) report();
+    }
+
+    /**
+     * Returns the time from JVM launch until a milestone was reached.
+     *
+     * @param milestone the name of the milestone
+     * @return the elapsed milliseconds, or {@code -1} if the milestone has not been reached
+     */
+    public static long millisTo(String milestone) {
+        synchronized (MILESTONES) {
+            Long elapsed = MILESTONES.get(milestone);
+            return elapsed == null ? -1 : TimeUnit.NANOSECONDS.toMillis(elapsed);
+        }
+    }
+
+    /**
+     * Logs every milestone reached so far together with time-to-menu and time-to-first-move.
+     */
+    public static void report() {
+        List<String> entries = new ArrayList<>();
+        synchronized (MILESTONES) {
+            MILESTONES.forEach((name, nanos) -> entries.add(name + "=" + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms"));
+        }
+        logger.info("Startup timeline: {}", String.join(", ", entries));
+        logger.info("Time to menu: {} ms, time to first move: {} ms", millisTo(MENU_SHOWN), millisTo(FIRST_MOVE));
+    }
+}
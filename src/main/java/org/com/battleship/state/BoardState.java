@@ -0,0 +1,181 @@
+package org.com.battleship.state;
+
+/**
+ * Immutable snapshot of one board: the fleet layout plus the set of cells that have been shot.
+ * Shooting returns a new instance that shares the (immutable) {@link FleetLayout} with this one,
+ * so each move only costs the two mask words of the new instance. Hits, ship health and the
+ * number of ships afloat are derived from the masks rather than stored.
+ */
+public final class BoardState {
+
+    private final FleetLayout layout; // Shared, immutable fleet layout
+    private final long shotLo;        // Low mask word of the cells that have been shot
+    private final long shotHi;        // High mask word of the cells that have been shot
+
+    /**
+     * Creates a board state for the given layout and shot masks.
+     *
+     * @param layout the fleet layout
+     * @param shotLo the low mask word of shot cells
+     * @param shotHi the high mask word of shot cells
+     */
+    private BoardState(FleetLayout layout, long shotLo, long shotHi) {
+        this.layout = layout;
+        this.shotLo = shotLo;
+        this.shotHi = shotHi;
+    }
+
+    /**
+     * Creates a fresh board state on which no cell has been shot.
+     *
+     * @param layout the fleet layout of the board
+     * @return a new board state
+     */
+    public static BoardState of(FleetLayout layout) {
+        return new BoardState(layout, 0L, 0L);
+    }
+
+    /**
+     * Creates a board state from a layout and an existing set of shot cells.
+     *
+     * @param layout the fleet layout of the board
+     * @param shotLo the low mask word of shot cells
+     * @param shotHi the high mask word of shot cells
+     * @return a new board state
+     */
+    public static BoardState of(FleetLayout layout, long shotLo, long shotHi) {
+        return new BoardState(layout, shotLo, shotHi);
+    }
+
+    /**
+     * Shoots at a cell.
+     *
+     * @param index the index of the cell to shoot
+     * @return the resulting state, or this instance if the cell was already shot
+     */
+    public BoardState shoot(int index) {
+        if (isShot(index)) return this;
+        return new BoardState(layout, shotLo | Grid.lo(index), shotHi | Grid.hi(index));
+    }
+
+    /**
+     * Determines the outcome a shot at the given cell would have on this board.
+     *
+     * @param index the index of the cell
+     * @return {@link ShotResult#SUNK} if the shot finishes a ship, {@link ShotResult#HIT} if it
+     *         strikes a ship that stays afloat and {@link ShotResult#MISS} otherwise
+     */
+    public ShotResult resultOf(int index) {
+        int ship = layout.shipAt(index);
+        if (ship < 0) return ShotResult.MISS;
+        boolean alreadyShot = isShot(index);
+        return !alreadyShot && health(ship) == 1 ? ShotResult.SUNK : ShotResult.HIT;
+    }
+
+    /**
+     * Returns the fleet layout of this board.
+     *
+     * @return the fleet layout
+     */
+    public FleetLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Checks whether a cell has been shot.
+     *
+     * @param index the cell index
+     * @return {@code true} if the cell has been shot
+     */
+    public boolean isShot(int index) {
+        return Grid.test(shotLo, shotHi, index);
+    }
+
+    /**
+     * Checks whether a cell has been shot and contains a ship.
+     *
+     * @param index the cell index
+     * @return {@code true} if the cell is a hit
+     */
+    public boolean isHit(int index) {
+        return isShot(index) && layout.isOccupied(index);
+    }
+
+    /**
+     * Returns the low mask word of the shot cells.
+     *
+     * @return the low mask word
+     */
+    public long shotLo() {
+        return shotLo;
+    }
+
+    /**
+     * Returns the high mask word of the shot cells.
+     *
+     * @return the high mask word
+     */
+    public long shotHi() {
+        return shotHi;
+    }
+
+    /**
+     * Returns the low mask word of the cells that have been shot and contain a ship.
+     *
+     * @return the low mask word
+     */
+    public long hitLo() {
+        return shotLo & layout.occupiedLo();
+    }
+
+    /**
+     * Returns the high mask word of the cells that have been shot and contain a ship.
+     *
+     * @return the high mask word
+     */
+    public long hitHi() {
+        return shotHi & layout.occupiedHi();
+    }
+
+    /**
+     * Returns the remaining health of a ship.
+     *
+     * @param ship the index of the ship in placement order
+     * @return the number of cells of the ship that have not been hit
+     */
+    public int health(int ship) {
+        return layout.type(ship) - Grid.count(shotLo & layout.maskLo(ship), shotHi & layout.maskHi(ship));
+    }
+
+    /**
+     * Checks whether a ship has been sunk.
+     *
+     * @param ship the index of the ship in placement order
+     * @return {@code true} if every cell of the ship has been hit
+     */
+    public boolean isSunk(int ship) {
+        return health(ship) == 0;
+    }
+
+    /**
+     * Returns the number of ships still afloat.
+     *
+     * @return the number of ships that have not been sunk
+     */
+    public int shipsRemaining() {
+        int remaining = 0;
+        for (int ship = 0; ship < layout.size(); ship++) {
+            if (!isSunk(ship)) remaining++;
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns the number of shots taken at this board.
+     *
+     * @return the number of shot cells
+     */
+    public int shotCount() {
+        return Grid.count(shotLo, shotHi);
+    }
+}
@@ -0,0 +1,263 @@
+package org.com.battleship.state;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.com.battleship.exceptions.ShipPlacementException;
+
+/**
+ * Immutable description of where every ship of a fleet sits on a board.
+ * Ships are stored in placement order as shared {@link ShipPlacement} flyweights that carry
+ * a pre-computed cell mask, so a layout costs little more than an array of references and can
+ * be shared by any number of {@link BoardState} instances without copying.
+ * Placement follows the same rules as {@link org.com.battleship.model.Board}: ships must
+ * stay on the board and may neither overlap nor touch another ship horizontally or vertically.
+ */
+public final class FleetLayout {
+
+    /** Ship types (sizes) of the standard fleet, in the order they are placed. */
+    private static final int[] STANDARD_FLEET = {5, 4, 3, 2, 1};
+
+    private final ShipPlacement[] ships; // Shared placement of each ship
+    private final long occupiedLo;   // Low mask word of all ship cells
+    private final long occupiedHi;   // High mask word of all ship cells
+
+    /**
+     * Private constructor to create a FleetLayout instance using the Builder pattern.
+     *
+     * @param builder the Builder instance holding the placed ships
+     */
+    private FleetLayout(Builder builder) {
+        this.ships = Arrays.copyOf(builder.ships, builder.count);
+        this.occupiedLo = builder.occupiedLo;
+        this.occupiedHi = builder.occupiedHi;
+    }
+
+    /**
+     * Returns the ship types of the standard fleet.
+     *
+     * @return a copy of the standard fleet's ship types, largest first
+     */
+    public static int[] standardFleet() {
+        return STANDARD_FLEET.clone();
+    }
+
+    /**
+     * Creates a random layout of the standard fleet.
+     *
+     * @param random the random number generator used to pick positions and orientations
+     * @return a new random layout
+     */
+    public static FleetLayout random(Random random) {
+        Builder builder = new Builder();
+        for (int type : STANDARD_FLEET) {
+            int x;
+            int y;
+            boolean isVertical;
+            do {
+                x = random.nextInt(Grid.SIZE);
+                y = random.nextInt(Grid.SIZE);
+                isVertical = random.nextBoolean();
+            } while (!builder.canPlace(type, x, y, isVertical));
+            builder.ship(type, x, y, isVertical);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of ships in the layout.
+     *
+     * @return the number of ships
+     */
+    public int size() {
+        return ships.length;
+    }
+
+    /**
+     * Returns the placement of a ship.
+     *
+     * @param ship the index of the ship in placement order
+     * @return the ship's shared placement
+     */
+    public ShipPlacement ship(int ship) {
+        return ships[ship];
+    }
+
+    /**
+     * Returns the type (size) of a ship.
+     *
+     * @param ship the index of the ship in placement order
+     * @return the type of the ship
+     */
+    public int type(int ship) {
+        return ships[ship].type();
+    }
+
+    /**
+     * Returns the index of the top-left cell of a ship.
+     *
+     * @param ship the index of the ship in placement order
+     * @return the cell index of the ship's origin
+     */
+    public int origin(int ship) {
+        return ships[ship].origin();
+    }
+
+    /**
+     * Checks whether a ship is placed vertically.
+     *
+     * @param ship the index of the ship in placement order
+     * @return {@code true} if the ship is vertical, {@code false} if it is horizontal
+     */
+    public boolean isVertical(int ship) {
+        return ships[ship].vertical();
+    }
+
+    /**
+     * Returns the low mask word of the cells covered by a ship.
+     *
+     * @param ship the index of the ship in placement order
+     * @return the low mask word
+     */
+    public long maskLo(int ship) {
+        return ships[ship].maskLo();
+    }
+
+    /**
+     * Returns the high mask word of the cells covered by a ship.
+     *
+     * @param ship the index of the ship in placement order
+     * @return the high mask word
+     */
+    public long maskHi(int ship) {
+        return ships[ship].maskHi();
+    }
+
+    /**
+     * Returns the low mask word of all cells covered by ships.
+     *
+     * @return the low mask word
+     */
+    public long occupiedLo() {
+        return occupiedLo;
+    }
+
+    /**
+     * Returns the high mask word of all cells covered by ships.
+     *
+     * @return the high mask word
+     */
+    public long occupiedHi() {
+        return occupiedHi;
+    }
+
+    /**
+     * Checks whether a cell is covered by a ship.
+     *
+     * @param index the cell index
+     * @return {@code true} if a ship covers the cell
+     */
+    public boolean isOccupied(int index) {
+        return Grid.test(occupiedLo, occupiedHi, index);
+    }
+
+    /**
+     * Finds the ship covering a cell.
+     *
+     * @param index the cell index
+     * @return the index of the ship in placement order, or {@code -1} if the cell is empty
+     */
+    public int shipAt(int index) {
+        for (int ship = 0; ship < ships.length; ship++) {
+            if (Grid.test(ships[ship].maskLo(), ships[ship].maskHi(), index)) return ship;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a string representation of the layout listing each ship's type, origin and orientation.
+     *
+     * @return a string representation of the layout
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FleetLayout{");
+        for (int ship = 0; ship < ships.length; ship++) {
+            if (ship > 0) sb.append(", ");
+            sb.append(ships[ship].type()).append('@').append(ships[ship].x()).append(',')
+                    .append(ships[ship].y()).append(ships[ship].vertical() ? 'V' : 'H');
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Builder class for constructing {@link FleetLayout} instances.
+     * Ships are validated as they are added, so a built layout is always legal.
+     */
+    public static class Builder {
+        private ShipPlacement[] ships = new ShipPlacement[5];
+        private int count;
+        private long occupiedLo;
+        private long occupiedHi;
+
+        /**
+         * Checks whether a ship can be added at the given position without breaking the placement rules.
+         *
+         * @param type       the type (size) of the ship
+         * @param x          the starting x-coordinate
+         * @param y          the starting y-coordinate
+         * @param isVertical {@code true} for vertical placement, {@code false} for horizontal placement
+         * @return {@code true} if the placement is valid, {@code false} otherwise
+         */
+        public boolean canPlace(int type, int x, int y, boolean isVertical) {
+            int dx = isVertical ? 0 : 1;
+            int dy = isVertical ? 1 : 0;
+            for (int i = 0; i < type; i++) {
+                int targetX = x + i * dx;
+                int targetY = y + i * dy;
+                if (!Grid.isValid(targetX, targetY) || isTaken(targetX, targetY)) return false;
+                if (isTaken(targetX - 1, targetY) || isTaken(targetX + 1, targetY)
+                        || isTaken(targetX, targetY - 1) || isTaken(targetX, targetY + 1)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Adds a ship to the layout.
+         *
+         * @param type       the type (size) of the ship
+         * @param x          the starting x-coordinate
+         * @param y          the starting y-coordinate
+         * @param isVertical {@code true} for vertical placement, {@code false} for horizontal placement
+         * @return the Builder instance for chaining
+         * @throws ShipPlacementException if the placement breaks the placement rules
+         */
+        public Builder ship(int type, int x, int y, boolean isVertical) {
+            if (!canPlace(type, x, y, isVertical)) {
+                throw new ShipPlacementException("Invalid ship placement at (" + x + ", " + y + ").", null);
+            }
+            if (count == ships.length) ships = Arrays.copyOf(ships, count * 2);
+
+            ShipPlacement placement = ShipPlacement.of(type, Grid.index(x, y), isVertical);
+            ships[count++] = placement;
+            occupiedLo |= placement.maskLo();
+            occupiedHi |= placement.maskHi();
+            return this;
+        }
+
+        /**
+         * Builds and returns a new {@link FleetLayout} instance with the ships added so far.
+         *
+         * @return a new {@link FleetLayout} instance
+         */
+        public FleetLayout build() {
+            return new FleetLayout(this);
+        }
+
+        /**
+         * Checks whether an on-board cell is already covered by a ship; off-board cells are never taken.
+         */
+        private boolean isTaken(int x, int y) {
+            return Grid.isValid(x, y) && Grid.test(occupiedLo, occupiedHi, Grid.index(x, y));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.com.battleship.state;
+
+/**
+ * Immutable, persistent snapshot of a whole game: both boards and whose turn it is.
+ * Applying a shot returns a new state that reuses the untouched board and the shared
+ * fleet layouts, so keeping every position of a game (for undo, redo or AI look-ahead)
+ * costs a few dozen bytes per move.
+ */
+public final class GameState {
+
+    private final BoardState player;   // The player's board
+    private final BoardState enemy;    // The enemy's board
+    private final boolean enemyTurn;   // Whether the enemy is to move
+    private final int lastShot;        // Index of the cell shot to reach this state, or -1
+    private final ShotResult lastResult; // Outcome of the shot that led to this state, or null
+
+    /**
+     * Creates a game state.
+     *
+     * @param player     the player's board
+     * @param enemy      the enemy's board
+     * @param enemyTurn  whether the enemy is to move
+     * @param lastShot   the cell shot to reach this state, or {@code -1}
+     * @param lastResult the outcome of that shot, or {@code null}
+     */
+    private GameState(BoardState player, BoardState enemy, boolean enemyTurn, int lastShot, ShotResult lastResult) {
+        this.player = player;
+        this.enemy = enemy;
+        this.enemyTurn = enemyTurn;
+        this.lastShot = lastShot;
+        this.lastResult = lastResult;
+    }
+
+    /**
+     * Creates the opening state of a game with the player to move.
+     *
+     * @param playerFleet the layout of the player's fleet
+     * @param enemyFleet  the layout of the enemy's fleet
+     * @return the opening game state
+     */
+    public static GameState start(FleetLayout playerFleet, FleetLayout enemyFleet) {
+        return new GameState(BoardState.of(playerFleet), BoardState.of(enemyFleet), false, -1, null);
+    }
+
+    /**
+     * Creates a game state from existing boards.
+     *
+     * @param player    the player's board
+     * @param enemy     the enemy's board
+     * @param enemyTurn whether the enemy is to move
+     * @return a new game state
+     */
+    public static GameState of(BoardState player, BoardState enemy, boolean enemyTurn) {
+        return new GameState(player, enemy, enemyTurn, -1, null);
+    }
+
+    /**
+     * Fires a shot for the side to move at the opponent's board.
+     * A hit keeps the turn with the shooter, a miss passes it to the opponent.
+     *
+     * @param index the index of the cell to shoot
+     * @return the resulting game state
+     * @throws IllegalArgumentException if the cell has already been shot
+     */
+    public GameState shoot(int index) {
+        BoardState target = enemyTurn ? player : enemy;
+        if (target.isShot(index)) throw new IllegalArgumentException("Cell " + index + " has already been shot");
+        ShotResult result = target.resultOf(index);
+        BoardState next = target.shoot(index);
+        boolean nextTurn = result.isHit() == enemyTurn;
+        return enemyTurn
+                ? new GameState(next, enemy, nextTurn, index, result)
+                : new GameState(player, next, nextTurn, index, result);
+    }
+
+    /**
+     * Fires a whole volley for the side to move at the opponent's board, as in the salvo variant.
+     * All shots are applied at once and the turn always passes to the opponent.
+     *
+     * @param cells the indices of the cells to shoot
+     * @return the resulting game state
+     * @throws IllegalArgumentException if a cell has already been shot
+     */
+    public GameState volley(int[] cells) {
+        BoardState target = enemyTurn ? player : enemy;
+        long lo = target.shotLo();
+        long hi = target.shotHi();
+        for (int index : cells) {
+            if (target.isShot(index)) throw new IllegalArgumentException("Cell " + index + " has already been shot");
+            lo |= Grid.lo(index);
+            hi |= Grid.hi(index);
+        }
+        BoardState next = BoardState.of(target.getLayout(), lo, hi);
+        return enemyTurn
+                ? new GameState(next, enemy, false, -1, null)
+                : new GameState(player, next, true, -1, null);
+    }
+
+    /**
+     * Returns the player's board.
+     *
+     * @return the player's board state
+     */
+    public BoardState player() {
+        return player;
+    }
+
+    /**
+     * Returns the enemy's board.
+     *
+     * @return the enemy's board state
+     */
+    public BoardState enemy() {
+        return enemy;
+    }
+
+    /**
+     * Checks whether the enemy is to move.
+     *
+     * @return {@code true} if it is the enemy's turn
+     */
+    public boolean isEnemyTurn() {
+        return enemyTurn;
+    }
+
+    /**
+     * Returns the cell shot to reach this state.
+     *
+     * @return the cell index, or {@code -1} for an opening state
+     */
+    public int lastShot() {
+        return lastShot;
+    }
+
+    /**
+     * Returns the outcome of the shot that led to this state.
+     *
+     * @return the shot result, or {@code null} for an opening state
+     */
+    public ShotResult lastResult() {
+        return lastResult;
+    }
+
+    /**
+     * Checks whether either side has lost all of its ships.
+     *
+     * @return {@code true} if the game is over
+     */
+    public boolean isOver() {
+        return player.shipsRemaining() == 0 || enemy.shipsRemaining() == 0;
+    }
+}
@@ -0,0 +1,106 @@
+package org.com.battleship.state;
+
+/**
+ * Helpers for addressing the 10x10 board as cell indices.
+ * A cell at (x, y) has the index {@code y * 10 + x}. Sets of cells are stored as two
+ * {@code long} bit masks: the low word holds indices 0-63 and the high word holds 64-99.
+ */
+public final class Grid {
+
+    /** Width and height of the board. */
+    public static final int SIZE = 10;
+
+    /** Total number of cells on the board. */
+    public static final int CELLS = SIZE * SIZE;
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private Grid() {
+    }
+
+    /**
+     * Converts a coordinate pair into a cell index.
+     *
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the cell index
+     */
+    public static int index(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    /**
+     * Returns the x-coordinate of a cell index.
+     *
+     * @param index the cell index
+     * @return the x-coordinate
+     */
+    public static int x(int index) {
+        return index % SIZE;
+    }
+
+    /**
+     * Returns the y-coordinate of a cell index.
+     *
+     * @param index the cell index
+     * @return the y-coordinate
+     */
+    public static int y(int index) {
+        return index / SIZE;
+    }
+
+    /**
+     * Checks whether a coordinate pair lies on the board.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return {@code true} if the coordinates are within bounds, {@code false} otherwise
+     */
+    public static boolean isValid(int x, int y) {
+        return x >= 0 && x < SIZE && y >= 0 && y < SIZE;
+    }
+
+    /**
+     * Returns the bit for a cell index within the low mask word.
+     *
+     * @param index the cell index
+     * @return the bit in the low word, or {@code 0} if the index lives in the high word
+     */
+    public static long lo(int index) {
+        return index < 64 ? 1L << index : 0L;
+    }
+
+    /**
+     * Returns the bit for a cell index within the high mask word.
+     *
+     * @param index the cell index
+     * @return the bit in the high word, or {@code 0} if the index lives in the low word
+     */
+    public static long hi(int index) {
+        return index < 64 ? 0L : 1L << (index - 64);
+    }
+
+    /**
+     * Checks whether a cell is part of a two-word mask.
+     *
+     * @param lo    the low mask word
+     * @param hi    the high mask word
+     * @param index the cell index
+     * @return {@code true} if the cell is set in the mask
+     */
+    public static boolean test(long lo, long hi, int index) {
+        return index < 64 ? (lo & 1L << index) != 0 : (hi & 1L << (index - 64)) != 0;
+    }
+
+    /**
+     * Counts the cells contained in a two-word mask.
+     *
+     * @param lo the low mask word
+     * @param hi the high mask word
+     * @return the number of cells in the mask
+     */
+    public static int count(long lo, long hi) {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+}
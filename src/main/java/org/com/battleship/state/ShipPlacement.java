@@ -0,0 +1,97 @@
+package org.com.battleship.state;
+
+/**
+ * Where one ship sits on the board, as a small immutable value.
+ * Placements of the standard ship types are flyweights: {@link #of(int, int, boolean)} hands out one
+ * shared instance per type, origin and orientation, so a fleet layout only holds references and
+ * any number of games can describe their fleets without allocating a single ship.
+ *
+ * @param type     the type (size) of the ship
+ * @param origin   the index of the ship's top-left cell
+ * @param vertical whether the ship runs down rather than across
+ * @param maskLo   the low mask word of the cells the ship covers
+ * @param maskHi   the high mask word of the cells the ship covers
+ */
+public record ShipPlacement(int type, int origin, boolean vertical, long maskLo, long maskHi) {
+
+    /** Largest ship type whose placements are shared. */
+    private static final int SHARED_TYPES = 5;
+
+    /** Shared placements, indexed by ((type - 1) * CELLS + origin) * 2 + (vertical ? 1 : 0); off-board ones are null. */
+    private static final ShipPlacement[] SHARED = new ShipPlacement[SHARED_TYPES * Grid.CELLS * 2];
+
+    static {
+        for (int type = 1; type <= SHARED_TYPES; type++) {
+            for (int origin = 0; origin < Grid.CELLS; origin++) {
+                for (int orientation = 0; orientation < 2; orientation++) {
+                    boolean down = orientation == 1;
+                    int endX = Grid.x(origin) + (down ? 0 : type - 1);
+                    int endY = Grid.y(origin) + (down ? type - 1 : 0);
+                    if (!Grid.isValid(endX, endY)) continue;
+                    SHARED[slot(type, origin, down)] = create(type, origin, down);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the placement of a ship, shared with every other caller asking for the same one.
+     *
+     * @param type     the type (size) of the ship
+     * @param origin   the index of the ship's top-left cell
+     * @param vertical whether the ship runs down rather than across
+     * @return the placement
+     * @throws IllegalArgumentException if the ship would leave the board
+     */
+    public static ShipPlacement of(int type, int origin, boolean vertical) {
+        if (type >= 1 && type <= SHARED_TYPES && origin >= 0 && origin < Grid.CELLS) {
+            ShipPlacement shared = SHARED[slot(type, origin, vertical)];
+            if (shared != null) return shared;
+        }
+        int endX = Grid.x(origin) + (vertical ? 0 : type - 1);
+        int endY = Grid.y(origin) + (vertical ? type - 1 : 0);
+        if (type < 1 || origin < 0 || origin >= Grid.CELLS || !Grid.isValid(endX, endY)) {
+            throw new IllegalArgumentException("Ship of type " + type + " at " + origin + " leaves the board");
+        }
+        return create(type, origin, vertical); // Larger than any standard ship; not worth sharing
+    }
+
+    /**
+     * Returns the x-coordinate of the ship's top-left cell.
+     *
+     * @return the x-coordinate
+     */
+    public int x() {
+        return Grid.x(origin);
+    }
+
+    /**
+     * Returns the y-coordinate of the ship's top-left cell.
+     *
+     * @return the y-coordinate
+     */
+    public int y() {
+        return Grid.y(origin);
+    }
+
+    /**
+     * Computes a placement's cell mask and creates it.
+     */
+    private static ShipPlacement create(int type, int origin, boolean vertical) {
+        long lo = 0;
+        long hi = 0;
+        for (int i = 0; i < type; i++) {
+            int index = origin + (vertical ? i * Grid.SIZE : i);
+            lo |= Grid.lo(index);
+            hi |= Grid.hi(index);
+        }
+        return new ShipPlacement(type, origin, vertical, lo, hi);
+    }
+
+    /**
+     * Returns the index of a shared placement in {@link #SHARED}.
+     */
+    private static int slot(int type, int origin, boolean vertical) {
+        return ((type - 1) * Grid.CELLS + origin) * 2 + (vertical ? 1 : 0);
+    }
+}
@@ -0,0 +1,25 @@
+package org.com.battleship.state;
+
+/**
+ * Outcome of a single shot against a board.
+ */
+public enum ShotResult {
+
+    /** The shot landed in open water. */
+    MISS,
+
+    /** The shot hit a ship that is still afloat. */
+    HIT,
+
+    /** The shot hit the last intact cell of a ship. */
+    SUNK;
+
+    /**
+     * Checks whether the shot struck a ship.
+     *
+     * @return {@code true} for {@link #HIT} and {@link #SUNK}, {@code false} for {@link #MISS}
+     */
+    public boolean isHit() {
+        return this != MISS;
+    }
+}
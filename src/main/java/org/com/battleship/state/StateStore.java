@@ -0,0 +1,48 @@
+package org.com.battleship.state;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free holder of the current {@link GameState}.
+ * The game thread publishes a new immutable snapshot after every shot and any number of
+ * other threads (e.g. an AI thinking in the background) read the latest one without locking.
+ * Publication uses release semantics and reads use acquire semantics, so a reader that sees
+ * a snapshot also sees everything the writer did before publishing it. Because snapshots are
+ * immutable, a reader always observes a consistent position of both boards, however long it
+ * holds on to it. Readers can detect a new version by comparing references.
+ */
+public final class StateStore {
+
+    /** Handle used to access {@link #state} with explicit memory ordering. */
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(StateStore.class, "state", GameState.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused") // Accessed through STATE
+    private GameState state; // The latest published snapshot, or null before a game starts
+
+    /**
+     * Returns the latest published snapshot.
+     *
+     * @return the current game state, or {@code null} if no game is in progress
+     */
+    public GameState snapshot() {
+        return (GameState) STATE.getAcquire(this);
+    }
+
+    /**
+     * Publishes a new snapshot. Intended for the single thread that owns the game.
+     *
+     * @param next the new game state, or {@code null} to clear the store
+     */
+    public void publish(GameState next) {
+        STATE.setRelease(this, next);
+    }
+}
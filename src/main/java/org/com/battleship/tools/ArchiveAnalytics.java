@@ -0,0 +1,308 @@
+package org.com.battleship.tools;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.archive.GameRecord;
+import org.com.battleship.state.Grid;
+
+/**
+ * Offline statistics over game archives written by {@link org.com.battleship.archive.GameRecorder}.
+ * <p>
+ * Each archive is memory-mapped and cut into chunks of whole records, which a parallel stream
+ * folds into per-thread {@link Stats} made only of primitive arrays; the partial results are
+ * merged at the end. Statistics are kept separately for the boards the player shot and the
+ * boards the computer shot. The results are written to an output directory:
+ * </p>
+ * <ul>
+ *     <li>{@code summary.csv}: boards, wins and average shots per side;</li>
+ *     <li>{@code cells.csv}: shots, hits, hit rate, ship occupancy and average shot number per cell;</li>
+ *     <li>{@code ships.csv}: how often each ship type was sunk and the average number of shots it took;</li>
+ *     <li>{@code heatmap-player.png} and {@code heatmap-computer.png}: the hit rate per cell,
+ *     drawn like a {@link org.com.battleship.model.Board} with 30 pixel cells and 1 pixel borders.</li>
+ * </ul>
+ * Usage:
+ * <pre>
+ * java ... org.com.battleship.tools.ArchiveAnalytics &lt;output-dir&gt; &lt;archive&gt;...
+ * </pre>
+ */
+public class ArchiveAnalytics {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** Names of the two sides, indexed like {@link Stats}. */
+    private static final String[] SIDES = {"player", "computer"};
+
+    /** Number of records folded by one task. */
+    private static final int CHUNK_RECORDS = 1 << 16;
+
+    /** Largest mapping, in bytes; a whole number of records below the 2 GB limit of a buffer. */
+    private static final long SEGMENT_BYTES = (Integer.MAX_VALUE / GameRecord.SIZE) * (long) GameRecord.SIZE;
+
+    /** Size of a drawn cell including its border, as in a {@link org.com.battleship.model.Board}. */
+    private static final int PITCH = 31;
+
+    /**
+     * Runs the analytics from the command line.
+     *
+     * @param args the output directory followed by one or more archive files
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: ArchiveAnalytics <output-dir> <archive>...");
+            System.exit(2);
+        }
+        List<Path> archives = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) archives.add(Path.of(args[i]));
+        try {
+            long start = System.nanoTime();
+            Stats stats = analyse(archives);
+            write(stats, Path.of(args[0]));
+            logger.info("Analysed {} boards in {} ms", stats.boards[0] + stats.boards[1],
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("Archive analytics failed", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Computes the statistics of one or more archives.
+     *
+     * @param archives the archive files
+     * @return the combined statistics
+     * @throws IOException if an archive cannot be read
+     */
+    public static Stats analyse(List<Path> archives) throws IOException {
+        Stats total = new Stats();
+        for (Path archive : archives) {
+            try (FileChannel channel = FileChannel.open(archive)) {
+                long size = channel.size() - channel.size() % GameRecord.SIZE;  // Ignore a torn last record
+                if (size != channel.size()) logger.warn("{} ends in a partial record", archive);
+                for (long offset = 0; offset < size; offset += SEGMENT_BYTES) {
+                    MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                            Math.min(SEGMENT_BYTES, size - offset));
+                    total.merge(analyse(segment));
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Folds a mapped segment of whole records in parallel chunks.
+     *
+     * @param segment the mapped records
+     * @return the segment's statistics
+     */
+    private static Stats analyse(MappedByteBuffer segment) {
+        int records = segment.capacity() / GameRecord.SIZE;
+        int chunks = (records + CHUNK_RECORDS - 1) / CHUNK_RECORDS;
+        return IntStream.range(0, chunks).parallel().collect(Stats::new, (stats, chunk) -> {
+            int from = chunk * CHUNK_RECORDS;
+            int to = Math.min(records, from + CHUNK_RECORDS);
+            for (int record = from; record < to; record++) {
+                stats.add(segment, record * GameRecord.SIZE);  // Absolute reads only, so threads can share the buffer
+            }
+        }, Stats::merge);
+    }
+
+    /**
+     * Writes the CSV files and heat maps.
+     *
+     * @param stats the statistics
+     * @param dir   the output directory
+     * @throws IOException if a file cannot be written
+     */
+    public static void write(Stats stats, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(dir.resolve("summary.csv")))) {
+            out.println("side,boards,wins,mean_shots");
+            for (int side = 0; side < 2; side++) {
+                out.printf(Locale.ROOT, "%s,%d,%d,%.3f%n", SIDES[side], stats.boards[side], stats.wins[side],
+                        ratio(stats.shots[side], stats.boards[side]));
+            }
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(dir.resolve("cells.csv")))) {
+            out.println("side,x,y,shots,hits,hit_rate,occupancy,mean_shot_number");
+            for (int side = 0; side < 2; side++) {
+                for (int cell = 0; cell < Grid.CELLS; cell++) {
+                    int i = side * Grid.CELLS + cell;
+                    out.printf(Locale.ROOT, "%s,%d,%d,%d,%d,%.5f,%.5f,%.3f%n", SIDES[side], Grid.x(cell),
+                            Grid.y(cell), stats.cellShots[i], stats.cellHits[i],
+                            ratio(stats.cellHits[i], stats.cellShots[i]),
+                            ratio(stats.cellOccupied[i], stats.boards[side]),
+                            ratio(stats.cellShotNumbers[i], stats.cellShots[i]));
+                }
+            }
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(dir.resolve("ships.csv")))) {
+            out.println("side,ship_type,placed,sunk,mean_shots_to_sink");
+            for (int side = 0; side < 2; side++) {
+                for (int type = 1; type < Stats.TYPES; type++) {
+                    int i = side * Stats.TYPES + type;
+                    if (stats.shipsPlaced[i] == 0) continue;
+                    out.printf(Locale.ROOT, "%s,%d,%d,%d,%.3f%n", SIDES[side], type, stats.shipsPlaced[i],
+                            stats.shipsSunk[i], ratio(stats.shotsToSink[i], stats.shipsSunk[i]));
+                }
+            }
+        }
+        for (int side = 0; side < 2; side++) {
+            writeHeatMap(stats, side, dir.resolve("heatmap-" + SIDES[side] + ".png"));
+        }
+    }
+
+    /**
+     * Draws the hit rate per cell of one side as a board, from light blue (lowest rate) to red (highest rate).
+     */
+    private static void writeHeatMap(Stats stats, int side, Path file) throws IOException {
+        double[] rate = new double[Grid.CELLS];
+        double min = Double.MAX_VALUE;
+        double max = 0;
+        for (int cell = 0; cell < Grid.CELLS; cell++) {
+            int i = side * Grid.CELLS + cell;
+            rate[cell] = ratio(stats.cellHits[i], stats.cellShots[i]);
+            min = Math.min(min, rate[cell]);
+            max = Math.max(max, rate[cell]);
+        }
+        int size = Grid.SIZE * PITCH;
+        int[] pixels = new int[size * size];
+        for (int py = 0; py < size; py++) {
+            for (int px = 0; px < size; px++) {
+                int ox = px % PITCH;
+                int oy = py % PITCH;
+                boolean border = ox == 0 || ox == PITCH - 1 || oy == 0 || oy == PITCH - 1;
+                double t = max == min ? 0 : (rate[Grid.index(px / PITCH, py / PITCH)] - min) / (max - min);
+                pixels[py * size + px] = border ? 0x000000 : blend(0xADD8E6, 0xFF0000, t);
+            }
+        }
+        PngWriter.write(file, size, size, pixels);
+    }
+
+    /**
+     * Interpolates between two colours.
+     */
+    private static int blend(int from, int to, double t) {
+        int r = (int) Math.round(((from >> 16) & 0xFF) + t * (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)));
+        int g = (int) Math.round(((from >> 8) & 0xFF) + t * (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)));
+        int b = (int) Math.round((from & 0xFF) + t * ((to & 0xFF) - (from & 0xFF)));
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Divides two counts, returning 0 for an empty denominator.
+     */
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+
+    /**
+     * Statistics accumulated over archive records, in primitive arrays only.
+     * Side 0 covers the boards the player shot, side 1 the boards the computer shot;
+     * per-cell arrays are indexed {@code side * 100 + cell}, per-ship arrays {@code side * 6 + type}.
+     */
+    public static final class Stats {
+
+        /** Number of ship type slots per side; types run from 1 to 5. */
+        static final int TYPES = 6;
+
+        final long[] boards = new long[2];
+        final long[] wins = new long[2];
+        final long[] shots = new long[2];
+        final long[] cellShots = new long[2 * Grid.CELLS];
+        final long[] cellHits = new long[2 * Grid.CELLS];
+        final long[] cellOccupied = new long[2 * Grid.CELLS];
+        final long[] cellShotNumbers = new long[2 * Grid.CELLS];
+        final long[] shipsPlaced = new long[2 * TYPES];
+        final long[] shipsSunk = new long[2 * TYPES];
+        final long[] shotsToSink = new long[2 * TYPES];
+
+        private final int[] shipAt = new int[Grid.CELLS];          // Ship slot per cell of the current record, -1 if empty
+        private final int[] health = new int[GameRecord.SHIPS];    // Remaining health per ship of the current record
+
+        /**
+         * Folds one record into the statistics.
+         *
+         * @param buffer the archive
+         * @param record the offset of the record
+         */
+        void add(MappedByteBuffer buffer, int record) {
+            int flags = GameRecord.flags(buffer, record);
+            int side = (flags & GameRecord.COMPUTER_SHOOTER) != 0 ? 1 : 0;
+            int count = GameRecord.shotCount(buffer, record);
+            boards[side]++;
+            if ((flags & GameRecord.SHOOTER_WON) != 0) wins[side]++;
+            shots[side] += count;
+
+            Arrays.fill(shipAt, -1);
+            for (int ship = 0; ship < GameRecord.SHIPS; ship++) {
+                int type = GameRecord.type(buffer, record, ship);
+                health[ship] = 0;
+                if (type == 0 || type >= TYPES) continue;
+                int origin = GameRecord.origin(buffer, record, ship);
+                boolean vertical = GameRecord.isVertical(buffer, record, ship);
+                for (int i = 0; i < type; i++) {
+                    int x = Grid.x(origin) + (vertical ? 0 : i);
+                    int y = Grid.y(origin) + (vertical ? i : 0);
+                    if (!Grid.isValid(x, y)) break;  // Corrupt record; count what is on the board
+                    shipAt[Grid.index(x, y)] = ship;
+                    cellOccupied[side * Grid.CELLS + Grid.index(x, y)]++;
+                    health[ship]++;
+                }
+                shipsPlaced[side * TYPES + type]++;
+            }
+
+            for (int shot = 0; shot < count; shot++) {
+                int cell = GameRecord.shot(buffer, record, shot);
+                if (cell >= Grid.CELLS) continue;
+                int i = side * Grid.CELLS + cell;
+                cellShots[i]++;
+                cellShotNumbers[i] += shot + 1;
+                int ship = shipAt[cell];
+                if (ship < 0) continue;
+                cellHits[i]++;
+                if (--health[ship] == 0) {
+                    int type = GameRecord.type(buffer, record, ship);
+                    shipsSunk[side * TYPES + type]++;
+                    shotsToSink[side * TYPES + type] += shot + 1;
+                }
+            }
+        }
+
+        /**
+         * Adds another set of statistics to this one.
+         *
+         * @param other the statistics to add
+         */
+        void merge(Stats other) {
+            add(boards, other.boards);
+            add(wins, other.wins);
+            add(shots, other.shots);
+            add(cellShots, other.cellShots);
+            add(cellHits, other.cellHits);
+            add(cellOccupied, other.cellOccupied);
+            add(cellShotNumbers, other.cellShotNumbers);
+            add(shipsPlaced, other.shipsPlaced);
+            add(shipsSunk, other.shipsSunk);
+            add(shotsToSink, other.shotsToSink);
+        }
+
+        /**
+         * Adds one array to another element by element.
+         */
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) into[i] += from[i];
+        }
+    }
+}
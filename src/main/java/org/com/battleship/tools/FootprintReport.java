@@ -0,0 +1,168 @@
+package org.com.battleship.tools;
+
+import java.util.Random;
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.model.Board;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.GameState;
+import org.com.battleship.state.Grid;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+/**
+ * Reports how many heap bytes one match costs in the JavaFX model (two {@link Board}s of
+ * {@link org.com.battleship.model.Cell} and {@link org.com.battleship.model.Ship} nodes) and in the
+ * headless model ({@link GameState}: cells as indices, ships as shared
+ * {@link org.com.battleship.state.ShipPlacement}s), so servers holding many matches can be sized.
+ * <p>
+ * Both models are built for the same mid-game positions and walked with JOL. Objects shared
+ * between matches, such as colours and the shared ship placements, are not part of any one match;
+ * the cost per match is therefore taken as the growth of the whole graph from one match to all of them.
+ * </p>
+ * Run it on the headless Monocle toolkit with the {@code headless} Maven profile:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.FootprintReport
+ * </pre>
+ * Tunables (system properties): {@code footprint.matches}, {@code footprint.shots}, {@code footprint.seed}
+ * and {@code footprint.details}, which also prints the per-class breakdown of a single match.
+ */
+public class FootprintReport {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private static final double GIB = 1024.0 * 1024 * 1024;
+
+    private final int matches;      // Number of matches built per model
+    private final int shots;        // Shots fired at each board before measuring
+    private final boolean details;  // Whether to print the per-class breakdown
+    private final Random random;    // Drives fleet layouts and shots
+
+    /**
+     * Creates a footprint report configured from system properties.
+     */
+    public FootprintReport() {
+        this.matches = Math.max(2, Integer.getInteger("footprint.matches", 32));
+        this.shots = Math.min(Grid.CELLS, Integer.getInteger("footprint.shots", 40));
+        this.details = Boolean.getBoolean("footprint.details");
+        this.random = new Random(Long.getLong("footprint.seed", 42L));
+    }
+
+    /**
+     * Starts the headless toolkit, prints the report and exits.
+     *
+     * @param args ignored; the report is configured through system properties
+     */
+    public static void main(String[] args) {
+        SoakHarness.headless();
+        boolean passed;
+        try {
+            Platform.startup(() -> { });
+            new FootprintReport().run();
+            passed = true;
+        } catch (Exception e) {
+            logger.error("Footprint report aborted", e);
+            passed = false;
+        }
+        Platform.exit();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Builds the matches in both models and prints their footprint.
+     *
+     * @throws Exception if the boards cannot be built on the JavaFX Application Thread
+     */
+    public void run() throws Exception {
+        GameState[] states = new GameState[matches];
+        for (int match = 0; match < matches; match++) {
+            states[match] = midGame();
+        }
+        Board[] boards = SoakHarness.onFx(() -> {
+            Board[] built = new Board[2 * matches];
+            for (int match = 0; match < matches; match++) {
+                built[2 * match] = board(states[match], true);
+                built[2 * match + 1] = board(states[match], false);
+            }
+            return built;
+        });
+
+        System.out.println(VM.current().details());
+        System.out.printf("%-28s %14s %14s %16s%n", "model", "bytes/match", "objects/match", "matches/GiB");
+        long[] headless = perMatch(states, 1);
+        long[] ui = perMatch(boards, 2);
+        row("headless (GameState)", headless);
+        row("JavaFX (Board, Cell, Ship)", ui);
+        System.out.printf("JavaFX model is %.0fx the headless model%n", (double) ui[0] / headless[0]);
+
+        if (details) {
+            System.out.println(GraphLayout.parseInstance(states[0]).toFootprint());
+            System.out.println(GraphLayout.parseInstance(boards[0], boards[1]).toFootprint());
+        }
+    }
+
+    /**
+     * Plays random shots at both boards of a fresh match.
+     *
+     * @return the match after {@link #shots} shots at each board
+     */
+    private GameState midGame() {
+        GameState state = GameState.start(FleetLayout.random(random), FleetLayout.random(random));
+        int[] player = shuffledCells();
+        int[] enemy = shuffledCells();
+        for (int i = 0; i < shots; i++) {
+            state = GameState.of(state.player().shoot(player[i]), state.enemy().shoot(enemy[i]), false);
+        }
+        return state;
+    }
+
+    /**
+     * Builds the JavaFX board showing one side of a match. Must run on the JavaFX Application Thread.
+     */
+    private static Board board(GameState state, boolean enemy) {
+        Board board = new Board.Builder().setEnemy(enemy).setHandler((cell, button) -> { }).build();
+        board.placeFleet(enemy ? state.enemy().getLayout() : state.player().getLayout());
+        board.restore(enemy ? state.enemy() : state.player());
+        return board;
+    }
+
+    /**
+     * Measures the bytes and objects added to the heap graph by each match after the first.
+     *
+     * @param roots         the roots of every match, {@code rootsPerMatch} consecutive roots per match
+     * @param rootsPerMatch the number of roots belonging to one match
+     * @return the bytes and the number of objects per match
+     */
+    private long[] perMatch(Object[] roots, int rootsPerMatch) {
+        Object[] first = new Object[rootsPerMatch];
+        System.arraycopy(roots, 0, first, 0, rootsPerMatch);
+        GraphLayout one = GraphLayout.parseInstance(first);
+        GraphLayout all = GraphLayout.parseInstance(roots);
+        return new long[]{
+                (all.totalSize() - one.totalSize()) / (matches - 1),
+                (all.totalCount() - one.totalCount()) / (matches - 1)
+        };
+    }
+
+    /**
+     * Prints one line of the report.
+     */
+    private static void row(String model, long[] footprint) {
+        System.out.printf("%-28s %14d %14d %16.0f%n", model, footprint[0], footprint[1], GIB / footprint[0]);
+    }
+
+    /**
+     * Returns every cell index in random order.
+     */
+    private int[] shuffledCells() {
+        int[] cells = new int[Grid.CELLS];
+        for (int i = 0; i < cells.length; i++) {
+            int j = random.nextInt(i + 1);
+            cells[i] = cells[j];
+            cells[j] = i;
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,48 @@
+package org.com.battleship.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.corpus.LayoutCorpusWriter;
+import org.com.battleship.state.FleetLayout;
+
+/**
+ * Writes a reproducible corpus of random fleet layouts for regression suites and AI tournaments.
+ * The same seed and count always produce the same file.
+ * Usage:
+ * <pre>
+ * java ... org.com.battleship.tools.GenerateCorpus &lt;file&gt; &lt;count&gt; [seed]
+ * </pre>
+ */
+public class GenerateCorpus {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /**
+     * Runs the generator from the command line.
+     *
+     * @param args the corpus file, the number of layouts and optionally the random seed (default 42)
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: GenerateCorpus <file> <count> [seed]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        long count = Long.parseLong(args[1]);
+        Random random = new Random(args.length > 2 ? Long.parseLong(args[2]) : 42L);
+        long start = System.nanoTime();
+        try (LayoutCorpusWriter writer = new LayoutCorpusWriter(file)) {
+            for (long i = 0; i < count; i++) {
+                writer.write(FleetLayout.random(random));
+            }
+        } catch (IOException e) {
+            logger.error("Could not write corpus {}", file, e);
+            System.exit(1);
+        }
+        logger.info("Wrote {} layouts to {} in {} ms", count, file, (System.nanoTime() - start) / 1_000_000);
+    }
+}
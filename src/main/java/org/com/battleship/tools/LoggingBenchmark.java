@@ -0,0 +1,184 @@
+package org.com.battleship.tools;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.logging.GameLog;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+import org.com.battleship.state.ShotResult;
+
+/**
+ * Measures what logging adds to every shot, before and after the move to {@link GameLog}.
+ * <p>
+ * Headless games are played on {@link BoardState}s, so the game logic itself costs next to nothing, in
+ * three modes: without logging, with the former logging (one unsampled message per shot through a
+ * synchronous appender at TRACE, as {@code Cell.shoot} used to do) and with {@link GameLog}. For each
+ * mode it reports the time and the bytes allocated per shot on the game thread, and the overhead over
+ * the run without logging. Log files are written to {@code target/logging-benchmark} (set {@code bench.dir}).
+ * Allocation is read through {@code com.sun.management}; in a runtime image without the
+ * {@code jdk.management} module only the times are reported.
+ * </p>
+ * Run it with the {@code headless} Maven profile, which provides the exec plugin:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.LoggingBenchmark
+ * </pre>
+ * Tunables (system properties): {@code bench.shots}, {@code bench.rounds} and {@code bench.seed}, plus
+ * {@link GameLog}'s own {@code battleship.log.shot.sample} and {@code battleship.log.shot.rate}.
+ * The class deliberately has no static logger: the benchmark's Log4j configuration must be selected
+ * before Log4j starts.
+ */
+public class LoggingBenchmark {
+
+    /** Logging set-ups compared by the benchmark. */
+    private enum Mode { NONE, LEGACY, GAME_LOG }
+
+    private final long shots;   // Shots per measured round
+    private final int rounds;   // Measured rounds per mode; the first round of each mode is a warm-up
+    private final long seed;    // Seed for fleet layouts and shot order, the same for every mode
+    private final LongSupplier allocatedBytes = allocationCounter(); // Null if allocation cannot be measured
+
+    private Logger legacy;      // Stands in for the former per-class loggers at TRACE
+    private long sink;          // Consumes results so the game loop cannot be optimised away
+
+    /**
+     * Creates a benchmark configured from system properties.
+     */
+    public LoggingBenchmark() {
+        this.shots = Long.getLong("bench.shots", 2_000_000L);
+        this.rounds = Integer.getInteger("bench.rounds", 5);
+        this.seed = Long.getLong("bench.seed", 42L);
+    }
+
+    /**
+     * Selects the benchmark's Log4j configuration, runs every mode and prints the results.
+     *
+     * @param args ignored; the benchmark is configured through system properties
+     */
+    public static void main(String[] args) {
+        if (System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", "log4j2-benchmark.xml");
+        }
+        new LoggingBenchmark().run();
+        LogManager.shutdown(); // Drain the asynchronous logger before exiting
+    }
+
+    /**
+     * Runs every mode and prints time and allocation per shot.
+     */
+    public void run() {
+        legacy = LogManager.getLogger("org.com.battleship.bench.legacy");
+        double[][] results = new double[Mode.values().length][];
+        for (Mode mode : Mode.values()) {
+            results[mode.ordinal()] = measure(mode);
+        }
+        double[] none = results[Mode.NONE.ordinal()];
+        System.out.printf("%-10s %12s %14s %14s %16s%n", "mode", "ns/shot", "bytes/shot", "overhead ns", "overhead bytes");
+        for (Mode mode : Mode.values()) {
+            double[] result = results[mode.ordinal()];
+            System.out.printf("%-10s %12.1f %14.2f %14.1f %16.2f%n", mode, result[0], result[1],
+                    result[0] - none[0], result[1] - none[1]);
+        }
+        if (allocatedBytes == null) System.out.println("bytes/shot not measured: jdk.management is not available");
+        GameLog.Category shot = GameLog.Category.SHOT;
+        System.out.printf("GameLog shots: %d seen, %d logged, %d suppressed by the rate limit (%d)%n",
+                shot.getSeen(), shot.getLogged(), shot.getSuppressed(), sink & 1);
+    }
+
+    /**
+     * Plays a warm-up round and the measured rounds of a mode.
+     *
+     * @return the best time per shot in nanoseconds and the bytes allocated per shot in that round,
+     *         or {@code NaN} bytes if allocation cannot be measured
+     */
+    private double[] measure(Mode mode) {
+        play(mode, shots / 4);  // Warm-up
+        double bestNanos = Double.MAX_VALUE;
+        double bytes = Double.NaN;
+        for (int round = 0; round < rounds; round++) {
+            long allocated = allocatedBytes != null ? allocatedBytes.getAsLong() : 0;
+            long start = System.nanoTime();
+            play(mode, shots);
+            double nanos = (double) (System.nanoTime() - start) / shots;
+            if (nanos < bestNanos) {
+                bestNanos = nanos;
+                if (allocatedBytes != null) bytes = (double) (allocatedBytes.getAsLong() - allocated) / shots;
+            }
+        }
+        return new double[]{bestNanos, bytes};
+    }
+
+    /**
+     * Plays games until a number of shots has been fired, logging every shot as the mode prescribes.
+     */
+    private void play(Mode mode, long count) {
+        Random random = new Random(seed);
+        int[] order = new int[Grid.CELLS];
+        long fired = 0;
+        while (fired < count) {
+            BoardState board = BoardState.of(FleetLayout.random(random));
+            shuffle(order, random);
+            for (int i = 0; i < Grid.CELLS && board.shipsRemaining() > 0 && fired < count; i++, fired++) {
+                int index = order[i];
+                board = board.shoot(index);
+                ShotResult result = board.resultOf(index);
+                switch (mode) {
+                    case LEGACY -> legacy.info(result.isHit() ? "Ship Hit" : "No ship hit");
+                    case GAME_LOG -> GameLog.shot(true, Grid.x(index), Grid.y(index), result.isHit(),
+                            result == ShotResult.SUNK);
+                    default -> sink += result.ordinal();
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills an array with every cell index in random order.
+     */
+    private static void shuffle(int[] cells, Random random) {
+        for (int i = 0; i < cells.length; i++) {
+            int j = random.nextInt(i + 1);
+            cells[i] = cells[j];
+            cells[j] = i;
+        }
+    }
+
+    /**
+     * Returns a counter of the bytes allocated by the calling thread, if the runtime provides one.
+     *
+     * @return the counter, or {@code null} without the {@code jdk.management} module
+     */
+    private static LongSupplier allocationCounter() {
+        if (ModuleLayer.boot().findModule("jdk.management").isEmpty()) return null;
+        return AllocationCounter.create();
+    }
+
+    /**
+     * Reads thread allocation through {@code com.sun.management}. Only loaded once the
+     * {@code jdk.management} module is known to be present.
+     */
+    private static final class AllocationCounter {
+
+        /**
+         * Utility class, not meant to be instantiated.
+         */
+        private AllocationCounter() {
+        }
+
+        /**
+         * Creates the counter.
+         *
+         * @return the counter, or {@code null} if the JVM cannot count allocated bytes per thread
+         */
+        static LongSupplier create() {
+            if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                    || !threads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            return threads::getCurrentThreadAllocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.com.battleship.tools;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.persist.MatchSlot;
+import org.com.battleship.persist.MatchStore;
+import org.com.battleship.persist.StoredMatch;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.GameState;
+import org.com.battleship.state.Grid;
+
+/**
+ * Checks that a {@link MatchStore} recovers every match after a crash, and how fast.
+ * <p>
+ * Writer threads play random matches in every slot of a store and save after each shot, as fast as
+ * they can. While they run, the store file is copied: the copy holds exactly what the page cache would
+ * have held had the process been killed at that moment, including saves torn halfway. Each copy is
+ * opened as a store and every slot must recover a match its writer really saved, no older than the last
+ * save completed before the copy started. Then the newest copy of some slots is deliberately damaged,
+ * and those slots must fall back to the save before. Finally the writers stop, the store is reopened
+ * and every match must come back exactly as last saved.
+ * </p>
+ * Needs no display and runs with the {@code headless} Maven profile, which provides the exec plugin:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.MatchStoreCheck
+ * </pre>
+ * Tunables (system properties): {@code store.slots} (default 1024), {@code store.threads},
+ * {@code store.crashes} (default 5), {@code store.seed} and {@code store.maxRecoverMs}, the longest
+ * recovery allowed (default 50). Exits with status 1 if any check fails.
+ */
+public class MatchStoreCheck {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** Number of saves of each slot remembered, so a recovered match can be compared with what was saved. */
+    private static final int HISTORY = 64;
+
+    private final int slots;           // Slots in the store, all played at once
+    private final int threads;         // Writer threads
+    private final int crashes;         // Crashes simulated by copying the file
+    private final long maxRecoverNanos; // Longest recovery allowed
+    private final long seed;           // Seed of the matches
+    private final AtomicLongArray saved; // Version of each slot's last completed save
+    private final GameState[][] history; // Recent saves of each slot, indexed by version % HISTORY
+    private final GameState[] states;  // Current match in each slot
+    private final Random[] randoms;    // Source of each writer's fleets and shots
+    private volatile boolean running;  // Cleared to stop the writers
+
+    /**
+     * Creates a check configured from system properties.
+     */
+    public MatchStoreCheck() {
+        this.slots = Integer.getInteger("store.slots", 1024);
+        this.threads = Integer.getInteger("store.threads", Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.crashes = Integer.getInteger("store.crashes", 5);
+        this.maxRecoverNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("store.maxRecoverMs", 50));
+        this.seed = Long.getLong("store.seed", 42L);
+        this.saved = new AtomicLongArray(slots);
+        this.history = new GameState[slots][HISTORY];
+        this.states = new GameState[slots];
+        this.randoms = new Random[threads];
+        for (int writer = 0; writer < threads; writer++) {
+            randoms[writer] = new Random(seed + writer);
+        }
+    }
+
+    /**
+     * Runs the check and exits with its outcome.
+     *
+     * @param args ignored; the check is configured through system properties
+     */
+    public static void main(String[] args) {
+        boolean passed;
+        try {
+            passed = new MatchStoreCheck().run();
+        } catch (Exception e) {
+            logger.error("Match store check aborted", e);
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Plays matches into a store, simulates crashes and checks what is recovered.
+     *
+     * @return {@code true} if every check passed
+     * @throws Exception if the store cannot be used
+     */
+    public boolean run() throws Exception {
+        Path dir = Files.createTempDirectory("match-store-check");
+        Path file = dir.resolve("matches.bin");
+        Path crash = dir.resolve("crash.bin");
+        boolean passed = true;
+        MatchStore store = new MatchStore.Builder().setFile(file).setSlots(slots).build();
+        for (int slot = 0; slot < slots; slot++) {
+            store.claim();
+        }
+        Random random = new Random(seed);
+        for (int round = 0; round < crashes; round++) {
+            Thread[] writers = startWriters(store);
+            Thread.sleep(200 + random.nextInt(300));
+            long[] before = versions();
+            Files.copy(file, crash, StandardCopyOption.REPLACE_EXISTING);
+            long[] after = versions();
+            stopWriters(writers); // The image is taken; stopping keeps the history of saves to compare with intact
+            passed &= checkCrash(crash, before, after, random);
+        }
+        long[] last = versions();
+        store.close();
+        try (MatchStore reopened = new MatchStore.Builder().setFile(file).build()) {
+            int exact = 0;
+            for (StoredMatch match : reopened.recovered()) {
+                if (match.version() == last[match.slot()] && matches(match)) exact++;
+            }
+            boolean ok = exact == slots && reopened.getTornCopies() == 0;
+            System.out.printf("clean restart: %d of %d matches exactly as last saved, recovered in %.2f ms%n",
+                    exact, slots, reopened.getRecoverNanos() / 1e6);
+            passed &= ok;
+        }
+        Files.deleteIfExists(crash);
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Starts one writer thread per configured thread.
+     *
+     * @return the writer threads
+     */
+    private Thread[] startWriters(MatchStore store) {
+        running = true;
+        Thread[] writers = new Thread[threads];
+        for (int writer = 0; writer < threads; writer++) {
+            int first = writer;
+            writers[writer] = new Thread(() -> write(store, first), "store-writer-" + writer);
+            writers[writer].start();
+        }
+        return writers;
+    }
+
+    /**
+     * Stops the writer threads and waits for their last saves to complete.
+     */
+    private void stopWriters(Thread[] writers) throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join();
+        }
+    }
+
+    /**
+     * Opens a crash image, checks every recovered match, then damages the newest copy of some slots
+     * and checks that they fall back to the save before.
+     *
+     * @return {@code true} if the image passed
+     */
+    private boolean checkCrash(Path crash, long[] before, long[] after, Random random) throws IOException {
+        boolean passed = true;
+        long saves = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            saves += after[slot] - before[slot];
+        }
+        try (MatchStore image = new MatchStore.Builder().setFile(crash).build()) {
+            int good = 0;
+            for (StoredMatch match : image.recovered()) {
+                int slot = match.slot();
+                // A save still in progress when the copy finished may have been caught complete
+                if (match.version() >= before[slot] && match.version() <= after[slot] + 1 && matches(match)) good++;
+            }
+            boolean ok = good == slots && image.getRecoverNanos() <= maxRecoverNanos;
+            System.out.printf("crash with %d saves during the copy: %d of %d matches recovered, %d torn copies, %.2f ms%n",
+                    saves, good, slots, image.getTornCopies(), image.getRecoverNanos() / 1e6);
+            passed &= ok;
+        }
+
+        int damaged = Math.max(1, slots / 10);
+        long[] newest = new long[slots];
+        try (FileChannel channel = FileChannel.open(crash, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < damaged; i++) {
+                int slot = random.nextInt(slots);
+                if (newest[slot] != 0) continue; // Already damaged
+                newest[slot] = damageNewest(channel, slot, random);
+            }
+        }
+        try (MatchStore image = new MatchStore.Builder().setFile(crash).build()) {
+            int fellBack = 0;
+            int hit = 0;
+            for (StoredMatch match : image.recovered()) {
+                if (newest[match.slot()] == 0) continue;
+                hit++;
+                if (match.version() == newest[match.slot()] - 1 && matches(match)) fellBack++;
+            }
+            boolean ok = fellBack == hit && image.getTornCopies() >= hit;
+            System.out.printf("  damaged the newest copy of %d slots: %d fell back to the save before%n", hit, fellBack);
+            passed &= ok;
+        }
+        return passed;
+    }
+
+    /**
+     * Flips a byte in the body of a slot's newest copy.
+     *
+     * @return the version of the damaged copy
+     */
+    private static long damageNewest(FileChannel channel, int slot, Random random) throws IOException {
+        ByteBuffer copies = ByteBuffer.allocate(MatchSlot.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(copies, MatchSlot.HEADER + (long) slot * MatchSlot.SIZE);
+        long first = copies.getLong(MatchSlot.VERSION);
+        long second = copies.getLong(MatchSlot.COPY + MatchSlot.VERSION);
+        int copy = first > second ? 0 : MatchSlot.COPY;
+        int offset = copy + MatchSlot.VERSION + 8 + random.nextInt(MatchSlot.COPY - MatchSlot.VERSION - 8); // Anywhere after the version
+        ByteBuffer flipped = ByteBuffer.wrap(new byte[]{(byte) ~copies.get(offset)});
+        channel.write(flipped, MatchSlot.HEADER + (long) slot * MatchSlot.SIZE + offset);
+        return Math.max(first, second);
+    }
+
+    /**
+     * Checks that a recovered match is the position its writer saved under that version.
+     */
+    private boolean matches(StoredMatch match) {
+        GameState expected = history[match.slot()][(int) (match.version() % HISTORY)];
+        GameState actual = match.state();
+        return expected != null && expected.isEnemyTurn() == actual.isEnemyTurn()
+                && same(expected.player(), actual.player()) && same(expected.enemy(), actual.enemy());
+    }
+
+    /**
+     * Checks that two boards have the same fleet and the same cells shot.
+     */
+    private static boolean same(BoardState expected, BoardState actual) {
+        FleetLayout a = expected.getLayout();
+        FleetLayout b = actual.getLayout();
+        return expected.shotLo() == actual.shotLo() && expected.shotHi() == actual.shotHi()
+                && a.occupiedLo() == b.occupiedLo() && a.occupiedHi() == b.occupiedHi() && a.size() == b.size();
+    }
+
+    /**
+     * Reads the version of every slot's last completed save.
+     */
+    private long[] versions() {
+        long[] versions = new long[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            versions[slot] = saved.get(slot);
+        }
+        return versions;
+    }
+
+    /**
+     * Plays random matches in the slots owned by one writer, saving after every shot, until stopped.
+     * Finished matches are started over in the same slot; unfinished ones are continued by the next writers.
+     */
+    private void write(MatchStore store, int first) {
+        Random random = randoms[first];
+        int[] order = new int[Grid.CELLS];
+        while (running) {
+            for (int slot = first; slot < slots && running; slot += threads) {
+                GameState state = states[slot];
+                if (state == null || state.isOver()) {
+                    state = GameState.start(FleetLayout.random(random), FleetLayout.random(random));
+                } else {
+                    BoardState target = state.isEnemyTurn() ? state.player() : state.enemy();
+                    int cell;
+                    do {
+                        cell = random.nextInt(Grid.CELLS);
+                    } while (target.isShot(cell));
+                    state = state.shoot(cell);
+                }
+                states[slot] = state;
+                long version = store.getVersion(slot) + 1;
+                history[slot][(int) (version % HISTORY)] = state; // Recorded before the save can be seen
+                store.save(slot, state, Difficulty.MEDIUM, false, order, 0);
+                saved.set(slot, version);
+            }
+        }
+    }
+}
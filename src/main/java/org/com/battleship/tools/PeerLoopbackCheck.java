@@ -0,0 +1,286 @@
+package org.com.battleship.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.net.FleetCommitment;
+import org.com.battleship.net.PeerListener;
+import org.com.battleship.net.PeerProtocol;
+import org.com.battleship.net.PeerSession;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+import org.com.battleship.state.ShotResult;
+
+/**
+ * Plays peer-to-peer games over the loopback interface and checks that they end consistently.
+ * <p>
+ * Two {@link PeerSession}s, a host and a guest, play complete games against each other with random
+ * shooters that fire from the listener callbacks, so the measured shot round trips contain nothing but
+ * the sessions and the network stack. Every game must end with exactly one winner and with each side
+ * confirming the other's revealed fleet. A final game is played against a dishonest guest that commits
+ * to random bytes and reports every shot as a miss; the host must reject it.
+ * </p>
+ * Needs no display and runs with the {@code headless} Maven profile, which provides the exec plugin:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.PeerLoopbackCheck
+ * </pre>
+ * Tunables (system properties): {@code peer.games}, {@code peer.seed} and {@code peer.timeoutSeconds},
+ * the time one game may take. Exits with status 1 if any check fails.
+ */
+public class PeerLoopbackCheck {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final int games;           // Honest games to play
+    private final long timeoutSeconds; // Time one game may take
+    private final Random random;       // Drives fleets and shot order
+    private final List<Long> roundTrips = new ArrayList<>(); // Every answered shot's round trip, both sides
+    private final ExecutorService executor = Executors.newCachedThreadPool(); // Accepts and runs the cheater
+
+    /**
+     * Creates a check configured from system properties.
+     */
+    public PeerLoopbackCheck() {
+        this.games = Integer.getInteger("peer.games", 20);
+        this.timeoutSeconds = Long.getLong("peer.timeoutSeconds", 10);
+        this.random = new Random(Long.getLong("peer.seed", 42L));
+    }
+
+    /**
+     * Runs the check and exits with its outcome.
+     *
+     * @param args ignored; the check is configured through system properties
+     */
+    public static void main(String[] args) {
+        boolean passed;
+        try {
+            passed = new PeerLoopbackCheck().run();
+        } catch (Exception e) {
+            logger.error("Peer loopback check aborted", e);
+            passed = false;
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Plays the honest games and the game against the dishonest guest, and prints the results.
+     *
+     * @return {@code true} if every check passed
+     * @throws Exception if a game cannot be set up or does not finish in time
+     */
+    public boolean run() throws Exception {
+        boolean passed = true;
+        int hostWins = 0;
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            for (int game = 0; game < games; game++) {
+                Shooter host = new Shooter();
+                Shooter guest = new Shooter();
+                PeerSession.Builder hostSession = session(host);
+                Future<PeerSession> accepted = executor.submit(() -> hostSession.accept(server));
+                guest.attach(session(guest).connect(server.getInetAddress().getHostAddress(), server.getLocalPort()));
+                host.attach(accepted.get(timeoutSeconds, TimeUnit.SECONDS));
+                boolean finished = host.await(timeoutSeconds) && guest.await(timeoutSeconds);
+                boolean revealed = host.session.getRevealedLayout() != null && guest.session.getRevealedLayout() != null;
+                host.session.close();
+                guest.session.close();
+                if (!finished || !revealed || !host.honest || !guest.honest || host.won == guest.won) {
+                    System.out.printf("game %d FAILED: finished %b, revealed %b, host %s (%s), guest %s (%s)%n", game,
+                            finished, revealed, host.honest, host.detail, guest.honest, guest.detail);
+                    passed = false;
+                }
+                hostWins += host.won ? 1 : 0;
+                roundTrips.addAll(host.roundTrips);
+                roundTrips.addAll(guest.roundTrips);
+            }
+            System.out.printf("%d honest games, host won %d, all fleets verified: %b%n", games, hostWins, passed);
+            printRoundTrips();
+
+            Shooter host = new Shooter();
+            long cheatSeed = random.nextLong();
+            Future<?> cheater = executor.submit(() -> cheat(server.getLocalPort(), cheatSeed));
+            host.attach(session(host).accept(server));
+            boolean caught = host.await(timeoutSeconds) && !host.honest && host.session.getRevealedLayout() == null;
+            host.session.close();
+            cheater.get(timeoutSeconds, TimeUnit.SECONDS);
+            System.out.printf("dishonest guest caught: %b (%s)%n", caught, host.detail);
+            passed &= caught;
+        } finally {
+            executor.shutdownNow();
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    /**
+     * Prepares a session with a random fleet for a shooter.
+     */
+    private PeerSession.Builder session(Shooter shooter) {
+        return new PeerSession.Builder().setLayout(FleetLayout.random(random)).setListener(shooter);
+    }
+
+    /**
+     * Prints the median, 95th percentile and maximum of the shot round trips.
+     */
+    private void printRoundTrips() {
+        long[] sorted = roundTrips.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) return;
+        System.out.printf("shot round trip over %d shots: p50 %.1f us, p95 %.1f us, max %.1f us%n", sorted.length,
+                sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.95)] / 1e3,
+                sorted[sorted.length - 1] / 1e3);
+    }
+
+    /**
+     * Joins the host as a dishonest guest: commits to random bytes, reports every shot as a miss,
+     * fires at the host's cells in order and finally reveals a random fleet.
+     *
+     * @param port the host's port
+     * @param seed the seed of the dishonest guest's commitment, shots and revealed fleet
+     * @return {@code null}
+     * @throws IOException if the connection fails
+     */
+    private Void cheat(int port, long seed) throws IOException {
+        Random cheat = new Random(seed);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            byte[] bogus = new byte[PeerProtocol.HASH];
+            cheat.nextBytes(bogus);
+            out.write(PeerProtocol.hello(false));
+            out.write(PeerProtocol.commit(bogus));
+            out.flush();
+            int shots = 0;
+            int sunk = 0;
+            byte[] message;
+            while ((message = PeerProtocol.read(in)) != null && message[0] != PeerProtocol.BYE) {
+                switch (message[0]) {
+                    case PeerProtocol.SHOT -> {
+                        out.write(PeerProtocol.result(PeerProtocol.sequence(message), PeerProtocol.cell(message),
+                                ShotResult.MISS, 0));
+                        out.write(PeerProtocol.shot(shots, shots++)); // A "miss" passes the turn to us
+                    }
+                    case PeerProtocol.RESULT -> {
+                        sunk += PeerProtocol.result(message) == ShotResult.SUNK ? 1 : 0;
+                        if (PeerProtocol.result(message).isHit() && sunk < FleetLayout.standardFleet().length) {
+                            out.write(PeerProtocol.shot(shots, shots++));
+                        }
+                    }
+                    case PeerProtocol.REVEAL -> {
+                        byte[] salt = new byte[PeerProtocol.SALT];
+                        cheat.nextBytes(salt);
+                        out.write(PeerProtocol.reveal(salt, FleetCommitment.encode(FleetLayout.random(cheat))));
+                    }
+                    default -> { }
+                }
+                out.flush();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plays one side of a game by firing at random unshot cells whenever it is its turn,
+     * directly from the session's callbacks.
+     */
+    private class Shooter implements PeerListener {
+        private final int[] order = new int[Grid.CELLS]; // Cells in the order they are fired at
+        private final CountDownLatch verified = new CountDownLatch(1); // Released once the other fleet is checked
+        private final List<Long> roundTrips = new ArrayList<>(); // Round trip of each answered shot
+        private volatile PeerSession session;  // Set once the session has been created
+        private int next;                      // Index of the next cell in the order
+        private volatile boolean won;          // Whether this side sank the other fleet
+        private volatile boolean honest;       // Whether the other peer's answers were confirmed
+        private volatile String detail = "not verified"; // Outcome of the verification
+
+        /**
+         * Shuffles the cells to fire at.
+         */
+        Shooter() {
+            for (int i = 0; i < order.length; i++) {
+                int j = random.nextInt(i + 1);
+                order[i] = order[j];
+                order[j] = i;
+            }
+        }
+
+        /**
+         * Hands the shooter its session; events may already have arrived, so fires if it is our turn.
+         */
+        void attach(PeerSession session) {
+            this.session = session;
+            fire();
+        }
+
+        /**
+         * Waits until the other peer's fleet has been checked.
+         *
+         * @return {@code false} if it was not checked in time
+         */
+        boolean await(long seconds) throws InterruptedException {
+            return verified.await(seconds, TimeUnit.SECONDS);
+        }
+
+        /**
+         * Fires at the next cell if it is our turn.
+         */
+        private synchronized void fire() {
+            PeerSession current = session;
+            if (current == null) return;
+            while (next < order.length && current.isMyTurn()) {
+                if (current.shoot(order[next++])) return;
+            }
+        }
+
+        @Override
+        public void onReady(boolean myTurn) {
+            if (myTurn) fire();
+        }
+
+        @Override
+        public void onShotResult(int cell, ShotResult result, int sunkType, boolean myTurn) {
+            roundTrips.add(session.getRoundTripNanos());
+            if (myTurn) fire();
+        }
+
+        @Override
+        public void onIncomingShot(int cell, ShotResult result, boolean myTurn) {
+            if (myTurn) fire();
+        }
+
+        @Override
+        public void onGameOver(boolean won) {
+            this.won = won;
+        }
+
+        @Override
+        public void onVerified(boolean honest, String detail) {
+            this.honest = honest;
+            this.detail = detail;
+            verified.countDown();
+        }
+
+        @Override
+        public void onClosed(Exception cause) {
+            if (cause != null) {
+                detail = "connection failed: " + cause.getMessage();
+                verified.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.com.battleship.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Minimal PNG encoder for 8-bit RGB images, so the tools can write images without pulling
+ * {@code java.desktop} into the module graph.
+ */
+final class PngWriter {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private PngWriter() {
+    }
+
+    /**
+     * Writes an image to a file.
+     *
+     * @param file   the file to write
+     * @param width  the image width in pixels
+     * @param height the image height in pixels
+     * @param rgb    the pixels row by row as {@code 0xRRGGBB}
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, int width, int height, int[] rgb) throws IOException {
+        ByteArrayOutputStream pixels = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(pixels)) {
+            byte[] row = new byte[1 + 3 * width];  // Filter type 0 followed by the row's samples
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int color = rgb[y * width + x];
+                    row[1 + 3 * x] = (byte) (color >> 16);
+                    row[2 + 3 * x] = (byte) (color >> 8);
+                    row[3 + 3 * x] = (byte) color;
+                }
+                deflater.write(row);
+            }
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(header);
+        data.writeInt(width);
+        data.writeInt(height);
+        data.writeByte(8);  // Bit depth
+        data.writeByte(2);  // Colour type: RGB
+        data.writeByte(0);  // Compression method
+        data.writeByte(0);  // Filter method
+        data.writeByte(0);  // No interlacing
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(SIGNATURE);
+            chunk(out, "IHDR", header.toByteArray());
+            chunk(out, "IDAT", pixels.toByteArray());
+            chunk(out, "IEND", new byte[0]);
+        }
+    }
+
+    /**
+     * Writes a chunk: length, type, data and the CRC of type and data.
+     */
+    private static void chunk(OutputStream out, String type, byte[] data) throws IOException {
+        DataOutputStream stream = new DataOutputStream(out);
+        byte[] name = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(name);
+        crc.update(data);
+        stream.writeInt(data.length);
+        stream.write(name);
+        stream.write(data);
+        stream.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,386 @@
+package org.com.battleship.tools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.controller.GameController;
+import org.com.battleship.model.Board;
+import org.com.battleship.model.Cell;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+
+/**
+ * Headless soak test that plays thousands of consecutive games through the real
+ * {@link GameController}, driving it with synthetic mouse events exactly like a player would
+ * and restarting through the end screen's "Play Again" button.
+ * <p>
+ * Every few games it forces a garbage collection and records the heap in use, how many boards
+ * from earlier games are still reachable (and how many nodes they hold) and the average time
+ * per game. The run fails with exit status 1 if heap or game time drift upwards, or if old
+ * boards pile up, over the course of the run.
+ * </p>
+ * Run it on the headless Monocle toolkit with the {@code headless} Maven profile:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.SoakHarness -Dsoak.games=5000
+ * </pre>
+ * Tunables (system properties): {@code soak.games}, {@code soak.sample}, {@code soak.seed},
+ * {@code soak.maxHeapGrowth}, {@code soak.maxTimeGrowth} and {@code soak.maxLiveBoards}.
+ */
+public class SoakHarness {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** How long to wait for a single task on the JavaFX Application Thread. */
+    private static final long FX_TIMEOUT_SECONDS = 30;
+
+    private final int games;            // Number of games to play
+    private final int sampleEvery;      // Number of games between heap samples
+    private final double maxHeapGrowth; // Largest tolerated relative heap growth over the run
+    private final double maxTimeGrowth; // Largest tolerated relative growth of the time per game
+    private final int maxLiveBoards;    // Largest tolerated number of reachable boards after a GC
+    private final Random random;        // Drives fleet layouts and shot order
+
+    private final List<WeakReference<Board>> boards = new ArrayList<>(); // Every board seen so far
+    private final List<double[]> samples = new ArrayList<>(); // {game, heap bytes, ms per game}
+
+    /**
+     * Creates a soak harness configured from system properties.
+     */
+    public SoakHarness() {
+        this.games = Integer.getInteger("soak.games", 2000);
+        this.sampleEvery = Integer.getInteger("soak.sample", 50);
+        this.maxHeapGrowth = Double.parseDouble(System.getProperty("soak.maxHeapGrowth", "0.25"));
+        this.maxTimeGrowth = Double.parseDouble(System.getProperty("soak.maxTimeGrowth", "0.5"));
+        this.maxLiveBoards = Integer.getInteger("soak.maxLiveBoards", 4);
+        this.random = new Random(Long.getLong("soak.seed", 42L));
+    }
+
+    /**
+     * Starts the headless toolkit, runs the soak test and exits with status 0 on success or 1 on failure.
+     *
+     * @param args ignored; the harness is configured through system properties
+     */
+    public static void main(String[] args) {
+        headless();
+        boolean passed;
+        try {
+            Platform.startup(() -> { });
+            passed = new SoakHarness().run();
+        } catch (Exception e) {
+            logger.error("Soak test aborted", e);
+            passed = false;
+        }
+        Platform.exit();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Selects the headless Monocle toolkit with software rendering, and a scratch shot-profile
+     * directory, unless already configured.
+     */
+    static void headless() {
+        setDefault("glass.platform", "Monocle");
+        setDefault("monocle.platform", "Headless");
+        setDefault("prism.order", "sw");
+        setDefault("prism.text", "t2k");
+        setDefault("java.awt.headless", "true");
+        setDefault("battleship.profileDir",  // Keep scripted games out of the real player's shot profile
+                Path.of(System.getProperty("java.io.tmpdir"), "battleship-headless-profiles").toString());
+    }
+
+    /**
+     * Plays all games and checks the recorded samples for drift.
+     *
+     * @return {@code true} if no drift was detected
+     * @throws Exception if a game cannot be driven
+     */
+    public boolean run() throws Exception {
+        Stage stage = onFx(() -> {
+            Stage window = new Stage();
+            GameController controller = new GameController(window);
+            controller.setShotCadence(0, TimeUnit.MILLISECONDS); // Show enemy shots at once so few clicks are ignored
+            window.setScene(new Scene(controller.createBoard()));
+            window.show();
+            controller.onShown();
+            return window;
+        });
+
+        long windowStart = System.nanoTime();
+        for (int game = 1; game <= games; game++) {
+            playGame(stage);
+            onFx(() -> {
+                findButton(stage.getScene().getRoot(), "Play Again").fire();
+                return null;
+            });
+            if (game % sampleEvery == 0) {
+                double msPerGame = (System.nanoTime() - windowStart) / 1e6 / sampleEvery;
+                sample(game, msPerGame);
+                windowStart = System.nanoTime();
+            }
+        }
+        onFx(() -> {
+            stage.close();
+            return null;
+        });
+        return check();
+    }
+
+    /**
+     * Plays one game: places the player's fleet, then shoots at the enemy board until the end screen appears.
+     */
+    private void playGame(Stage stage) throws Exception {
+        Scene gameScene = onFx(stage::getScene);
+        Board[] pair = onFx(() -> findBoards(gameScene.getRoot()));
+        Board enemy = pair[0];
+        Board player = pair[1];
+        boards.add(new WeakReference<>(enemy));
+        boards.add(new WeakReference<>(player));
+
+        // Place a random legal fleet, largest ship first, in the order the controller expects
+        FleetLayout fleet = FleetLayout.random(random);
+        onFx(() -> {
+            for (int ship = 0; ship < fleet.size(); ship++) {
+                int origin = fleet.origin(ship);
+                click(player.getCell(Grid.x(origin), Grid.y(origin)),
+                        fleet.isVertical(ship) ? MouseButton.PRIMARY : MouseButton.SECONDARY);
+            }
+            return null;
+        });
+
+        // Shoot every cell in random order until the game is over; clicks made while the enemy
+        // is still choosing its shots are ignored by the game and are retried
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(FX_TIMEOUT_SECONDS);
+        int[] order = shuffledCells();
+        for (int i = 0; i < order.length && onFx(() -> stage.getScene() == gameScene); ) {
+            int index = order[i];
+            boolean accepted = onFx(() -> {
+                Cell cell = enemy.getCell(Grid.x(index), Grid.y(index));
+                if (!cell.getWasShot()) click(cell, MouseButton.PRIMARY);
+                return cell.getWasShot();
+            });
+            if (accepted) {
+                i++;
+            } else {
+                Thread.sleep(1);
+            }
+            if (System.nanoTime() > deadline) throw new IllegalStateException("Game did not finish");
+        }
+
+        // Enemy turns may still be playing out; wait for the end screen
+        while (onFx(() -> stage.getScene() == gameScene)) {
+            if (System.nanoTime() > deadline) throw new IllegalStateException("Game did not finish");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Forces a garbage collection and records heap use, reachable boards and time per game.
+     */
+    private void sample(int game, double msPerGame) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        long heap = memory.getHeapMemoryUsage().getUsed();
+        int[] live = onFx(() -> {
+            int liveBoards = 0;
+            int liveNodes = 0;
+            for (WeakReference<Board> reference : boards) {
+                Board board = reference.get();
+                if (board == null) continue;
+                liveBoards++;
+                liveNodes += countNodes(board);
+            }
+            return new int[]{liveBoards, liveNodes};
+        });
+        boards.removeIf(reference -> reference.get() == null);
+        samples.add(new double[]{game, heap, msPerGame, live[0]});
+        logger.info("Game {}: heap {} KB, {} live boards ({} nodes), {} ms/game",
+                game, heap / 1024, live[0], live[1], String.format("%.2f", msPerGame));
+    }
+
+    /**
+     * Fits a line through the samples taken after warm-up and fails if heap or game time
+     * are projected to grow by more than the tolerated fraction over the run.
+     */
+    private boolean check() {
+        List<double[]> steady = samples.subList(Math.min(samples.size(), Math.max(1, samples.size() / 10)), samples.size());
+        if (steady.size() < 3) {
+            logger.warn("Too few samples to judge drift; play more games or sample more often");
+            return true;
+        }
+        boolean passed = true;
+        double heapGrowth = projectedGrowth(steady, 1);
+        double timeGrowth = projectedGrowth(steady, 2);
+        logger.info("Projected growth over the run: heap {}%, time per game {}%",
+                String.format("%.1f", heapGrowth * 100), String.format("%.1f", timeGrowth * 100));
+        if (heapGrowth > maxHeapGrowth) {
+            logger.error("Heap drifts upwards by {}% (limit {}%)", heapGrowth * 100, maxHeapGrowth * 100);
+            passed = false;
+        }
+        if (timeGrowth > maxTimeGrowth) {
+            logger.error("Game time drifts upwards by {}% (limit {}%)", timeGrowth * 100, maxTimeGrowth * 100);
+            passed = false;
+        }
+        for (double[] sample : steady) {
+            if (sample[3] > maxLiveBoards) {
+                logger.error("{} boards still reachable after game {} (limit {})", (int) sample[3], (int) sample[0], maxLiveBoards);
+                passed = false;
+                break;
+            }
+        }
+        logger.info(passed ? "Soak test passed" : "Soak test failed");
+        return passed;
+    }
+
+    /**
+     * Projects the relative growth of a sampled metric across the samples using a least-squares line.
+     *
+     * @param samples the samples to fit
+     * @param column  the column of the metric within each sample
+     * @return the fitted growth from the first to the last sample, relative to the mean
+     */
+    private static double projectedGrowth(List<double[]> samples, int column) {
+        int n = samples.size();
+        double meanX = 0;
+        double meanY = 0;
+        for (double[] sample : samples) {
+            meanX += sample[0] / n;
+            meanY += sample[column] / n;
+        }
+        double covariance = 0;
+        double variance = 0;
+        for (double[] sample : samples) {
+            covariance += (sample[0] - meanX) * (sample[column] - meanY);
+            variance += (sample[0] - meanX) * (sample[0] - meanX);
+        }
+        double slope = covariance / variance;
+        double span = samples.get(n - 1)[0] - samples.get(0)[0];
+        return meanY == 0 ? 0 : slope * span / meanY;
+    }
+
+    /**
+     * Fires a synthetic mouse click at the centre of a node, routed through the scene like a real click.
+     *
+     * @param target the node to click
+     * @param button the mouse button to click with
+     */
+    static void click(Node target, MouseButton button) {
+        Bounds bounds = target.localToScene(target.getBoundsInLocal());
+        double x = bounds.getCenterX();
+        double y = bounds.getCenterY();
+        Event.fireEvent(target, new MouseEvent(MouseEvent.MOUSE_CLICKED, x, y, x, y, button, 1,
+                false, false, false, false,
+                button == MouseButton.PRIMARY, button == MouseButton.MIDDLE, button == MouseButton.SECONDARY,
+                true, false, true, null));
+    }
+
+    /**
+     * Finds the enemy and player boards of a game scene, in that order.
+     *
+     * @param root the root of the game scene
+     * @return the enemy board followed by the player board
+     */
+    static Board[] findBoards(Parent root) {
+        List<Board> found = new ArrayList<>(2);
+        collectBoards(root, found);
+        if (found.size() != 2) throw new IllegalStateException("Expected 2 boards but found " + found.size());
+        return found.toArray(new Board[0]);
+    }
+
+    /**
+     * Finds a button by its text.
+     *
+     * @param root the node to search from
+     * @param text the text of the button
+     * @return the button
+     */
+    static Button findButton(Parent root, String text) {
+        for (Node node : root.lookupAll(".button")) {
+            if (node instanceof Button button && text.equals(button.getText())) return button;
+        }
+        throw new IllegalStateException("No button labelled " + text);
+    }
+
+    /**
+     * Runs a task on the JavaFX Application Thread and waits for its result.
+     *
+     * @param task the task to run
+     * @param <T>  the type of the result
+     * @return the result of the task
+     * @throws Exception if the task fails or does not finish in time
+     */
+    static <T> T onFx(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        Platform.runLater(future);
+        return future.get(FX_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Collects boards depth-first so the enemy board (laid out first) comes first.
+     */
+    private static void collectBoards(Node node, List<Board> found) {
+        if (node instanceof Board board) {
+            found.add(board);
+            return;
+        }
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                collectBoards(child, found);
+            }
+        }
+    }
+
+    /**
+     * Counts a node and all of its descendants.
+     */
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent parent) {
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns every cell index in random order.
+     */
+    private int[] shuffledCells() {
+        int[] cells = new int[Grid.CELLS];
+        for (int i = 0; i < cells.length; i++) {
+            int j = random.nextInt(i + 1);
+            cells[i] = cells[j];
+            cells[j] = i;
+        }
+        return cells;
+    }
+
+    /**
+     * Sets a system property unless it is already set.
+     */
+    static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) System.setProperty(key, value);
+    }
+}
@@ -0,0 +1,356 @@
+package org.com.battleship.tools;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.stage.Stage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.model.Board;
+import org.com.battleship.model.Cell;
+import org.com.battleship.startup.GameScenePreloader;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.Grid;
+
+/**
+ * Headless UI performance test that plays whole games through the real user interface and fails
+ * if the JavaFX Application Thread stops keeping up.
+ * <p>
+ * The harness opens the main menu from {@code main_menu.fxml}, starts the game with a key press
+ * handled by {@link org.com.battleship.controller.SceneController#startGame}, places the player's
+ * fleet through the board's handlers and then shoots at the enemy board, all with synthetic events,
+ * restarting through the end screen's "Play Again" button. While it plays it records:
+ * </p>
+ * <ul>
+ *     <li>frame time: the interval between consecutive pulses, which grows whenever an event
+ *     handler such as the enemy's move holds up the JavaFX Application Thread;</li>
+ *     <li>pulse time: the work of one pulse on that thread, from animation to the end of layout;</li>
+ *     <li>event-to-repaint latency: from dispatching an accepted click until layout has finished
+ *     in the pulse that shows its effect.</li>
+ * </ul>
+ * The run fails with exit status 1 if the 95th percentile of frame time or latency exceeds its budget.
+ * Run it on the headless Monocle toolkit with the {@code headless} Maven profile:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.UiPerfHarness -Dbattleship.difficulty=hard
+ * </pre>
+ * Tunables (system properties): {@code uiperf.games}, {@code uiperf.warmup}, {@code uiperf.seed},
+ * {@code uiperf.frameBudgetMs} and {@code uiperf.latencyBudgetMs}. Enemy shots are animated at
+ * {@code battleship.shotCadence}, 50 ms unless set, so animation pulses are part of the measurement.
+ */
+public class UiPerfHarness {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    /** How long a single game may take before the run is aborted. */
+    private static final long GAME_TIMEOUT_SECONDS = 120;
+
+    private final int games;             // Number of measured games
+    private final int warmup;            // Number of games played first without measuring
+    private final double frameBudgetMs;  // Largest tolerated 95th percentile of frame time
+    private final double latencyBudgetMs; // Largest tolerated 95th percentile of event-to-repaint latency
+    private final Random random;         // Drives fleet layouts and shot order
+
+    private final FrameRecorder recorder = new FrameRecorder(); // Only touched on the JavaFX Application Thread
+
+    /**
+     * Creates a UI performance harness configured from system properties.
+     */
+    public UiPerfHarness() {
+        this.games = Integer.getInteger("uiperf.games", 10);
+        this.warmup = Integer.getInteger("uiperf.warmup", 2);
+        this.frameBudgetMs = Double.parseDouble(System.getProperty("uiperf.frameBudgetMs", "25"));
+        this.latencyBudgetMs = Double.parseDouble(System.getProperty("uiperf.latencyBudgetMs", "50"));
+        this.random = new Random(Long.getLong("uiperf.seed", 42L));
+    }
+
+    /**
+     * Starts the headless toolkit, runs the test and exits with status 0 on success or 1 on failure.
+     *
+     * @param args ignored; the harness is configured through system properties
+     */
+    public static void main(String[] args) {
+        SoakHarness.headless();
+        SoakHarness.setDefault("battleship.shotCadence", "50");
+        boolean passed;
+        try {
+            Platform.startup(() -> { });
+            passed = new UiPerfHarness().run();
+        } catch (Exception e) {
+            logger.error("UI performance test aborted", e);
+            passed = false;
+        }
+        Platform.exit();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Plays all games through the menu and the game scene and checks the recorded timings.
+     *
+     * @return {@code true} if both percentiles are within budget
+     * @throws Exception if the interface cannot be driven
+     */
+    public boolean run() throws Exception {
+        Stage stage = SoakHarness.onFx(() -> {
+            Stage window = new Stage();
+            Parent menu = FXMLLoader.load(Objects.requireNonNull(
+                    UiPerfHarness.class.getClassLoader().getResource("main_menu.fxml")));
+            window.setScene(new Scene(menu));
+            window.show();
+            GameScenePreloader.start(window); // As the application does while the menu is shown
+            recorder.start();
+            return window;
+        });
+
+        // Any key on the menu starts the game, exactly as for a player
+        SoakHarness.onFx(() -> {
+            Parent menu = stage.getScene().getRoot();
+            Event.fireEvent(menu, new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.ENTER,
+                    false, false, false, false));
+            return null;
+        });
+
+        for (int game = 1; game <= warmup + games; game++) {
+            boolean measured = game > warmup;
+            Scene gameScene = SoakHarness.onFx(() -> {
+                Scene scene = stage.getScene();
+                recorder.track(scene, measured);
+                return scene;
+            });
+            playGame(stage, gameScene);
+            SoakHarness.onFx(() -> {
+                SoakHarness.findButton(stage.getScene().getRoot(), "Play Again").fire();
+                return null;
+            });
+        }
+
+        Report report = SoakHarness.onFx(() -> {
+            recorder.stop();
+            stage.close();
+            return recorder.report();
+        });
+        return check(report);
+    }
+
+    /**
+     * Plays one game: places the player's fleet, then shoots at the enemy board until the end screen
+     * appears. Clicks made while the enemy is moving are ignored by the game and are retried.
+     */
+    private void playGame(Stage stage, Scene gameScene) throws Exception {
+        Board[] pair = SoakHarness.onFx(() -> SoakHarness.findBoards(gameScene.getRoot()));
+        Board enemy = pair[0];
+        Board player = pair[1];
+
+        FleetLayout fleet = FleetLayout.random(random);
+        for (int ship = 0; ship < fleet.size(); ship++) {
+            int origin = fleet.origin(ship);
+            MouseButton button = fleet.isVertical(ship) ? MouseButton.PRIMARY : MouseButton.SECONDARY;
+            SoakHarness.onFx(() -> {
+                long dispatched = System.nanoTime();
+                SoakHarness.click(player.getCell(Grid.x(origin), Grid.y(origin)), button);
+                recorder.dispatched(dispatched);
+                return null;
+            });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(GAME_TIMEOUT_SECONDS);
+        int[] order = shuffledCells();
+        for (int i = 0; i < order.length && SoakHarness.onFx(() -> stage.getScene() == gameScene); ) {
+            Cell cell = enemy.getCell(Grid.x(order[i]), Grid.y(order[i]));
+            boolean accepted = SoakHarness.onFx(() -> {
+                if (cell.getWasShot()) return true;
+                long dispatched = System.nanoTime();
+                SoakHarness.click(cell, MouseButton.PRIMARY);
+                if (!cell.getWasShot()) return false;  // The enemy is still moving
+                recorder.dispatched(dispatched);
+                return true;
+            });
+            if (accepted) {
+                i++;
+            } else {
+                Thread.sleep(2);
+            }
+            if (System.nanoTime() > deadline) throw new IllegalStateException("Game did not finish");
+        }
+
+        while (SoakHarness.onFx(() -> stage.getScene() == gameScene)) {
+            if (System.nanoTime() > deadline) throw new IllegalStateException("Game did not finish");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Logs the timings and compares the 95th percentiles with their budgets.
+     */
+    private boolean check(Report report) {
+        logger.info("Frame time over {} frames: {}", report.frames().size(), report.frames());
+        logger.info("Pulse time over {} pulses: {}", report.pulses().size(), report.pulses());
+        logger.info("Event-to-repaint latency over {} events: {}", report.latencies().size(), report.latencies());
+        boolean passed = true;
+        if (report.frames().size() == 0 || report.latencies().size() == 0) {
+            logger.error("No frames or events were recorded");
+            passed = false;
+        }
+        double frameP95 = report.frames().millisAt(0.95);
+        if (frameP95 > frameBudgetMs) {
+            logger.error("p95 frame time {} ms exceeds the budget of {} ms", String.format("%.2f", frameP95), frameBudgetMs);
+            passed = false;
+        }
+        double latencyP95 = report.latencies().millisAt(0.95);
+        if (latencyP95 > latencyBudgetMs) {
+            logger.error("p95 event-to-repaint latency {} ms exceeds the budget of {} ms",
+                    String.format("%.2f", latencyP95), latencyBudgetMs);
+            passed = false;
+        }
+        logger.info(passed ? "UI performance test passed" : "UI performance test failed");
+        return passed;
+    }
+
+    /**
+     * Returns every cell index in random order.
+     */
+    private int[] shuffledCells() {
+        int[] cells = new int[Grid.CELLS];
+        for (int i = 0; i < cells.length; i++) {
+            int j = random.nextInt(i + 1);
+            cells[i] = cells[j];
+            cells[j] = i;
+        }
+        return cells;
+    }
+
+    /**
+     * Times pulses and repaints. An animation timer marks the start of every pulse, and thereby keeps
+     * pulses coming every frame; a post-layout pulse listener on the tracked scene marks the end of
+     * the pulse's work on the JavaFX Application Thread. Must only be used on that thread.
+     */
+    private static final class FrameRecorder extends AnimationTimer {
+
+        private final Samples frames = new Samples();    // Intervals between pulse starts
+        private final Samples pulses = new Samples();    // Pulse starts to the end of layout
+        private final Samples latencies = new Samples(); // Event dispatch to the end of the next layout
+        private final Runnable layoutListener = this::layoutDone; // One instance, so it can be removed again
+
+        private Scene tracked;        // Scene whose layouts are timed, null if none
+        private boolean measuring;    // Whether the current game is measured
+        private long pulseStart;      // Start of the current pulse, 0 if it has been timed already
+        private long lastPulseStart;  // Start of the previous pulse, 0 if none
+        private long pendingEvent;    // Dispatch time of an event awaiting its repaint, 0 if none
+
+        /**
+         * Marks the start of a pulse.
+         *
+         * @param now the pulse's timestamp
+         */
+        @Override
+        public void handle(long now) {
+            long start = System.nanoTime();
+            if (measuring && lastPulseStart != 0) frames.add(start - lastPulseStart);
+            lastPulseStart = start;
+            pulseStart = start;
+        }
+
+        /**
+         * Starts timing a scene's layout, replacing the previously tracked scene.
+         *
+         * @param scene     the scene to track
+         * @param measuring whether the timings count towards the report
+         */
+        void track(Scene scene, boolean measuring) {
+            this.measuring = measuring;
+            this.lastPulseStart = 0;
+            this.pendingEvent = 0;
+            if (tracked != null) tracked.removePostLayoutPulseListener(layoutListener);
+            tracked = scene;
+            scene.addPostLayoutPulseListener(layoutListener);
+        }
+
+        /**
+         * Notes that an accepted event was dispatched, so the next layout completes its repaint.
+         *
+         * @param nanoTime when the event was dispatched
+         */
+        void dispatched(long nanoTime) {
+            if (pendingEvent == 0) pendingEvent = nanoTime;
+        }
+
+        /**
+         * Marks the end of layout in a pulse.
+         */
+        private void layoutDone() {
+            long end = System.nanoTime();
+            if (!measuring) return;
+            if (pulseStart != 0) pulses.add(end - pulseStart);
+            if (pendingEvent != 0) latencies.add(end - pendingEvent);
+            pulseStart = 0;
+            pendingEvent = 0;
+        }
+
+        /**
+         * Returns the timings recorded so far.
+         *
+         * @return the report
+         */
+        Report report() {
+            return new Report(frames, pulses, latencies);
+        }
+    }
+
+    /**
+     * The timings of a run.
+     */
+    private record Report(Samples frames, Samples pulses, Samples latencies) {
+    }
+
+    /**
+     * A growable list of durations in nanoseconds.
+     */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        /**
+         * Adds a duration.
+         */
+        void add(long nanos) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = nanos;
+        }
+
+        /**
+         * Returns the number of durations.
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * Returns the duration below which a fraction of the durations lie, in milliseconds.
+         */
+        double millisAt(double fraction) {
+            if (size == 0) return 0;
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(fraction * size) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, rank))] / 1e6;
+        }
+
+        /**
+         * Summarises the durations as their median, 95th percentile and maximum.
+         */
+        @Override
+        public String toString() {
+            return String.format("p50 %.2f ms, p95 %.2f ms, max %.2f ms", millisAt(0.50), millisAt(0.95), millisAt(1));
+        }
+    }
+}
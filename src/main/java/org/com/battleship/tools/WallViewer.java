@@ -0,0 +1,195 @@
+package org.com.battleship.tools;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.ai.EndgameSolver;
+import org.com.battleship.wall.WallSimulation;
+import org.com.battleship.wall.WallView;
+
+/**
+ * Shows dozens of computer-against-computer matches at once on a {@link WallView}, for tuning bots.
+ * <p>
+ * In a window, a status line below the wall shows shots and finished matches per second and how long
+ * each refresh takes. With {@code -Dwall.headless=true} it runs on the headless Monocle toolkit instead
+ * and checks that watching costs the simulation nothing: it measures the simulation's throughput alone
+ * and then with the wall refreshing, and fails if the wall slows it down by more than
+ * {@code wall.maxSlowdown} (default 0.15).
+ * </p>
+ * Run it with the {@code headless} Maven profile, which provides the exec plugin:
+ * <pre>
+ * mvn -Pheadless compile exec:java -Dexec.mainClass=org.com.battleship.tools.WallViewer -Dwall.matches=100
+ * </pre>
+ * Tunables (system properties): {@code wall.matches} (default 64), {@code wall.threads},
+ * {@code wall.difficulty} (default easy), {@code wall.delayMs} (pause after each round of shots,
+ * default 20, always 0 when headless), {@code wall.solverLayouts} and {@code wall.solverShips} (when
+ * the endgame solver takes over, default 2000 layouts and 2 ships), {@code wall.cellPixels} (default 3),
+ * {@code wall.fps} (default 30), {@code wall.seed}, and for the headless check {@code wall.seconds} (default 5)
+ * and {@code wall.maxSlowdown}.
+ */
+public class WallViewer extends Application {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private WallSimulation simulation; // Matches shown in the window
+
+    /**
+     * Opens the wall in a window, or runs the headless check if {@code wall.headless} is set.
+     *
+     * @param args passed on to JavaFX
+     */
+    public static void main(String[] args) {
+        if (!Boolean.getBoolean("wall.headless")) {
+            launch(args);
+            return;
+        }
+        SoakHarness.headless();
+        boolean passed;
+        try {
+            Platform.startup(() -> { });
+            passed = check();
+        } catch (Exception e) {
+            logger.error("Wall check aborted", e);
+            passed = false;
+        }
+        Platform.exit();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Starts the simulation and shows the wall with a status line.
+     *
+     * @param stage the primary stage
+     */
+    @Override
+    public void start(Stage stage) {
+        simulation = simulation(Long.getLong("wall.delayMs", 20));
+        simulation.start();
+        WallView wall = view(simulation);
+        Label status = new Label();
+        AnimationTimer statusTimer = new AnimationTimer() {
+            private long since;      // Start of the current second
+            private long shots;      // Shots when it started
+            private long finished;   // Finished matches when it started
+
+            @Override
+            public void handle(long now) {
+                if (now - since < TimeUnit.SECONDS.toNanos(1)) return;
+                double seconds = (now - since) / 1e9;
+                status.setText(String.format(Locale.ROOT, "%d matches | %.0f shots/s | %.1f matches/s | refresh %.2f ms",
+                        simulation.size(), (simulation.getShots() - shots) / seconds,
+                        (simulation.getFinished() - finished) / seconds, wall.getLastRenderNanos() / 1e6));
+                since = now;
+                shots = simulation.getShots();
+                finished = simulation.getFinished();
+            }
+        };
+        wall.start();
+        statusTimer.start();
+
+        BorderPane root = new BorderPane(wall);
+        root.setBottom(status);
+        stage.setTitle("Battleship wall");
+        stage.setScene(new Scene(root));
+        stage.show();
+    }
+
+    /**
+     * Stops the simulation when the window is closed.
+     */
+    @Override
+    public void stop() {
+        if (simulation != null) simulation.close();
+    }
+
+    /**
+     * Measures the simulation's throughput without and with the wall refreshing.
+     *
+     * @return {@code true} if the wall slows the simulation down by no more than allowed
+     * @throws Exception if the wall cannot be built on the JavaFX Application Thread
+     */
+    private static boolean check() throws Exception {
+        long seconds = Long.getLong("wall.seconds", 5);
+        double maxSlowdown = Double.parseDouble(System.getProperty("wall.maxSlowdown", "0.15"));
+        try (WallSimulation simulation = simulation(0)) {
+            simulation.start();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds)); // Warm-up
+            double alone = shotsPerSecond(simulation, seconds);
+
+            WallView wall = SoakHarness.onFx(() -> view(simulation));
+            SoakHarness.onFx(() -> {
+                wall.start();
+                return null;
+            });
+            double watched = shotsPerSecond(simulation, seconds);
+            long frames = SoakHarness.onFx(() -> {
+                wall.stop();
+                return wall.getFrames();
+            });
+
+            double slowdown = 1 - watched / alone;
+            System.out.printf(Locale.ROOT, "%d matches: %.0f shots/s alone, %.0f shots/s watched (%+.1f%%)%n",
+                    simulation.size(), alone, watched, -100 * slowdown);
+            System.out.printf(Locale.ROOT, "wall: %.1f frames/s, %d tiles drawn, refresh %.2f ms last, %.2f ms max%n",
+                    (double) frames / seconds, wall.getTilesDrawn(), wall.getLastRenderNanos() / 1e6,
+                    wall.getMaxRenderNanos() / 1e6);
+            boolean passed = slowdown <= maxSlowdown;
+            System.out.println(passed ? "PASSED" : "FAILED: the wall slows the simulation down by more than "
+                    + (int) (100 * maxSlowdown) + "%");
+            return passed;
+        }
+    }
+
+    /**
+     * Counts the shots the simulation fires in a period.
+     *
+     * @return the shots per second
+     */
+    private static double shotsPerSecond(WallSimulation simulation, long seconds) throws InterruptedException {
+        long shots = simulation.getShots();
+        long start = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        return (simulation.getShots() - shots) / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Creates the simulation configured from system properties.
+     *
+     * @param delayMillis the pause after each round of shots
+     * @return a simulation that has not been started
+     */
+    private static WallSimulation simulation(long delayMillis) {
+        WallSimulation.Builder builder = new WallSimulation.Builder()
+                .setMatches(Integer.getInteger("wall.matches", 64))
+                .setDifficulty(Difficulty.valueOf(System.getProperty("wall.difficulty", "easy").toUpperCase(Locale.ROOT)))
+                .setShotDelay(delayMillis, TimeUnit.MILLISECONDS)
+                .setSolver(new EndgameSolver.Builder().setMaxLayouts(Integer.getInteger("wall.solverLayouts", 2000))
+                        .setMaxShips(Integer.getInteger("wall.solverShips", 2)))
+                .setSeed(Long.getLong("wall.seed", 42L));
+        Integer threads = Integer.getInteger("wall.threads");
+        if (threads != null) builder.setThreads(threads);
+        return builder.build();
+    }
+
+    /**
+     * Creates the wall configured from system properties. Must run on the JavaFX Application Thread.
+     *
+     * @param simulation the simulation to show
+     * @return a wall that has not been started
+     */
+    private static WallView view(WallSimulation simulation) {
+        return new WallView.Builder().setSimulation(simulation)
+                .setCellPixels(Integer.getInteger("wall.cellPixels", 3))
+                .setMaxFps(Integer.getInteger("wall.fps", 30)).build();
+    }
+}
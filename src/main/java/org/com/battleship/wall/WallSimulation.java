@@ -0,0 +1,255 @@
+package org.com.battleship.wall;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.com.battleship.ai.AnytimeTargeting;
+import org.com.battleship.ai.Difficulty;
+import org.com.battleship.ai.EndgameSolver;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.GameState;
+import org.com.battleship.state.StateStore;
+
+/**
+ * Plays many headless matches at once, computer against computer, for watching bots on a {@link WallView}.
+ * <p>
+ * Matches are spread over a few worker threads; each worker owns its matches outright and takes one
+ * shot in each of them in turn. After every shot the match's position is published to its own
+ * {@link StateStore}, so any other thread can read a consistent snapshot of every match at any moment
+ * without locking and without ever holding up a worker. A finished match is started over with new
+ * random fleets.
+ * </p>
+ * Both sides of a match choose their shots with their own {@link AnytimeTargeting}, within the time
+ * budget of the configured difficulty.
+ */
+public final class WallSimulation implements AutoCloseable {
+
+    /** Logger instance for logging game events and errors. */
+    protected static final Logger logger = LogManager.getLogger();
+
+    private final StateStore[] matches;      // Latest position of each match
+    private final Thread[] workers;          // Each plays the matches whose index is congruent to its own
+    private final Difficulty difficulty;     // Time budget of every shot
+    private final EndgameSolver.Builder solver; // Configuration of every bot's endgame solver
+    private final long shotDelayNanos;       // Pause of a worker after each round of shots
+    private final long seed;                 // Seed of the fleets and of the bots' choices
+    private final LongAdder shots = new LongAdder();    // Shots fired in all matches
+    private final LongAdder finished = new LongAdder(); // Matches played to the end
+    private volatile boolean running;        // Cleared to stop the workers
+
+    /**
+     * Private constructor to create a WallSimulation instance using the Builder pattern.
+     *
+     * @param builder the Builder instance holding the configuration
+     */
+    private WallSimulation(Builder builder) {
+        this.matches = new StateStore[builder.matches];
+        for (int match = 0; match < matches.length; match++) {
+            matches[match] = new StateStore();
+        }
+        this.workers = new Thread[Math.min(builder.threads, builder.matches)];
+        this.difficulty = builder.difficulty;
+        this.solver = builder.solver;
+        this.shotDelayNanos = builder.shotDelayNanos;
+        this.seed = builder.seed;
+    }
+
+    /**
+     * Starts the worker threads. Matches have a position as soon as their worker reaches them.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        for (int worker = 0; worker < workers.length; worker++) {
+            int first = worker;
+            workers[worker] = new Thread(() -> play(first), "wall-sim-" + worker);
+            workers[worker].setDaemon(true);
+            workers[worker].start();
+        }
+        logger.info("Simulating {} matches on {} threads at {}", matches.length, workers.length, difficulty);
+    }
+
+    /**
+     * Stops the worker threads and waits for them to finish their current shot.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        for (Thread worker : workers) {
+            if (worker == null) continue;
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of matches played at once.
+     *
+     * @return the number of matches
+     */
+    public int size() {
+        return matches.length;
+    }
+
+    /**
+     * Returns the latest position of a match. Safe to call from any thread without locking;
+     * a new reference means the match has moved on since the last call.
+     *
+     * @param match the index of the match
+     * @return the match's current state, or {@code null} if its worker has not reached it yet
+     */
+    public GameState snapshot(int match) {
+        return matches[match].snapshot();
+    }
+
+    /**
+     * Returns the number of shots fired in all matches so far.
+     *
+     * @return the number of shots
+     */
+    public long getShots() {
+        return shots.sum();
+    }
+
+    /**
+     * Returns the number of matches played to the end so far.
+     *
+     * @return the number of finished matches
+     */
+    public long getFinished() {
+        return finished.sum();
+    }
+
+    /**
+     * Plays every match owned by one worker, one shot per match per round, until stopped.
+     *
+     * @param first the index of the worker, which is also that of its first match
+     */
+    private void play(int first) {
+        Random random = new Random(seed + first);
+        int owned = (matches.length - first + workers.length - 1) / workers.length;
+        AnytimeTargeting[] bots = new AnytimeTargeting[2 * owned]; // Player's and enemy's bot of each match
+        for (int bot = 0; bot < bots.length; bot++) {
+            bots[bot] = new AnytimeTargeting.Builder().setDifficulty(difficulty)
+                    .setRandom(new Random(random.nextLong())).setSolver(solver.build()).build();
+        }
+        while (running) {
+            for (int match = first, slot = 0; match < matches.length && running; match += workers.length, slot++) {
+                StateStore store = matches[match];
+                GameState state = store.snapshot();
+                if (state == null || state.isOver()) {
+                    if (state != null) finished.increment();
+                    bots[2 * slot].reset();
+                    bots[2 * slot + 1].reset();
+                    store.publish(GameState.start(FleetLayout.random(random), FleetLayout.random(random)));
+                    continue;
+                }
+                BoardState target = state.isEnemyTurn() ? state.player() : state.enemy();
+                int cell = bots[2 * slot + (state.isEnemyTurn() ? 1 : 0)].choose(target);
+                store.publish(state.shoot(cell));
+                shots.increment();
+            }
+            if (shotDelayNanos > 0) LockSupport.parkNanos(shotDelayNanos);
+        }
+    }
+
+    /**
+     * Builder class for constructing {@link WallSimulation} instances.
+     */
+    public static class Builder {
+        private int matches = 64;
+        private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        private Difficulty difficulty = Difficulty.EASY;
+        private EndgameSolver.Builder solver = new EndgameSolver.Builder();
+        private long shotDelayNanos;
+        private long seed = System.nanoTime();
+
+        /**
+         * Sets the number of matches played at once. Defaults to 64.
+         *
+         * @param matches the number of matches
+         * @return the Builder instance for chaining
+         */
+        public Builder setMatches(int matches) {
+            this.matches = matches;
+            return this;
+        }
+
+        /**
+         * Sets the number of worker threads. Defaults to one less than the number of processors,
+         * leaving one for the JavaFX Application Thread.
+         *
+         * @param threads the number of worker threads
+         * @return the Builder instance for chaining
+         */
+        public Builder setThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the time budget of every shot. Defaults to {@link Difficulty#EASY}.
+         *
+         * @param difficulty the difficulty level of both sides
+         * @return the Builder instance for chaining
+         */
+        public Builder setDifficulty(Difficulty difficulty) {
+            this.difficulty = difficulty;
+            return this;
+        }
+
+        /**
+         * Sets how every bot's endgame solver is configured, e.g. when it takes over. Each bot gets
+         * its own solver built from it. Defaults to the defaults of {@link EndgameSolver.Builder}.
+         *
+         * @param solver the configuration of the endgame solvers
+         * @return the Builder instance for chaining
+         */
+        public Builder setSolver(EndgameSolver.Builder solver) {
+            this.solver = solver;
+            return this;
+        }
+
+        /**
+         * Sets how long each worker pauses after taking one shot in each of its matches, so the
+         * matches can be followed by eye. Defaults to no pause.
+         *
+         * @param delay the pause
+         * @param unit  the unit of the pause
+         * @return the Builder instance for chaining
+         */
+        public Builder setShotDelay(long delay, TimeUnit unit) {
+            this.shotDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * Sets the seed of the fleets and of the bots' choices.
+         *
+         * @param seed the seed
+         * @return the Builder instance for chaining
+         */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new {@link WallSimulation} instance; call {@link #start()} to run it.
+         *
+         * @return a new {@link WallSimulation} instance
+         */
+        public WallSimulation build() {
+            if (matches < 1 || threads < 1) throw new IllegalArgumentException("Need at least one match and thread");
+            return new WallSimulation(this);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package org.com.battleship.wall;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import javafx.animation.AnimationTimer;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import org.com.battleship.state.BoardState;
+import org.com.battleship.state.FleetLayout;
+import org.com.battleship.state.GameState;
+import org.com.battleship.state.Grid;
+
+/**
+ * Shows every match of a {@link WallSimulation} live in a single image.
+ * <p>
+ * A {@link org.com.battleship.model.Board} needs a hundred {@link org.com.battleship.model.Cell} nodes,
+ * so a few dozen matches would mean thousands of nodes to lay out and render. The wall instead draws
+ * each match as one tile of a {@link WritableImage}: the player's board on the left and the enemy's on
+ * the right, each cell a square block of pixels. The scene graph holds a single node however many
+ * matches are shown.
+ * </p>
+ * Once started, the wall refreshes at most at its frame rate cap. Each refresh reads the latest
+ * snapshot of every match, which never blocks the simulation, and only redraws the tiles of matches
+ * that have moved on since the last refresh. Must be used on the JavaFX Application Thread.
+ */
+public class WallView extends ImageView {
+
+    private static final int BACKGROUND = 0xFF101418; // Between tiles and boards
+    private static final int WATER = 0xFF1B3A5C;      // Not shot, no ship
+    private static final int SHIP = 0xFF8A8F96;       // Not shot, ship
+    private static final int MISS = 0xFF6F9BD1;       // Shot, no ship
+    private static final int HIT = 0xFFE03C31;        // Shot, ship afloat
+    private static final int SUNK = 0xFF7A1010;       // Shot, ship sunk
+
+    private final WallSimulation simulation; // Source of the matches shown
+    private final int cellPixels;            // Side of a cell's block of pixels
+    private final long frameNanos;           // Shortest time between two refreshes
+    private final int columns;               // Tiles per row
+    private final int tileWidth;             // Width of a match's tile, including its margin
+    private final int tileHeight;            // Height of a match's tile, including its margin
+    private final int width;                 // Width of the image
+    private final int[] pixels;              // ARGB copy of the image, written tile by tile
+    private final PixelWriter writer;        // Writes changed tiles into the image
+    private final GameState[] shown;         // Snapshot each tile was last drawn from
+    private final AnimationTimer timer;      // Drives the refreshes
+
+    private long lastFrame;                  // Time of the last refresh
+    private long frames;                     // Refreshes so far
+    private long tilesDrawn;                 // Tiles redrawn so far
+    private long lastRenderNanos;            // Duration of the last refresh
+    private long maxRenderNanos;             // Longest refresh so far
+
+    /**
+     * Private constructor to create a WallView instance using the Builder pattern.
+     *
+     * @param builder the Builder instance holding the configuration
+     */
+    private WallView(Builder builder) {
+        this.simulation = builder.simulation;
+        this.cellPixels = builder.cellPixels;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / builder.maxFps;
+        int boardPixels = Grid.SIZE * cellPixels;
+        this.tileWidth = 2 * boardPixels + 2 * cellPixels; // Gap between the boards, margin on the right
+        this.tileHeight = boardPixels + cellPixels;         // Margin below
+        int matches = simulation.size();
+        this.columns = Math.max(1, (int) Math.ceil(Math.sqrt(matches * (double) tileHeight / tileWidth)));
+        int rows = (matches + columns - 1) / columns;
+        this.width = columns * tileWidth + cellPixels;      // Margin on the left
+        int height = rows * tileHeight + cellPixels;        // Margin on top
+        this.pixels = new int[width * height];
+        Arrays.fill(pixels, BACKGROUND);
+        WritableImage image = new WritableImage(width, height);
+        this.writer = image.getPixelWriter();
+        writer.setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        this.shown = new GameState[matches];
+        setImage(image);
+        setSmooth(false); // Keep the cells crisp when the view is scaled
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastFrame < frameNanos) return; // Cap the frame rate
+                lastFrame = now;
+                render();
+            }
+        };
+    }
+
+    /**
+     * Starts refreshing the wall on every pulse, up to the frame rate cap.
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops refreshing the wall; the image keeps showing the last refresh.
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Redraws the tiles of every match that has moved on since the last refresh.
+     */
+    public void render() {
+        long start = System.nanoTime();
+        for (int match = 0; match < shown.length; match++) {
+            GameState state = simulation.snapshot(match);
+            if (state == null || state == shown[match]) continue; // Unchanged snapshots are the same object
+            shown[match] = state;
+            drawTile(match, state);
+            tilesDrawn++;
+        }
+        frames++;
+        lastRenderNanos = System.nanoTime() - start;
+        maxRenderNanos = Math.max(maxRenderNanos, lastRenderNanos);
+    }
+
+    /**
+     * Returns the number of refreshes so far.
+     *
+     * @return the number of frames rendered
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the number of tiles redrawn so far.
+     *
+     * @return the number of tiles drawn
+     */
+    public long getTilesDrawn() {
+        return tilesDrawn;
+    }
+
+    /**
+     * Returns how long the last refresh took on the JavaFX Application Thread.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getLastRenderNanos() {
+        return lastRenderNanos;
+    }
+
+    /**
+     * Returns how long the longest refresh so far took.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getMaxRenderNanos() {
+        return maxRenderNanos;
+    }
+
+    /**
+     * Draws both boards of a match into its tile and hands the tile to the image.
+     */
+    private void drawTile(int match, GameState state) {
+        int left = cellPixels + (match % columns) * tileWidth;
+        int top = cellPixels + (match / columns) * tileHeight;
+        drawBoard(state.player(), left, top);
+        drawBoard(state.enemy(), left + (Grid.SIZE + 1) * cellPixels, top);
+        writer.setPixels(left, top, tileWidth - cellPixels, tileHeight - cellPixels,
+                PixelFormat.getIntArgbInstance(), pixels, top * width + left, width);
+    }
+
+    /**
+     * Draws one board into the pixel copy, one block per cell.
+     */
+    private void drawBoard(BoardState board, int left, int top) {
+        FleetLayout layout = board.getLayout();
+        long sunkLo = 0;
+        long sunkHi = 0;
+        for (int ship = 0; ship < layout.size(); ship++) {
+            if (!board.isSunk(ship)) continue;
+            sunkLo |= layout.maskLo(ship);
+            sunkHi |= layout.maskHi(ship);
+        }
+        for (int index = 0; index < Grid.CELLS; index++) {
+            int colour;
+            if (!board.isShot(index)) {
+                colour = layout.isOccupied(index) ? SHIP : WATER;
+            } else if (!board.isHit(index)) {
+                colour = MISS;
+            } else {
+                colour = Grid.test(sunkLo, sunkHi, index) ? SUNK : HIT;
+            }
+            int offset = (top + Grid.y(index) * cellPixels) * width + left + Grid.x(index) * cellPixels;
+            for (int row = 0; row < cellPixels; row++, offset += width) {
+                Arrays.fill(pixels, offset, offset + cellPixels, colour);
+            }
+        }
+    }
+
+    /**
+     * Builder class for constructing {@link WallView} instances.
+     */
+    public static class Builder {
+        private WallSimulation simulation;
+        private int cellPixels = 3;
+        private int maxFps = 30;
+
+        /**
+         * Sets the simulation whose matches are shown.
+         *
+         * @param simulation the simulation
+         * @return the Builder instance for chaining
+         */
+        public Builder setSimulation(WallSimulation simulation) {
+            this.simulation = simulation;
+            return this;
+        }
+
+        /**
+         * Sets the side of each cell's block of pixels. Defaults to 3.
+         *
+         * @param cellPixels the side in pixels
+         * @return the Builder instance for chaining
+         */
+        public Builder setCellPixels(int cellPixels) {
+            this.cellPixels = cellPixels;
+            return this;
+        }
+
+        /**
+         * Sets the most refreshes per second. Defaults to 30.
+         *
+         * @param maxFps the frame rate cap
+         * @return the Builder instance for chaining
+         */
+        public Builder setMaxFps(int maxFps) {
+            this.maxFps = maxFps;
+            return this;
+        }
+
+        /**
+         * Builds and returns a new {@link WallView} instance. Must be called on the JavaFX Application Thread.
+         *
+         * @return a new {@link WallView} instance
+         */
+        public WallView build() {
+            if (simulation == null) throw new IllegalStateException("A simulation is required");
+            if (cellPixels < 1 || maxFps < 1) throw new IllegalArgumentException("Cell size and frame rate must be positive");
+            return new WallView(this);
+        }
+    }
+}